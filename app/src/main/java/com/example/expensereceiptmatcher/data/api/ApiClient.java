@@ -5,9 +5,13 @@ import android.util.Log;
 
 import com.example.expensereceiptmatcher.BuildConfig;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -20,9 +24,14 @@ public class ApiClient {
     private static final String TAG = "ApiClient";
     private static final String BASE_URL = BuildConfig.API_BASE_URL != null ? 
         BuildConfig.API_BASE_URL : "http://localhost:3000/api/";
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE = 20L * 1024 * 1024;
     
     private static ApiClient instance;
     private ApiService apiService;
+    private Cache httpCache;
+    private CachePolicyInterceptor cachePolicyInterceptor;
+    private CacheStatsInterceptor cacheStatsInterceptor;
     private SecureTokenStorage tokenStorage;
     private String companyId;
     
@@ -35,14 +44,29 @@ public class ApiClient {
         loggingInterceptor.setLevel(BuildConfig.DEBUG ? 
             HttpLoggingInterceptor.Level.BODY : HttpLoggingInterceptor.Level.NONE);
         
-        // Create OkHttpClient with interceptors
+        // Disk-backed HTTP cache. List responses carry an ETag, so a repeat request for an
+        // unchanged list is revalidated with If-None-Match and answered with a 304.
+        httpCache = new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE);
+        cachePolicyInterceptor = new CachePolicyInterceptor(HttpUrl.get(BASE_URL).encodedPath());
+        cacheStatsInterceptor = new CacheStatsInterceptor();
+        // Company settings and members change rarely; sync pages are one-shot
+        setCacheMaxAge("companies", 60);
+        setCacheMaxAge("receipts/sync", CachePolicyInterceptor.NO_STORE);
+        setCacheMaxAge("transactions/sync", CachePolicyInterceptor.NO_STORE);
+        
+        // Create OkHttpClient with interceptors. Coalescing runs after the auth and company
+        // headers are in place, so only requests for the same user and company are merged.
         OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
                 .addInterceptor(loggingInterceptor)
                 .addInterceptor(new AuthInterceptor())
-                .addInterceptor(new CompanyIdInterceptor());
+                .addInterceptor(new CompanyIdInterceptor())
+                .addInterceptor(new CoalescingInterceptor())
+                .addInterceptor(cacheStatsInterceptor)
+                .addNetworkInterceptor(cachePolicyInterceptor)
+                .cache(httpCache);
         
         // Build Retrofit instance
         Retrofit retrofit = new Retrofit.Builder()
@@ -65,6 +89,25 @@ public class ApiClient {
         return apiService;
     }
     
+    // Let GET responses from an endpoint prefix (as written in ApiService, e.g.
+    // "matches/stats") be served from the HTTP cache for the given number of seconds.
+    // 0 always revalidates with the server; a negative value disables caching for it.
+    public void setCacheMaxAge(String endpoint, int seconds) {
+        cachePolicyInterceptor.setMaxAge(endpoint, seconds < 0 ? CachePolicyInterceptor.NO_STORE : seconds);
+    }
+    
+    // HTTP cache counters since start-up, for diagnostics
+    public CacheStats getCacheStats() {
+        long size;
+        try {
+            size = httpCache.size();
+        } catch (IOException e) {
+            size = -1;
+        }
+        return new CacheStats(cacheStatsInterceptor.hits.get(), cacheStatsInterceptor.conditionalHits.get(),
+                cacheStatsInterceptor.misses.get(), size);
+    }
+    
     // Token management methods
     public void saveTokens(String accessToken, String refreshToken) {
         tokenStorage.saveTokens(accessToken, refreshToken);
@@ -81,6 +124,12 @@ public class ApiClient {
     public void clearTokens() {
         tokenStorage.clearTokens();
         companyId = null;
+        // Cached responses belong to the user who is signing out
+        try {
+            httpCache.evictAll();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to clear HTTP cache", e);
+        }
     }
     
     public String getAccessToken() {
@@ -138,4 +187,31 @@ public class ApiClient {
             return chain.proceed(newRequest);
         }
     }
-}
\ No newline at end of file
+    
+    // Interceptor for counting how the HTTP cache answered each GET. It sits after
+    // coalescing, so a request shared by several callers is counted once.
+    private static class CacheStatsInterceptor implements Interceptor {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong conditionalHits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Response response = chain.proceed(chain.request());
+            if (!"GET".equals(chain.request().method())) {
+                return response;
+            }
+            
+            if (response.networkResponse() == null) {
+                if (response.cacheResponse() != null) {
+                    hits.incrementAndGet();
+                }
+            } else if (response.cacheResponse() != null && response.networkResponse().code() == 304) {
+                conditionalHits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+            }
+            return response;
+        }
+    }
+}
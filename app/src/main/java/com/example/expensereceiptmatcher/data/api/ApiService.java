@@ -26,6 +26,7 @@ import retrofit2.http.Query;
 import retrofit2.http.Header;
 import retrofit2.http.Multipart;
 import retrofit2.http.Part;
+import retrofit2.http.Streaming;
 
 public interface ApiService {
     // API service interface for Retrofit
@@ -93,6 +94,43 @@ public interface ApiService {
         @Header("x-company-id") String companyId
     );
     
+    // Several receipts in one request, each part named "receipts". The data has one
+    // entry per part, in the order they were sent.
+    @Multipart
+    @POST("receipts/upload/bulk")
+    Call<ApiResponse<List<UploadCompleteResponse>>> uploadReceipts(
+        @Part List<MultipartBody.Part> files,
+        @Header("x-company-id") String companyId
+    );
+    
+    // Chunked, resumable upload: start a session, append chunks at the offset the server
+    // reports, then complete it
+    @POST("receipts/uploads")
+    Call<ApiResponse<UploadSessionResponse>> startUpload(
+        @Body StartUploadRequest request,
+        @Header("x-company-id") String companyId
+    );
+    
+    @GET("receipts/uploads/{uploadId}")
+    Call<ApiResponse<UploadSessionResponse>> getUploadSession(
+        @Path("uploadId") String uploadId,
+        @Header("x-company-id") String companyId
+    );
+    
+    @PUT("receipts/uploads/{uploadId}")
+    Call<ApiResponse<UploadSessionResponse>> uploadChunk(
+        @Path("uploadId") String uploadId,
+        @Query("offset") long offset,
+        @Body RequestBody chunk,
+        @Header("x-company-id") String companyId
+    );
+    
+    @POST("receipts/uploads/{uploadId}/complete")
+    Call<ApiResponse<UploadCompleteResponse>> completeUpload(
+        @Path("uploadId") String uploadId,
+        @Header("x-company-id") String companyId
+    );
+    
     @PUT("receipts/{id}")
     Call<ApiResponse<Receipt>> updateReceipt(
         @Path("id") int id,
@@ -116,6 +154,15 @@ public interface ApiService {
         @Header("x-company-id") String companyId
     );
     
+    // Streamed: pages are parsed incrementally with SyncPageReader
+    @Streaming
+    @GET("receipts/sync")
+    Call<okhttp3.ResponseBody> syncReceipts(
+        @Query("cursor") String cursor,
+        @Query("limit") Integer limit,
+        @Header("x-company-id") String companyId
+    );
+    
     @GET("receipts/unmatched/list")
     Call<ApiResponse<List<Receipt>>> getUnmatchedReceipts(@Header("x-company-id") String companyId);
     
@@ -131,6 +178,15 @@ public interface ApiService {
     @GET("transactions/{id}")
     Call<ApiResponse<Transaction>> getTransaction(@Path("id") int id, @Header("x-company-id") String companyId);
     
+    // Streamed: pages are parsed incrementally with SyncPageReader
+    @Streaming
+    @GET("transactions/sync")
+    Call<okhttp3.ResponseBody> syncTransactions(
+        @Query("cursor") String cursor,
+        @Query("limit") Integer limit,
+        @Header("x-company-id") String companyId
+    );
+    
     @POST("transactions/import")
     @Multipart
     Call<ApiResponse<Void>> importTransactions(
@@ -0,0 +1,73 @@
+package com.example.expensereceiptmatcher.data.api;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+class CachePolicyInterceptor implements Interceptor {
+    // Network interceptor that lets the app choose how long a GET response may be served
+    // from the HTTP cache without asking the server. The server marks API responses
+    // "no-cache", so by default every cached list is revalidated with its ETag and costs
+    // a 304 when unchanged; endpoints configured here override that on the way into the
+    // cache. Rules are endpoint prefixes as written in ApiService, e.g. "matches/stats";
+    // the longest matching prefix wins.
+    
+    static final int NO_STORE = -1;
+    
+    private final String basePath;
+    private final Map<String, Integer> maxAgeByEndpoint = new ConcurrentHashMap<>();
+    
+    CachePolicyInterceptor(String basePath) {
+        this.basePath = basePath;
+    }
+    
+    // seconds > 0 serves the cached copy for that long, 0 always revalidates and
+    // NO_STORE keeps the endpoint out of the cache altogether
+    void setMaxAge(String endpoint, int seconds) {
+        maxAgeByEndpoint.put(endpoint, seconds);
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (!"GET".equals(request.method()) || !response.isSuccessful()) {
+            return response;
+        }
+        
+        Integer maxAge = maxAgeFor(request.url().encodedPath());
+        if (maxAge == null) {
+            return response;
+        }
+        String cacheControl;
+        if (maxAge == NO_STORE) {
+            cacheControl = "no-store";
+        } else if (maxAge == 0) {
+            cacheControl = "private, no-cache";
+        } else {
+            cacheControl = "private, max-age=" + maxAge;
+        }
+        return response.newBuilder()
+                .header("Cache-Control", cacheControl)
+                .removeHeader("Pragma")
+                .build();
+    }
+    
+    private Integer maxAgeFor(String path) {
+        if (!path.startsWith(basePath)) {
+            return null;
+        }
+        String endpoint = path.substring(basePath.length());
+        String bestMatch = null;
+        for (String prefix : maxAgeByEndpoint.keySet()) {
+            if (endpoint.startsWith(prefix) && (bestMatch == null || prefix.length() > bestMatch.length())) {
+                bestMatch = prefix;
+            }
+        }
+        return bestMatch != null ? maxAgeByEndpoint.get(bestMatch) : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.expensereceiptmatcher.data.api;
+
+public class CacheStats {
+    // Snapshot of how GET requests were answered by the HTTP cache
+    private long hitCount;
+    private long conditionalHitCount;
+    private long missCount;
+    private long cacheSizeBytes;
+    
+    public CacheStats(long hitCount, long conditionalHitCount, long missCount, long cacheSizeBytes) {
+        this.hitCount = hitCount;
+        this.conditionalHitCount = conditionalHitCount;
+        this.missCount = missCount;
+        this.cacheSizeBytes = cacheSizeBytes;
+    }
+    
+    // Served from the cache without touching the network
+    public long getHitCount() {
+        return hitCount;
+    }
+    
+    // Revalidated with the server, which answered 304 Not Modified
+    public long getConditionalHitCount() {
+        return conditionalHitCount;
+    }
+    
+    // Full response downloaded from the server
+    public long getMissCount() {
+        return missCount;
+    }
+    
+    public long getCacheSizeBytes() {
+        return cacheSizeBytes;
+    }
+    
+    public long getRequestCount() {
+        return hitCount + conditionalHitCount + missCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", conditionalHits=" + conditionalHitCount
+                + ", misses=" + missCount + ", sizeBytes=" + cacheSizeBytes + "}";
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.expensereceiptmatcher.data.api;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+class CoalescingInterceptor implements Interceptor {
+    // Collapses identical GETs that are in flight at the same time into one network call.
+    // The first caller sends the request; callers that arrive before it finishes wait for
+    // its response and each get their own copy of the body. Only JSON responses of a
+    // known, modest size are shared, since those are read whole anyway; anything else
+    // (receipt images, downloads, streamed sync pages) makes the waiters send their own
+    // request.
+    
+    private static final String TAG = "CoalescingInterceptor";
+    private static final long MAX_SHARED_BODY_BYTES = 256 * 1024;
+    
+    private final ConcurrentHashMap<String, InFlightCall> inFlight = new ConcurrentHashMap<>();
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+        
+        String key = keyFor(request);
+        InFlightCall call = new InFlightCall();
+        InFlightCall existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            Response shared = existing.await();
+            if (shared == null) {
+                return chain.proceed(request);
+            }
+            Log.d(TAG, "Coalesced " + request.url());
+            return shared.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(existing.body, existing.contentType))
+                    .build();
+        }
+        
+        try {
+            Response response = chain.proceed(request);
+            ResponseBody body = response.body();
+            if (body == null || !isJson(body.contentType()) || body.contentLength() < 0
+                    || body.contentLength() > MAX_SHARED_BODY_BYTES) {
+                call.complete(null, null, null);
+                return response;
+            }
+            
+            byte[] bytes;
+            try {
+                bytes = body.bytes();
+            } finally {
+                body.close();
+            }
+            Response copy = response.newBuilder().body(ResponseBody.create(bytes, body.contentType())).build();
+            call.complete(copy, bytes, body.contentType());
+            return copy;
+        } catch (IOException e) {
+            call.fail(e);
+            throw e;
+        } catch (RuntimeException e) {
+            call.complete(null, null, null);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+    
+    // Requests are only identical if they would be answered identically, so the
+    // credentials and company travel in the key along with the URL
+    private static String keyFor(Request request) {
+        return request.url() + "|" + request.header("Authorization") + "|" + request.headers("x-company-id");
+    }
+    
+    private static boolean isJson(MediaType contentType) {
+        return contentType != null && "json".equals(contentType.subtype());
+    }
+    
+    // Outcome of the first of a set of identical requests, handed to the others
+    private static class InFlightCall {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Response response;
+        private volatile byte[] body;
+        private volatile MediaType contentType;
+        private volatile IOException failure;
+        
+        void complete(Response response, byte[] body, MediaType contentType) {
+            this.response = response;
+            this.body = body;
+            this.contentType = contentType;
+            done.countDown();
+        }
+        
+        void fail(IOException failure) {
+            this.failure = failure;
+            done.countDown();
+        }
+        
+        // Returns the shared response, or null when it cannot be shared and the caller
+        // should send its own request
+        Response await() throws IOException {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for an identical request");
+            }
+            if (failure != null) {
+                throw new IOException(failure.getMessage(), failure);
+            }
+            return response;
+        }
+    }
+}
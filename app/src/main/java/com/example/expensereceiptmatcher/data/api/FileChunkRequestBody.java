@@ -0,0 +1,49 @@
+package com.example.expensereceiptmatcher.data.api;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+public class FileChunkRequestBody extends RequestBody {
+    // One byte range of a file as a request body. The range is read from disk while the
+    // request is written, so sending a chunk needs no buffer of its size, and the body can
+    // be written again if OkHttp retries the request.
+    
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    
+    private final File file;
+    private final long offset;
+    private final long length;
+    
+    public FileChunkRequestBody(File file, long offset, long length) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+    
+    @Override
+    public long contentLength() {
+        return length;
+    }
+    
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        try (FileInputStream input = new FileInputStream(file)) {
+            input.getChannel().position(offset);
+            try (Source source = Okio.source(input)) {
+                sink.write(source, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.expensereceiptmatcher.data.api;
+
+import com.example.expensereceiptmatcher.utils.FileUploadUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+public class ProgressFileRequestBody extends RequestBody {
+    // A file as a request body that reports how much of it has been written to the
+    // connection, for per-file progress in a multipart request. Progress goes through
+    // callbackExecutor, at most once per PROGRESS_STEP bytes and once at the end. Each
+    // write starts again from zero, so a retried request restarts progress instead of
+    // running past the file size.
+    
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final long PROGRESS_STEP = 64 * 1024;
+    
+    private final File file;
+    private final MediaType contentType;
+    private final FileUploadUtils.UploadProgressListener listener;
+    private final Executor callbackExecutor;
+    
+    public ProgressFileRequestBody(File file, MediaType contentType, FileUploadUtils.UploadProgressListener listener,
+                                   Executor callbackExecutor) {
+        this.file = file;
+        this.contentType = contentType;
+        this.listener = listener;
+        this.callbackExecutor = callbackExecutor;
+    }
+    
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+    
+    @Override
+    public long contentLength() {
+        return file.length();
+    }
+    
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        long total = file.length();
+        long written = 0;
+        long reported = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (FileInputStream input = new FileInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                sink.write(buffer, 0, read);
+                written += read;
+                if (written - reported >= PROGRESS_STEP) {
+                    reported = written;
+                    report(written, total);
+                }
+            }
+        }
+        if (reported != written) {
+            report(written, total);
+        }
+    }
+    
+    private void report(long written, long total) {
+        callbackExecutor.execute(() -> listener.onProgress(written, total));
+    }
+}
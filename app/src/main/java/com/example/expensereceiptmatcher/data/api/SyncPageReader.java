@@ -0,0 +1,110 @@
+package com.example.expensereceiptmatcher.data.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+
+public class SyncPageReader {
+    // Streaming parser for sync responses ({"data": {"items": [...], "deletedIds": [...],
+    // "cursor": ..., "hasMore": ...}}). Items are decoded one at a time with JsonReader
+    // and handed to a sink in small batches, so a large page never exists in memory as a
+    // whole list, let alone next to its raw body.
+    
+    private final Gson gson;
+    private final int batchSize;
+    
+    public SyncPageReader(Gson gson, int batchSize) {
+        this.gson = gson;
+        this.batchSize = batchSize;
+    }
+    
+    // Receives decoded items; a batch list is not reused after the call returns
+    public interface ItemSink<T> {
+        void accept(List<T> batch) throws IOException;
+    }
+    
+    // Streams the items of one page into the sink and returns the rest of the page
+    // (deleted ids, cursor, hasMore) with an empty item list, or null if the body has no
+    // data. The body is always closed.
+    public <T> SyncResponse<T> read(ResponseBody body, Class<T> itemType, ItemSink<T> sink) throws IOException {
+        TypeAdapter<T> adapter = gson.getAdapter(itemType);
+        try (JsonReader reader = new JsonReader(body.charStream())) {
+            SyncResponse<T> page = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("data".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    page = readPage(reader, adapter, sink);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return page;
+        } catch (JsonParseException e) {
+            throw new IllegalStateException("Malformed sync response", e);
+        } finally {
+            body.close();
+        }
+    }
+    
+    private <T> SyncResponse<T> readPage(JsonReader reader, TypeAdapter<T> adapter, ItemSink<T> sink)
+            throws IOException {
+        SyncResponse<T> page = new SyncResponse<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "items":
+                    readItems(reader, adapter, sink);
+                    break;
+                case "deletedIds":
+                    List<Integer> deletedIds = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        deletedIds.add(reader.nextInt());
+                    }
+                    reader.endArray();
+                    page.setDeletedIds(deletedIds);
+                    break;
+                case "cursor":
+                    page.setCursor(reader.nextString());
+                    break;
+                case "hasMore":
+                    page.setHasMore(reader.nextBoolean());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return page;
+    }
+    
+    private <T> void readItems(JsonReader reader, TypeAdapter<T> adapter, ItemSink<T> sink) throws IOException {
+        List<T> batch = new ArrayList<>(batchSize);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            batch.add(adapter.read(reader));
+            if (batch.size() == batchSize) {
+                sink.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        reader.endArray();
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Database(entities = {ReceiptEntity.class, TransactionEntity.class, MatchEntity.class, SyncStateEntity.class,
+        OutboxEntity.class, UploadEntity.class, ResolvedMatchEntity.class}, version = 8, exportSchema = false)
+public abstract class AppDatabase extends RoomDatabase {
+    private static final String DATABASE_NAME = "expense_matcher.db";
+    private static final int NUMBER_OF_THREADS = 4;
+    
+    private static AppDatabase instance;
+    
+    // Room refuses main-thread queries; all cache reads and writes go through here
+    public static final ExecutorService databaseExecutor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    
+    // Versions 1 and 2 only held cached server data. From version 3 on the outbox holds
+    // writes that have not reached the server yet, so every upgrade needs a migration.
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `outbox` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`companyId` TEXT, `operation` TEXT, `targetId` INTEGER NOT NULL, `payload` TEXT, "
+                    + "`createdAt` INTEGER NOT NULL, `attempts` INTEGER NOT NULL)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_outbox_companyId_targetId` "
+                    + "ON `outbox` (`companyId`, `targetId`)");
+        }
+    };
+    
+    // Paging walks receipts and transactions by (date, id) within a company
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("DROP INDEX IF EXISTS `index_receipts_companyId`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_receipts_companyId_date_id` "
+                    + "ON `receipts` (`companyId`, `date`, `id`)");
+            database.execSQL("DROP INDEX IF EXISTS `index_transactions_companyId`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transactions_companyId_date_id` "
+                    + "ON `transactions` (`companyId`, `date`, `id`)");
+        }
+    };
+    
+    // Amounts move from REAL to whole minor units plus a currency code. SQLite cannot
+    // change a column's type, so both tables are rebuilt and their rows copied across.
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE `receipts_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`companyId` TEXT, `imageUrl` TEXT, `date` TEXT, `amountMinor` INTEGER NOT NULL, "
+                    + "`currency` TEXT, `vendor` TEXT, `category` TEXT, `notes` TEXT, "
+                    + "`transactionId` INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO `receipts_new` (`id`, `companyId`, `imageUrl`, `date`, `amountMinor`, "
+                    + "`currency`, `vendor`, `category`, `notes`, `transactionId`) "
+                    + "SELECT `id`, `companyId`, `imageUrl`, `date`, CAST(ROUND(`amount` * 100) AS INTEGER), "
+                    + "'USD', `vendor`, `category`, `notes`, `transactionId` FROM `receipts`");
+            database.execSQL("DROP TABLE `receipts`");
+            database.execSQL("ALTER TABLE `receipts_new` RENAME TO `receipts`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_receipts_companyId_date_id` "
+                    + "ON `receipts` (`companyId`, `date`, `id`)");
+            
+            database.execSQL("CREATE TABLE `transactions_new` (`id` INTEGER NOT NULL, `companyId` TEXT, "
+                    + "`date` TEXT, `amountMinor` INTEGER NOT NULL, `currency` TEXT, `description` TEXT, "
+                    + "`category` TEXT, `receiptId` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            database.execSQL("INSERT INTO `transactions_new` (`id`, `companyId`, `date`, `amountMinor`, `currency`, "
+                    + "`description`, `category`, `receiptId`) "
+                    + "SELECT `id`, `companyId`, `date`, CAST(ROUND(`amount` * 100) AS INTEGER), 'USD', "
+                    + "`description`, `category`, `receiptId` FROM `transactions`");
+            database.execSQL("DROP TABLE `transactions`");
+            database.execSQL("ALTER TABLE `transactions_new` RENAME TO `transactions`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transactions_companyId_date_id` "
+                    + "ON `transactions` (`companyId`, `date`, `id`)");
+        }
+    };
+    
+    // Receipt files queued for a chunked upload
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `uploads` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`companyId` TEXT, `filePath` TEXT, `fileName` TEXT, `mimeType` TEXT, `size` INTEGER NOT NULL, "
+                    + "`sessionId` TEXT, `uploadedBytes` INTEGER NOT NULL, `status` TEXT, `error` TEXT, "
+                    + "`attempts` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL)");
+        }
+    };
+    
+    // Server ids of matches created offline, which used to be kept only in memory
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `resolved_matches` (`localId` INTEGER NOT NULL, "
+                    + "`serverId` INTEGER NOT NULL, PRIMARY KEY(`localId`))");
+        }
+    };
+    
+    // A missing amount is stored as NULL rather than 0. The amountMinor columns become
+    // nullable, so both tables are rebuilt as in MIGRATION_4_5.
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE `receipts_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`companyId` TEXT, `imageUrl` TEXT, `date` TEXT, `amountMinor` INTEGER, "
+                    + "`currency` TEXT, `vendor` TEXT, `category` TEXT, `notes` TEXT, "
+                    + "`transactionId` INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO `receipts_new` (`id`, `companyId`, `imageUrl`, `date`, `amountMinor`, "
+                    + "`currency`, `vendor`, `category`, `notes`, `transactionId`) "
+                    + "SELECT `id`, `companyId`, `imageUrl`, `date`, `amountMinor`, "
+                    + "`currency`, `vendor`, `category`, `notes`, `transactionId` FROM `receipts`");
+            database.execSQL("DROP TABLE `receipts`");
+            database.execSQL("ALTER TABLE `receipts_new` RENAME TO `receipts`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_receipts_companyId_date_id` "
+                    + "ON `receipts` (`companyId`, `date`, `id`)");
+            
+            database.execSQL("CREATE TABLE `transactions_new` (`id` INTEGER NOT NULL, `companyId` TEXT, "
+                    + "`date` TEXT, `amountMinor` INTEGER, `currency` TEXT, `description` TEXT, "
+                    + "`category` TEXT, `receiptId` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            database.execSQL("INSERT INTO `transactions_new` (`id`, `companyId`, `date`, `amountMinor`, `currency`, "
+                    + "`description`, `category`, `receiptId`) "
+                    + "SELECT `id`, `companyId`, `date`, `amountMinor`, `currency`, "
+                    + "`description`, `category`, `receiptId` FROM `transactions`");
+            database.execSQL("DROP TABLE `transactions`");
+            database.execSQL("ALTER TABLE `transactions_new` RENAME TO `transactions`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_transactions_companyId_date_id` "
+                    + "ON `transactions` (`companyId`, `date`, `id`)");
+        }
+    };
+    
+    public abstract ReceiptDao receiptDao();
+    
+    public abstract TransactionDao transactionDao();
+    
+    public abstract MatchDao matchDao();
+    
+    public abstract SyncStateDao syncStateDao();
+    
+    public abstract OutboxDao outboxDao();
+    
+    public abstract UploadDao uploadDao();
+    
+    public static synchronized AppDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, DATABASE_NAME)
+                    .addMigrations(MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+                            MIGRATION_7_8)
+                    .fallbackToDestructiveMigrationFrom(1)
+                    .build();
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface MatchDao {
+    @Query("SELECT * FROM matches WHERE companyId = :companyId ORDER BY matchDate DESC")
+    List<MatchEntity> getAllMatches(String companyId);
+    
+    // Matches with the receipt and transaction fields the list shows, in one query
+    @Query("SELECT m.*, r.vendor AS receiptVendor, r.amountMinor AS receiptAmountMinor, "
+            + "r.currency AS receiptCurrency, t.description AS transactionDescription, "
+            + "t.amountMinor AS transactionAmountMinor, t.currency AS transactionCurrency "
+            + "FROM matches m "
+            + "LEFT JOIN receipts r ON r.id = m.receiptId AND r.companyId = m.companyId "
+            + "LEFT JOIN transactions t ON t.id = m.transactionId AND t.companyId = m.companyId "
+            + "WHERE m.companyId = :companyId ORDER BY m.matchDate DESC")
+    List<MatchDetailRow> getMatchDetails(String companyId);
+    
+    @Query("SELECT * FROM matches WHERE id = :id")
+    MatchEntity getMatchById(int id);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertMatch(MatchEntity match);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertMatches(List<MatchEntity> matches);
+    
+    @Query("DELETE FROM matches WHERE id = :id")
+    void deleteMatchById(int id);
+    
+    @Query("DELETE FROM matches WHERE companyId = :companyId")
+    void deleteAllMatches(String companyId);
+    
+    // Swap in a full server listing atomically so readers never see a half-empty table
+    @Transaction
+    default void replaceAllMatches(String companyId, List<MatchEntity> matches) {
+        deleteAllMatches(companyId);
+        insertMatches(matches);
+    }
+}
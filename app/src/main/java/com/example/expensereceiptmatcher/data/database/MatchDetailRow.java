@@ -0,0 +1,36 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Embedded;
+
+import com.example.expensereceiptmatcher.domain.model.MatchDetail;
+import com.example.expensereceiptmatcher.domain.model.Money;
+
+public class MatchDetailRow {
+    // Result row of MatchDao.getMatchDetails: the match columns plus the joined receipt
+    // and transaction columns, which are null when the other side is not cached
+    @Embedded
+    public MatchEntity match;
+    public String receiptVendor;
+    public Long receiptAmountMinor;
+    public String receiptCurrency;
+    public String transactionDescription;
+    public Long transactionAmountMinor;
+    public String transactionCurrency;
+    
+    public MatchDetail toMatchDetail() {
+        MatchDetail detail = new MatchDetail();
+        detail.setMatch(match.toMatch());
+        detail.setReceiptVendor(receiptVendor);
+        detail.setReceiptAmount(toMoney(receiptAmountMinor, receiptCurrency));
+        detail.setTransactionDescription(transactionDescription);
+        detail.setTransactionAmount(toMoney(transactionAmountMinor, transactionCurrency));
+        return detail;
+    }
+    
+    private static Money toMoney(Long minorUnits, String currency) {
+        if (minorUnits == null) {
+            return null;
+        }
+        return Money.ofMinor(minorUnits, currency != null ? currency : Money.DEFAULT_CURRENCY);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+
+@Entity(tableName = "matches", indices = {@Index("companyId")})
+public class MatchEntity {
+    @PrimaryKey
+    private int id;
+    private String companyId;
+    private int receiptId;
+    private int transactionId;
+    private double confidenceScore;
+    private String matchDate;
+    private boolean manual;
+    
+    public MatchEntity() {
+    }
+    
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+    
+    public void setId(int id) {
+        this.id = id;
+    }
+    
+    public String getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+    
+    public int getReceiptId() {
+        return receiptId;
+    }
+    
+    public void setReceiptId(int receiptId) {
+        this.receiptId = receiptId;
+    }
+    
+    public int getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(int transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public double getConfidenceScore() {
+        return confidenceScore;
+    }
+    
+    public void setConfidenceScore(double confidenceScore) {
+        this.confidenceScore = confidenceScore;
+    }
+    
+    public String getMatchDate() {
+        return matchDate;
+    }
+    
+    public void setMatchDate(String matchDate) {
+        this.matchDate = matchDate;
+    }
+    
+    public boolean isManual() {
+        return manual;
+    }
+    
+    public void setManual(boolean manual) {
+        this.manual = manual;
+    }
+    
+    // Mapping to and from the domain model
+    public static MatchEntity fromMatch(Match match, String companyId) {
+        MatchEntity entity = new MatchEntity();
+        entity.setId(match.getId());
+        entity.setCompanyId(companyId);
+        entity.setReceiptId(match.getReceiptId());
+        entity.setTransactionId(match.getTransactionId());
+        entity.setConfidenceScore(match.getConfidenceScore());
+        entity.setMatchDate(match.getMatchDate());
+        entity.setManual(match.isManual());
+        return entity;
+    }
+    
+    public Match toMatch() {
+        Match match = new Match();
+        match.setId(id);
+        match.setReceiptId(receiptId);
+        match.setTransactionId(transactionId);
+        match.setConfidenceScore(confidenceScore);
+        match.setMatchDate(matchDate);
+        match.setManual(manual);
+        return match;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+@Dao
+public interface OutboxDao {
+    // The oldest pending write, which replay sends next
+    @Query("SELECT * FROM outbox ORDER BY id LIMIT 1")
+    OutboxEntity getFirstOperation();
+    
+    @Query("SELECT * FROM outbox WHERE id = :id")
+    OutboxEntity getOperationById(long id);
+    
+    @Query("SELECT * FROM outbox WHERE companyId = :companyId AND targetId = :targetId AND operation IN (:operations)")
+    List<OutboxEntity> findOperations(String companyId, int targetId, List<String> operations);
+    
+    @Query("SELECT * FROM outbox WHERE companyId = :companyId ORDER BY id")
+    List<OutboxEntity> getOperationsForCompany(String companyId);
+    
+    @Insert
+    long insertOperation(OutboxEntity operation);
+    
+    @Update
+    void updateOperation(OutboxEntity operation);
+    
+    @Query("UPDATE outbox SET attempts = attempts + 1 WHERE id = :id")
+    void incrementAttempts(long id);
+    
+    @Query("DELETE FROM outbox WHERE id = :id")
+    void deleteOperationById(long id);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertResolvedMatch(ResolvedMatchEntity resolvedMatch);
+    
+    @Query("SELECT serverId FROM resolved_matches WHERE localId = :localId")
+    Integer getResolvedMatchId(int localId);
+}
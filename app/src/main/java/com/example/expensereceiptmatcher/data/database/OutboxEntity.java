@@ -0,0 +1,93 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "outbox", indices = {@Index({"companyId", "targetId"})})
+public class OutboxEntity {
+    // A write made while the server may be unreachable, replayed in id order
+    
+    public static final String CREATE_MATCH = "create_match";
+    public static final String CONFIRM_MATCH = "confirm_match";
+    public static final String REJECT_MATCH = "reject_match";
+    public static final String UPDATE_RECEIPT = "update_receipt";
+    public static final String UPDATE_TRANSACTION = "update_transaction";
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private String companyId;
+    private String operation;
+    private int targetId; // Match, receipt or transaction id; negative for a match created offline
+    private String payload; // Request body as JSON, null for confirm/reject
+    private long createdAt;
+    private int attempts;
+    
+    public OutboxEntity() {
+    }
+    
+    public OutboxEntity(String companyId, String operation, int targetId, String payload) {
+        this.companyId = companyId;
+        this.operation = operation;
+        this.targetId = targetId;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+    }
+    
+    // Getters and setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public String getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+    
+    public String getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+    
+    public int getTargetId() {
+        return targetId;
+    }
+    
+    public void setTargetId(int targetId) {
+        this.targetId = targetId;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
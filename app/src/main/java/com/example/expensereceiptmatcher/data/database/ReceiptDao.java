@@ -2,28 +2,45 @@ package com.example.expensereceiptmatcher.data.database;
 
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 import androidx.room.Delete;
 
-import com.example.expensereceiptmatcher.domain.model.Receipt;
-
 import java.util.List;
 
 @Dao
 public interface ReceiptDao {
-    @Query("SELECT * FROM receipts")
-    List<Receipt> getAllReceipts();
+    @Query("SELECT * FROM receipts WHERE companyId = :companyId ORDER BY date DESC")
+    List<ReceiptEntity> getAllReceipts(String companyId);
+    
+    @Query("SELECT * FROM receipts WHERE companyId = :companyId AND transactionId = -1 ORDER BY date DESC")
+    List<ReceiptEntity> getUnmatchedReceipts(String companyId);
+    
+    @Query("SELECT id FROM receipts WHERE companyId = :companyId")
+    List<Integer> getReceiptIds(String companyId);
     
     @Query("SELECT * FROM receipts WHERE id = :id")
-    Receipt getReceiptById(int id);
+    ReceiptEntity getReceiptById(int id);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertReceipt(ReceiptEntity receipt);
     
-    @Insert
-    void insertReceipt(Receipt receipt);
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertReceipts(List<ReceiptEntity> receipts);
     
     @Update
-    void updateReceipt(Receipt receipt);
+    void updateReceipt(ReceiptEntity receipt);
     
     @Delete
-    void deleteReceipt(Receipt receipt);
-}
\ No newline at end of file
+    void deleteReceipt(ReceiptEntity receipt);
+    
+    @Query("DELETE FROM receipts WHERE id = :id")
+    void deleteReceiptById(int id);
+    
+    @Query("DELETE FROM receipts WHERE companyId = :companyId")
+    void deleteAllReceipts(String companyId);
+    
+    @Query("DELETE FROM receipts WHERE id IN (:ids)")
+    void deleteReceiptsByIds(List<Integer> ids);
+}
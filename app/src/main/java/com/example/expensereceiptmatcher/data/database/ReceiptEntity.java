@@ -1,15 +1,22 @@
 package com.example.expensereceiptmatcher.data.database;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "receipts")
+import com.example.expensereceiptmatcher.domain.model.Money;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+
+@Entity(tableName = "receipts", indices = {@Index({"companyId", "date", "id"})})
 public class ReceiptEntity {
     @PrimaryKey(autoGenerate = true)
     private int id;
+    private String companyId;
     private String imageUrl;
     private String date;
-    private double amount;
+    // Exact amount in the currency's minor units, see Money; null when there is none
+    private Long amountMinor;
+    private String currency;
     private String vendor;
     private String category;
     private String notes;
@@ -28,6 +35,14 @@ public class ReceiptEntity {
         this.id = id;
     }
     
+    public String getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+    
     public String getImageUrl() {
         return imageUrl;
     }
@@ -44,12 +59,20 @@ public class ReceiptEntity {
         this.date = date;
     }
     
-    public double getAmount() {
-        return amount;
+    public Long getAmountMinor() {
+        return amountMinor;
     }
     
-    public void setAmount(double amount) {
-        this.amount = amount;
+    public void setAmountMinor(Long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
     }
     
     public String getVendor() {
@@ -83,4 +106,37 @@ public class ReceiptEntity {
     public void setTransactionId(int transactionId) {
         this.transactionId = transactionId;
     }
-}
\ No newline at end of file
+    
+    // Mapping to and from the domain model
+    public static ReceiptEntity fromReceipt(Receipt receipt, String companyId) {
+        ReceiptEntity entity = new ReceiptEntity();
+        entity.setId(receipt.getId());
+        entity.setCompanyId(companyId);
+        entity.setImageUrl(receipt.getImageUrl());
+        entity.setDate(receipt.getDate());
+        Money amount = receipt.getAmount();
+        if (amount != null) {
+            entity.setAmountMinor(amount.getMinorUnits());
+            entity.setCurrency(amount.getCurrencyCode());
+        }
+        entity.setVendor(receipt.getVendor());
+        entity.setCategory(receipt.getCategory());
+        entity.setNotes(receipt.getNotes());
+        entity.setTransactionId(receipt.getTransactionId());
+        return entity;
+    }
+    
+    public Receipt toReceipt() {
+        Receipt receipt = new Receipt();
+        receipt.setId(id);
+        receipt.setImageUrl(imageUrl);
+        receipt.setDate(date);
+        receipt.setAmount(amountMinor != null
+                ? Money.ofMinor(amountMinor, currency != null ? currency : Money.DEFAULT_CURRENCY) : null);
+        receipt.setVendor(vendor);
+        receipt.setCategory(category);
+        receipt.setNotes(notes);
+        receipt.setTransactionId(transactionId);
+        return receipt;
+    }
+}
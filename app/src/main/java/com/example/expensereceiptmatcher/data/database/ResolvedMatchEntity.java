@@ -0,0 +1,36 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "resolved_matches")
+public class ResolvedMatchEntity {
+    // The server id of a match created offline, so a confirm or reject made against its
+    // negative local id after the create went through still finds it
+    
+    @PrimaryKey
+    private int localId; // Negated outbox id the match had while offline
+    private int serverId;
+    
+    public ResolvedMatchEntity(int localId, int serverId) {
+        this.localId = localId;
+        this.serverId = serverId;
+    }
+    
+    // Getters and setters
+    public int getLocalId() {
+        return localId;
+    }
+    
+    public void setLocalId(int localId) {
+        this.localId = localId;
+    }
+    
+    public int getServerId() {
+        return serverId;
+    }
+    
+    public void setServerId(int serverId) {
+        this.serverId = serverId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface SyncStateDao {
+    @Query("SELECT * FROM sync_state WHERE companyId = :companyId AND entityType = :entityType")
+    SyncStateEntity getSyncState(String companyId, String entityType);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertSyncState(SyncStateEntity syncState);
+}
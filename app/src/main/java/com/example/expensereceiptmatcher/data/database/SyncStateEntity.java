@@ -0,0 +1,58 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+@Entity(tableName = "sync_state", primaryKeys = {"companyId", "entityType"})
+public class SyncStateEntity {
+    // Delta sync high-water mark for one entity type in one company
+    
+    @NonNull
+    private String companyId;
+    @NonNull
+    private String entityType;
+    private String cursor; // Opaque server cursor, null until the first sync completes
+    private long lastSyncedAt;
+    
+    public SyncStateEntity(@NonNull String companyId, @NonNull String entityType, String cursor, long lastSyncedAt) {
+        this.companyId = companyId;
+        this.entityType = entityType;
+        this.cursor = cursor;
+        this.lastSyncedAt = lastSyncedAt;
+    }
+    
+    // Getters and setters
+    @NonNull
+    public String getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(@NonNull String companyId) {
+        this.companyId = companyId;
+    }
+    
+    @NonNull
+    public String getEntityType() {
+        return entityType;
+    }
+    
+    public void setEntityType(@NonNull String entityType) {
+        this.entityType = entityType;
+    }
+    
+    public String getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+    
+    public long getLastSyncedAt() {
+        return lastSyncedAt;
+    }
+    
+    public void setLastSyncedAt(long lastSyncedAt) {
+        this.lastSyncedAt = lastSyncedAt;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+@Dao
+public interface TransactionDao {
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId ORDER BY date DESC")
+    List<TransactionEntity> getAllTransactions(String companyId);
+    
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId AND receiptId = -1 ORDER BY date DESC")
+    List<TransactionEntity> getUnmatchedTransactions(String companyId);
+    
+    // Keyset paging in list order: date DESC, id DESC, undated rows last. Served by the
+    // (companyId, date, id) index; see DateKeysetPageSource.
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId ORDER BY date DESC, id DESC LIMIT :limit")
+    List<TransactionEntity> getNewestTransactions(String companyId, int limit);
+    
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId AND date <= :date AND (date < :date OR id < :id) "
+            + "ORDER BY date DESC, id DESC LIMIT :limit")
+    List<TransactionEntity> getTransactionsOlderThan(String companyId, String date, int id, int limit);
+    
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId AND date >= :date AND (date > :date OR id > :id) "
+            + "ORDER BY date ASC, id ASC LIMIT :limit")
+    List<TransactionEntity> getTransactionsNewerThan(String companyId, String date, int id, int limit);
+    
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId AND date IS NULL AND id < :id "
+            + "ORDER BY id DESC LIMIT :limit")
+    List<TransactionEntity> getUndatedTransactionsBelow(String companyId, int id, int limit);
+    
+    @Query("SELECT * FROM transactions WHERE companyId = :companyId AND date IS NULL AND id > :id "
+            + "ORDER BY id ASC LIMIT :limit")
+    List<TransactionEntity> getUndatedTransactionsAbove(String companyId, int id, int limit);
+    
+    @Query("SELECT id FROM transactions WHERE companyId = :companyId")
+    List<Integer> getTransactionIds(String companyId);
+    
+    @Query("SELECT * FROM transactions WHERE id = :id")
+    TransactionEntity getTransactionById(int id);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertTransaction(TransactionEntity transaction);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertTransactions(List<TransactionEntity> transactions);
+    
+    @Update
+    void updateTransaction(TransactionEntity transaction);
+    
+    @Query("DELETE FROM transactions WHERE id = :id")
+    void deleteTransactionById(int id);
+    
+    @Query("DELETE FROM transactions WHERE companyId = :companyId")
+    void deleteAllTransactions(String companyId);
+    
+    @Query("DELETE FROM transactions WHERE id IN (:ids)")
+    void deleteTransactionsByIds(List<Integer> ids);
+}
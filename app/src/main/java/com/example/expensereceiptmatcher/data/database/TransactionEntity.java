@@ -0,0 +1,120 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.example.expensereceiptmatcher.domain.model.Money;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+@Entity(tableName = "transactions", indices = {@Index({"companyId", "date", "id"})})
+public class TransactionEntity {
+    @PrimaryKey
+    private int id;
+    private String companyId;
+    private String date;
+    // Exact amount in the currency's minor units, see Money; null when there is none
+    private Long amountMinor;
+    private String currency;
+    private String description;
+    private String category;
+    private int receiptId; // ID of matched receipt, -1 if unmatched
+    
+    public TransactionEntity() {
+        this.receiptId = -1;
+    }
+    
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+    
+    public void setId(int id) {
+        this.id = id;
+    }
+    
+    public String getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+    
+    public String getDate() {
+        return date;
+    }
+    
+    public void setDate(String date) {
+        this.date = date;
+    }
+    
+    public Long getAmountMinor() {
+        return amountMinor;
+    }
+    
+    public void setAmountMinor(Long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public int getReceiptId() {
+        return receiptId;
+    }
+    
+    public void setReceiptId(int receiptId) {
+        this.receiptId = receiptId;
+    }
+    
+    // Mapping to and from the domain model
+    public static TransactionEntity fromTransaction(Transaction transaction, String companyId) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setId(transaction.getId());
+        entity.setCompanyId(companyId);
+        entity.setDate(transaction.getDate());
+        Money amount = transaction.getAmount();
+        if (amount != null) {
+            entity.setAmountMinor(amount.getMinorUnits());
+            entity.setCurrency(amount.getCurrencyCode());
+        }
+        entity.setDescription(transaction.getDescription());
+        entity.setCategory(transaction.getCategory());
+        entity.setReceiptId(transaction.getReceiptId());
+        return entity;
+    }
+    
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setDate(date);
+        transaction.setAmount(amountMinor != null
+                ? Money.ofMinor(amountMinor, currency != null ? currency : Money.DEFAULT_CURRENCY) : null);
+        transaction.setDescription(description);
+        transaction.setCategory(category);
+        transaction.setReceiptId(receiptId);
+        return transaction;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface UploadDao {
+    @Query("SELECT * FROM uploads WHERE status = :status ORDER BY id")
+    List<UploadEntity> getUploadsWithStatus(String status);
+    
+    @Query("SELECT * FROM uploads WHERE id = :id")
+    UploadEntity getUploadById(long id);
+    
+    @Insert
+    long insertUpload(UploadEntity upload);
+    
+    @Query("UPDATE uploads SET sessionId = :sessionId, uploadedBytes = :uploadedBytes WHERE id = :id")
+    void updateProgress(long id, String sessionId, long uploadedBytes);
+    
+    @Query("UPDATE uploads SET attempts = :attempts WHERE id = :id")
+    void updateAttempts(long id, int attempts);
+    
+    @Query("UPDATE uploads SET status = :status, error = :error WHERE id = :id")
+    void updateStatus(long id, String status, String error);
+    
+    @Query("UPDATE uploads SET status = :to, error = NULL, attempts = 0 WHERE status = :from")
+    void resetStatus(String from, String to);
+    
+    @Query("DELETE FROM uploads WHERE id = :id")
+    void deleteUploadById(long id);
+}
@@ -0,0 +1,137 @@
+package com.example.expensereceiptmatcher.data.database;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "uploads")
+public class UploadEntity {
+    // A receipt file waiting to be uploaded, with the server's upload session and the
+    // number of bytes it has acknowledged, so an upload resumes where it stopped
+    
+    public static final String PENDING = "pending";
+    public static final String FAILED = "failed";
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private String companyId;
+    private String filePath;
+    private String fileName;
+    private String mimeType;
+    private long size;
+    private String sessionId; // Null until the server has started a session
+    private long uploadedBytes; // Bytes the server has acknowledged
+    private String status;
+    private String error; // Why the server refused the upload, for FAILED rows
+    private int attempts;
+    private long createdAt;
+    
+    public UploadEntity() {
+    }
+    
+    public UploadEntity(String companyId, String filePath, String fileName, String mimeType, long size) {
+        this.companyId = companyId;
+        this.filePath = filePath;
+        this.fileName = fileName;
+        this.mimeType = mimeType;
+        this.size = size;
+        this.status = PENDING;
+        this.createdAt = System.currentTimeMillis();
+    }
+    
+    // Getters and setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public String getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+    
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+    
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+    
+    public void setUploadedBytes(long uploadedBytes) {
+        this.uploadedBytes = uploadedBytes;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
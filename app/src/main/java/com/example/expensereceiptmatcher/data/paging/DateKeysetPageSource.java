@@ -0,0 +1,80 @@
+package com.example.expensereceiptmatcher.data.paging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public abstract class DateKeysetPageSource<E, T> implements PageSource<T> {
+    // Keyset paging over a Room table listed newest first (date DESC, id DESC), where rows
+    // without a date come last, ordered by id. Each page is one indexed range scan from
+    // the anchor's (date, id), so deep pages cost the same as the first one. Subclasses
+    // supply the queries; dated and undated rows are queried separately because a NULL
+    // date cannot take part in a range comparison.
+    
+    // Newest rows, in list order
+    protected abstract List<E> newest(int limit);
+    
+    // Dated rows after (date, id) in list order
+    protected abstract List<E> olderThan(String date, int id, int limit);
+    
+    // Dated rows before (date, id), nearest first (date ASC, id ASC)
+    protected abstract List<E> newerThan(String date, int id, int limit);
+    
+    // Undated rows with a smaller id, in list order
+    protected abstract List<E> undatedBelow(int id, int limit);
+    
+    // Undated rows with a larger id, nearest first
+    protected abstract List<E> undatedAbove(int id, int limit);
+    
+    protected abstract T toModel(E entity);
+    
+    protected abstract String dateOf(T item);
+    
+    protected abstract int idOf(T item);
+    
+    @Override
+    public List<T> loadFirst(int limit) {
+        return toModels(newest(limit), false);
+    }
+    
+    @Override
+    public List<T> loadAfter(T anchor, int limit) {
+        String date = dateOf(anchor);
+        if (date == null) {
+            return toModels(undatedBelow(idOf(anchor), limit), false);
+        }
+        List<E> rows = new ArrayList<>(olderThan(date, idOf(anchor), limit));
+        if (rows.size() < limit) {
+            // Past the oldest dated row; the undated rows follow
+            rows.addAll(undatedBelow(Integer.MAX_VALUE, limit - rows.size()));
+        }
+        return toModels(rows, false);
+    }
+    
+    @Override
+    public List<T> loadBefore(T anchor, int limit) {
+        String date = dateOf(anchor);
+        List<E> rows;
+        if (date == null) {
+            rows = new ArrayList<>(undatedAbove(idOf(anchor), limit));
+            if (rows.size() < limit) {
+                // Before the first undated row comes the oldest dated one
+                rows.addAll(newerThan("", Integer.MIN_VALUE, limit - rows.size()));
+            }
+        } else {
+            rows = newerThan(date, idOf(anchor), limit);
+        }
+        return toModels(rows, true);
+    }
+    
+    private List<T> toModels(List<E> rows, boolean reverse) {
+        List<T> items = new ArrayList<>(rows.size());
+        for (E row : rows) {
+            items.add(toModel(row));
+        }
+        if (reverse) {
+            Collections.reverse(items);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.expensereceiptmatcher.data.paging;
+
+import java.util.List;
+
+public interface PageSource<T> {
+    // Loads a list page by page relative to items already loaded, so no call ever pays
+    // for an offset. Every method blocks and must be called off the main thread; results
+    // are in list order.
+    
+    // The first items of the list
+    List<T> loadFirst(int limit);
+    
+    // Up to limit items that come right after anchor
+    List<T> loadAfter(T anchor, int limit);
+    
+    // Up to limit items that come right before anchor
+    List<T> loadBefore(T anchor, int limit);
+}
@@ -0,0 +1,156 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import android.util.Log;
+
+import com.example.expensereceiptmatcher.data.api.ApiResponse;
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.api.ProgressFileRequestBody;
+import com.example.expensereceiptmatcher.data.api.UploadCompleteResponse;
+import com.example.expensereceiptmatcher.utils.FileUploadUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+class BulkReceiptUpload {
+    // State of one ReceiptRepository.uploadReceipts call. The files are packed into
+    // multipart requests of up to MAX_FILES files and MAX_BYTES, and up to window requests
+    // are in flight at a time. Only touched on the callback executor, where Retrofit
+    // delivers its callbacks, so it needs no locking.
+    
+    private static final String TAG = "BulkReceiptUpload";
+    // Limits for one bulk upload request, so a failed request is cheap to send again
+    static final int MAX_FILES = 20;
+    static final long MAX_BYTES = 8L * 1024 * 1024;
+    
+    private final ApiService apiService;
+    private final String companyId;
+    private final List<File> files;
+    private final Function<File, FileUploadUtils.UploadProgressListener> progress;
+    private final ReceiptRepository.ReceiptCallback<List<UploadCompleteResponse>> callback;
+    private final Executor callbackExecutor;
+    private final List<List<File>> batches;
+    private final UploadCompleteResponse[] results;
+    private int nextBatch;
+    private int inFlight;
+    private int failed;
+    
+    BulkReceiptUpload(ApiService apiService, String companyId, List<File> files,
+                      Function<File, FileUploadUtils.UploadProgressListener> progress,
+                      ReceiptRepository.ReceiptCallback<List<UploadCompleteResponse>> callback,
+                      Executor callbackExecutor) {
+        this.apiService = apiService;
+        this.companyId = companyId;
+        this.files = files;
+        this.progress = progress;
+        this.callback = callback;
+        this.callbackExecutor = callbackExecutor;
+        this.batches = packBatches(files);
+        this.results = new UploadCompleteResponse[files.size()];
+    }
+    
+    // Call on the callback executor
+    void start(int window) {
+        while (inFlight < window && nextBatch < batches.size()) {
+            send(nextBatch++);
+        }
+    }
+    
+    // Consecutive files up to the request limits; a file over the byte limit goes alone
+    static List<List<File>> packBatches(List<File> files) {
+        List<List<File>> batches = new ArrayList<>();
+        List<File> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (File file : files) {
+            long size = file.length();
+            if (!batch.isEmpty() && (batch.size() == MAX_FILES || batchBytes + size > MAX_BYTES)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(file);
+            batchBytes += size;
+        }
+        batches.add(batch);
+        return batches;
+    }
+    
+    private void send(int batchIndex) {
+        List<File> batch = batches.get(batchIndex);
+        int firstFile = 0;
+        for (int i = 0; i < batchIndex; i++) {
+            firstFile += batches.get(i).size();
+        }
+        int offset = firstFile;
+        
+        List<FileUploadUtils.UploadProgressListener> listeners = new ArrayList<>(batch.size());
+        List<MultipartBody.Part> parts = new ArrayList<>(batch.size());
+        for (File file : batch) {
+            FileUploadUtils.UploadProgressListener listener = progress.apply(file);
+            listeners.add(listener);
+            RequestBody body = new ProgressFileRequestBody(file,
+                    MediaType.parse(FileUploadUtils.getMimeType(file.getName())), listener, callbackExecutor);
+            parts.add(MultipartBody.Part.createFormData("receipts", file.getName(), body));
+        }
+        
+        inFlight++;
+        apiService.uploadReceipts(parts, companyId).enqueue(new Callback<ApiResponse<List<UploadCompleteResponse>>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<List<UploadCompleteResponse>>> call,
+                                   Response<ApiResponse<List<UploadCompleteResponse>>> response) {
+                List<UploadCompleteResponse> data = response.isSuccessful() && response.body() != null
+                        ? response.body().getData() : null;
+                if (data == null || data.size() != batch.size()) {
+                    String error = "Failed to upload receipt";
+                    if (response.errorBody() != null) {
+                        error = response.message();
+                    }
+                    finish(offset, batch, listeners, null, error);
+                    return;
+                }
+                finish(offset, batch, listeners, data, null);
+            }
+            
+            @Override
+            public void onFailure(Call<ApiResponse<List<UploadCompleteResponse>>> call, Throwable t) {
+                Log.e(TAG, "Failed to upload receipts", t);
+                finish(offset, batch, listeners, null, "Network error: " + t.getMessage());
+            }
+        });
+    }
+    
+    // Settle every file of a finished request, then keep the window full
+    private void finish(int offset, List<File> batch, List<FileUploadUtils.UploadProgressListener> listeners,
+                        List<UploadCompleteResponse> data, String error) {
+        for (int i = 0; i < batch.size(); i++) {
+            UploadCompleteResponse result = data != null ? data.get(i) : null;
+            if (result != null && result.getError() == null) {
+                results[offset + i] = result;
+                listeners.get(i).onComplete(batch.get(i));
+            } else {
+                failed++;
+                listeners.get(i).onError(result != null ? result.getError() : error);
+            }
+        }
+        inFlight--;
+        if (nextBatch < batches.size()) {
+            send(nextBatch++);
+        } else if (inFlight == 0) {
+            if (failed == 0) {
+                callback.onSuccess(Arrays.asList(results));
+            } else {
+                callback.onError("Failed to upload " + failed + " of " + files.size() + " receipts");
+            }
+        }
+    }
+}
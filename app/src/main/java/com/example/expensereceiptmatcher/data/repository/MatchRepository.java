@@ -1,6 +1,8 @@
 package com.example.expensereceiptmatcher.data.repository;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.example.expensereceiptmatcher.data.api.ApiClient;
@@ -8,10 +10,14 @@ import com.example.expensereceiptmatcher.data.api.ApiService;
 import com.example.expensereceiptmatcher.data.api.ApiResponse;
 import com.example.expensereceiptmatcher.data.api.CreateMatchRequest;
 import com.example.expensereceiptmatcher.data.api.MatchStatsResponse;
+import com.example.expensereceiptmatcher.data.database.AppDatabase;
+import com.example.expensereceiptmatcher.data.database.MatchDao;
+import com.example.expensereceiptmatcher.data.database.MatchDetailRow;
+import com.example.expensereceiptmatcher.data.database.MatchEntity;
 import com.example.expensereceiptmatcher.domain.model.Match;
-import com.example.expensereceiptmatcher.domain.model.Receipt;
-import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.domain.model.MatchDetail;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import okhttp3.RequestBody;
@@ -24,10 +30,18 @@ public class MatchRepository {
     private static final String TAG = "MatchRepository";
     private ApiClient apiClient;
     private ApiService apiService;
+    private MatchDao matchDao;
+    private OutboxRepository outboxRepository;
+    private SyncRepository syncRepository;
+    private Handler mainHandler;
     
     public MatchRepository(Context context) {
         apiClient = ApiClient.getInstance(context);
         apiService = apiClient.getApiService();
+        matchDao = AppDatabase.getInstance(context).matchDao();
+        outboxRepository = OutboxRepository.getInstance(context);
+        syncRepository = new SyncRepository(context);
+        mainHandler = new Handler(Looper.getMainLooper());
     }
     
     public interface MatchCallback<T> {
@@ -35,7 +49,8 @@ public class MatchRepository {
         void onError(String error);
     }
     
-    // Get all matches
+    // Get all matches. Reads are stale-while-revalidate: cached rows are delivered
+    // first when there are any, then the callback fires again with the server result.
     public void getAllMatches(MatchCallback<List<Match>> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -43,6 +58,112 @@ public class MatchRepository {
             return;
         }
         
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<Match> cached = toMatches(matchDao.getAllMatches(companyId));
+            boolean servedFromCache = !cached.isEmpty();
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached));
+            }
+            
+            refreshMatchCache(companyId, new MatchCallback<Void>() {
+                @Override
+                public void onSuccess(Void response) {
+                    AppDatabase.databaseExecutor.execute(() -> {
+                        List<Match> matches = toMatches(matchDao.getAllMatches(companyId));
+                        mainHandler.post(() -> callback.onSuccess(matches));
+                    });
+                }
+                
+                @Override
+                public void onError(String error) {
+                    if (!servedFromCache) {
+                        callback.onError(error);
+                    }
+                }
+            });
+        });
+    }
+    
+    // Get matches joined with the vendor, description and amounts of their receipt and
+    // transaction, for the Matches list. The join runs in Room, so the screen needs no
+    // receipt or transaction lists of its own. Cached rows come first; then the match
+    // list is refreshed while receipts and transactions catch up by delta sync, and the
+    // joined rows are delivered again once all three have finished.
+    public void getMatchDetails(MatchCallback<List<MatchDetail>> callback) {
+        String companyId = apiClient.getCompanyId();
+        if (companyId == null) {
+            callback.onError("No company selected");
+            return;
+        }
+        
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<MatchDetail> cached = toMatchDetails(matchDao.getMatchDetails(companyId));
+            boolean servedFromCache = !cached.isEmpty();
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached));
+            }
+            
+            mainHandler.post(() -> refreshMatchDetails(companyId, servedFromCache, callback));
+        });
+    }
+    
+    // Runs the three refreshes in parallel. Their callbacks all arrive on the main
+    // thread, so the counters need no locking.
+    private void refreshMatchDetails(String companyId, boolean servedFromCache,
+                                     MatchCallback<List<MatchDetail>> callback) {
+        int[] pending = {3};
+        String[] lastError = {null};
+        boolean[] anySucceeded = {false};
+        Runnable onRefreshDone = () -> {
+            if (--pending[0] > 0) {
+                return;
+            }
+            if (!anySucceeded[0]) {
+                if (!servedFromCache) {
+                    callback.onError(lastError[0]);
+                }
+                return;
+            }
+            AppDatabase.databaseExecutor.execute(() -> {
+                List<MatchDetail> details = toMatchDetails(matchDao.getMatchDetails(companyId));
+                mainHandler.post(() -> callback.onSuccess(details));
+            });
+        };
+        
+        refreshMatchCache(companyId, new MatchCallback<Void>() {
+            @Override
+            public void onSuccess(Void response) {
+                anySucceeded[0] = true;
+                onRefreshDone.run();
+            }
+            
+            @Override
+            public void onError(String error) {
+                lastError[0] = error;
+                onRefreshDone.run();
+            }
+        });
+        
+        SyncRepository.SyncCallback<Integer> syncDone = new SyncRepository.SyncCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer changed) {
+                anySucceeded[0] = true;
+                onRefreshDone.run();
+            }
+            
+            @Override
+            public void onError(String error) {
+                lastError[0] = error;
+                onRefreshDone.run();
+            }
+        };
+        syncRepository.syncReceipts(syncDone);
+        syncRepository.syncTransactions(syncDone);
+    }
+    
+    // Replace the cached matches with the server list. Pending outbox writes are layered
+    // back on top; the callback fires on the main thread once the cache is written.
+    private void refreshMatchCache(String companyId, MatchCallback<Void> callback) {
         Call<ApiResponse<List<Match>>> call = apiService.getMatches(companyId);
         call.enqueue(new Callback<ApiResponse<List<Match>>>() {
             @Override
@@ -50,7 +171,12 @@ public class MatchRepository {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<Match>> apiResponse = response.body();
                     if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
+                        List<MatchEntity> entities = toEntities(apiResponse.getData(), companyId);
+                        AppDatabase.databaseExecutor.execute(() -> {
+                            outboxRepository.applyServerData(companyId,
+                                    () -> matchDao.replaceAllMatches(companyId, entities));
+                            mainHandler.post(() -> callback.onSuccess(null));
+                        });
                     } else {
                         callback.onError("No data received");
                     }
@@ -143,7 +269,8 @@ public class MatchRepository {
         });
     }
     
-    // Create a match
+    // Create a match. The write goes through the outbox, so it succeeds offline; the
+    // match handed back has a negative id until the server has assigned one.
     public void createMatch(int transactionId, int receiptId, int matchConfidence, boolean autoConfirm, 
                            MatchCallback<Match> callback) {
         String companyId = apiClient.getCompanyId();
@@ -153,35 +280,20 @@ public class MatchRepository {
         }
         
         CreateMatchRequest request = new CreateMatchRequest(transactionId, receiptId, matchConfidence, autoConfirm);
-        Call<ApiResponse<Match>> call = apiService.createMatch(request, companyId);
-        call.enqueue(new Callback<ApiResponse<Match>>() {
+        outboxRepository.createMatch(companyId, request, new OutboxRepository.OutboxCallback<Match>() {
             @Override
-            public void onResponse(Call<ApiResponse<Match>> call, Response<ApiResponse<Match>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<Match> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("Failed to create match");
-                    }
-                } else {
-                    String error = "Failed to create match";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
+            public void onSuccess(Match match) {
+                callback.onSuccess(match);
             }
             
             @Override
-            public void onFailure(Call<ApiResponse<Match>> call, Throwable t) {
-                Log.e(TAG, "Failed to create match", t);
-                callback.onError("Network error: " + t.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
         });
     }
     
-    // Confirm a match
+    // Confirm a match, queued in the outbox until it reaches the server
     public void confirmMatch(int matchId, MatchCallback<Void> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -189,30 +301,20 @@ public class MatchRepository {
             return;
         }
         
-        Call<ApiResponse<Void>> call = apiService.confirmMatch(matchId, companyId);
-        call.enqueue(new Callback<ApiResponse<Void>>() {
+        outboxRepository.confirmMatch(companyId, matchId, new OutboxRepository.OutboxCallback<Void>() {
             @Override
-            public void onResponse(Call<ApiResponse<Void>> call, Response<ApiResponse<Void>> response) {
-                if (response.isSuccessful()) {
-                    callback.onSuccess(null);
-                } else {
-                    String error = "Failed to confirm match";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
+            public void onSuccess(Void response) {
+                callback.onSuccess(null);
             }
             
             @Override
-            public void onFailure(Call<ApiResponse<Void>> call, Throwable t) {
-                Log.e(TAG, "Failed to confirm match", t);
-                callback.onError("Network error: " + t.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
         });
     }
     
-    // Reject a match
+    // Reject a match, queued in the outbox until it reaches the server
     public void rejectMatch(int matchId, MatchCallback<Void> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -220,25 +322,15 @@ public class MatchRepository {
             return;
         }
         
-        Call<ApiResponse<Void>> call = apiService.rejectMatch(matchId, companyId);
-        call.enqueue(new Callback<ApiResponse<Void>>() {
+        outboxRepository.rejectMatch(companyId, matchId, new OutboxRepository.OutboxCallback<Void>() {
             @Override
-            public void onResponse(Call<ApiResponse<Void>> call, Response<ApiResponse<Void>> response) {
-                if (response.isSuccessful()) {
-                    callback.onSuccess(null);
-                } else {
-                    String error = "Failed to reject match";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
+            public void onSuccess(Void response) {
+                callback.onSuccess(null);
             }
             
             @Override
-            public void onFailure(Call<ApiResponse<Void>> call, Throwable t) {
-                Log.e(TAG, "Failed to reject match", t);
-                callback.onError("Network error: " + t.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
         });
     }
@@ -256,6 +348,7 @@ public class MatchRepository {
             @Override
             public void onResponse(Call<ApiResponse<Void>> call, Response<ApiResponse<Void>> response) {
                 if (response.isSuccessful()) {
+                    AppDatabase.databaseExecutor.execute(() -> matchDao.deleteMatchById(matchId));
                     callback.onSuccess(null);
                 } else {
                     String error = "Failed to delete match";
@@ -342,4 +435,28 @@ public class MatchRepository {
             }
         });
     }
+    
+    private static List<Match> toMatches(List<MatchEntity> entities) {
+        List<Match> matches = new ArrayList<>(entities.size());
+        for (MatchEntity entity : entities) {
+            matches.add(entity.toMatch());
+        }
+        return matches;
+    }
+    
+    private static List<MatchDetail> toMatchDetails(List<MatchDetailRow> rows) {
+        List<MatchDetail> details = new ArrayList<>(rows.size());
+        for (MatchDetailRow row : rows) {
+            details.add(row.toMatchDetail());
+        }
+        return details;
+    }
+    
+    private static List<MatchEntity> toEntities(List<Match> matches, String companyId) {
+        List<MatchEntity> entities = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            entities.add(MatchEntity.fromMatch(match, companyId));
+        }
+        return entities;
+    }
 }
\ No newline at end of file
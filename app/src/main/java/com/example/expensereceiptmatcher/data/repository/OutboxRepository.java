@@ -0,0 +1,548 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.expensereceiptmatcher.data.api.ApiClient;
+import com.example.expensereceiptmatcher.data.api.ApiResponse;
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.api.CreateMatchRequest;
+import com.example.expensereceiptmatcher.data.database.AppDatabase;
+import com.example.expensereceiptmatcher.data.database.MatchDao;
+import com.example.expensereceiptmatcher.data.database.MatchEntity;
+import com.example.expensereceiptmatcher.data.database.OutboxDao;
+import com.example.expensereceiptmatcher.data.database.OutboxEntity;
+import com.example.expensereceiptmatcher.data.database.ReceiptDao;
+import com.example.expensereceiptmatcher.data.database.ReceiptEntity;
+import com.example.expensereceiptmatcher.data.database.ResolvedMatchEntity;
+import com.example.expensereceiptmatcher.data.database.TransactionDao;
+import com.example.expensereceiptmatcher.data.database.TransactionEntity;
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+public class OutboxRepository {
+    // Durable outbox for match decisions and receipt/transaction edits. A write is stored
+    // in Room and applied to the local cache in one transaction, reported as done right
+    // away, and replayed to the server in order whenever it is reachable. Pending writes
+    // to the same target are coalesced: a confirm followed by a reject only sends the
+    // reject, and a match that is created and rejected offline is never sent at all.
+    
+    private static final String TAG = "OutboxRepository";
+    private static final List<String> MATCH_DECISIONS =
+            Arrays.asList(OutboxEntity.CONFIRM_MATCH, OutboxEntity.REJECT_MATCH);
+    // Replays run one at a time so writes reach the server in the order they were made
+    private static final Executor sharedReplayExecutor = Executors.newSingleThreadExecutor();
+    
+    private static OutboxRepository instance;
+    private ApiService apiService;
+    private OutboxDao outboxDao;
+    private MatchDao matchDao;
+    private ReceiptDao receiptDao;
+    private TransactionDao transactionDao;
+    private TransactionRunner transactionRunner;
+    private Executor databaseExecutor;
+    private Executor replayExecutor;
+    private Executor mainExecutor;
+    private Gson gson;
+    
+    // Runs a block of DAO calls as one database transaction
+    interface TransactionRunner {
+        void runInTransaction(Runnable body);
+    }
+    
+    private OutboxRepository(Context context) {
+        this(ApiClient.getInstance(context).getApiService(), AppDatabase.getInstance(context),
+                new Handler(Looper.getMainLooper())::post);
+        
+        // Replay as soon as a network comes back
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager != null) {
+            connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    replay();
+                }
+            });
+        }
+    }
+    
+    private OutboxRepository(ApiService apiService, AppDatabase database, Executor mainExecutor) {
+        this(apiService, database.outboxDao(), database.matchDao(), database.receiptDao(),
+                database.transactionDao(), database::runInTransaction, AppDatabase.databaseExecutor,
+                sharedReplayExecutor, mainExecutor);
+    }
+    
+    // For tests, which run the DAOs and executors without Android
+    OutboxRepository(ApiService apiService, OutboxDao outboxDao, MatchDao matchDao, ReceiptDao receiptDao,
+                     TransactionDao transactionDao, TransactionRunner transactionRunner,
+                     Executor databaseExecutor, Executor replayExecutor, Executor mainExecutor) {
+        this.apiService = apiService;
+        this.outboxDao = outboxDao;
+        this.matchDao = matchDao;
+        this.receiptDao = receiptDao;
+        this.transactionDao = transactionDao;
+        this.transactionRunner = transactionRunner;
+        this.databaseExecutor = databaseExecutor;
+        this.replayExecutor = replayExecutor;
+        this.mainExecutor = mainExecutor;
+        gson = new Gson();
+    }
+    
+    public static synchronized OutboxRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new OutboxRepository(context.getApplicationContext());
+            // Pick up writes left over from a previous run
+            instance.replay();
+        }
+        return instance;
+    }
+    
+    public interface OutboxCallback<T> {
+        void onSuccess(T response);
+        void onError(String error);
+    }
+    
+    // Record a new match; the callback gets the local copy, which has a negative id
+    // until the server assigns one
+    public void createMatch(String companyId, CreateMatchRequest request, OutboxCallback<Match> callback) {
+        databaseExecutor.execute(() -> {
+            Match[] match = new Match[1];
+            transactionRunner.runInTransaction(() -> match[0] = recordCreate(companyId, request));
+            mainExecutor.execute(() -> callback.onSuccess(match[0]));
+            replay();
+        });
+    }
+    
+    public void confirmMatch(String companyId, int matchId, OutboxCallback<Void> callback) {
+        recordMatchDecision(companyId, matchId, OutboxEntity.CONFIRM_MATCH, callback);
+    }
+    
+    public void rejectMatch(String companyId, int matchId, OutboxCallback<Void> callback) {
+        recordMatchDecision(companyId, matchId, OutboxEntity.REJECT_MATCH, callback);
+    }
+    
+    public void updateReceipt(String companyId, Receipt receipt, OutboxCallback<Receipt> callback) {
+        recordUpdate(companyId, OutboxEntity.UPDATE_RECEIPT, receipt.getId(), receipt, callback);
+    }
+    
+    public void updateTransaction(String companyId, Transaction transaction, OutboxCallback<Transaction> callback) {
+        recordUpdate(companyId, OutboxEntity.UPDATE_TRANSACTION, transaction.getId(), transaction, callback);
+    }
+    
+    // Write server data into the cache, then re-apply pending writes on top of it so a
+    // refresh does not undo changes that have not been sent yet. Call off the main thread.
+    public void applyServerData(String companyId, Runnable write) {
+        transactionRunner.runInTransaction(() -> {
+            write.run();
+            reapplyPending(companyId);
+        });
+    }
+    
+    // Re-apply pending writes, for callers writing server data in their own transaction
+    public void reapplyPending(String companyId) {
+        for (OutboxEntity operation : outboxDao.getOperationsForCompany(companyId)) {
+            applyLocally(operation);
+        }
+    }
+    
+    // Re-apply only the pending writes that touch the given receipts or transactions, for
+    // callers that overwrite just those rows, e.g. one sync batch at a time
+    public void reapplyPending(String companyId, Set<Integer> receiptIds, Set<Integer> transactionIds) {
+        for (OutboxEntity operation : outboxDao.getOperationsForCompany(companyId)) {
+            if (touches(operation, receiptIds, transactionIds)) {
+                applyLocally(operation);
+            }
+        }
+    }
+    
+    // Send pending writes in the background; safe to call at any time
+    public void replay() {
+        replayExecutor.execute(this::replayPending);
+    }
+    
+    // Call inside a transaction. The local match takes the negated outbox id as its id.
+    private Match recordCreate(String companyId, CreateMatchRequest request) {
+        OutboxEntity operation = new OutboxEntity(companyId, OutboxEntity.CREATE_MATCH, 0, gson.toJson(request));
+        operation.setId(outboxDao.insertOperation(operation));
+        operation.setTargetId(-(int) operation.getId());
+        outboxDao.updateOperation(operation);
+        applyLocally(operation);
+        return toLocalMatch(operation, request);
+    }
+    
+    private void recordMatchDecision(String companyId, int matchId, String decision, OutboxCallback<Void> callback) {
+        databaseExecutor.execute(() -> {
+            String[] error = new String[1];
+            transactionRunner.runInTransaction(() -> error[0] = coalesceMatchDecision(companyId, matchId, decision));
+            if (error[0] != null) {
+                mainExecutor.execute(() -> callback.onError(error[0]));
+                return;
+            }
+            mainExecutor.execute(() -> callback.onSuccess(null));
+            replay();
+        });
+    }
+    
+    // Returns an error message, or null once the decision is recorded
+    private String coalesceMatchDecision(String companyId, int matchId, String decision) {
+        int targetId = matchId;
+        if (targetId < 0) {
+            // A match created offline: fold the decision into its pending create
+            List<OutboxEntity> creates = outboxDao.findOperations(companyId, targetId,
+                    Collections.singletonList(OutboxEntity.CREATE_MATCH));
+            if (!creates.isEmpty()) {
+                foldIntoCreate(creates.get(0), decision);
+                return null;
+            }
+            Integer resolved = outboxDao.getResolvedMatchId(targetId);
+            if (resolved == null) {
+                return "Match not found";
+            }
+            targetId = resolved;
+        }
+        
+        // Only the latest decision about a match is worth sending
+        for (OutboxEntity pending : outboxDao.findOperations(companyId, targetId, MATCH_DECISIONS)) {
+            outboxDao.deleteOperationById(pending.getId());
+        }
+        OutboxEntity operation = new OutboxEntity(companyId, decision, targetId, null);
+        operation.setId(outboxDao.insertOperation(operation));
+        applyLocally(operation);
+        return null;
+    }
+    
+    private void foldIntoCreate(OutboxEntity create, String decision) {
+        CreateMatchRequest request = gson.fromJson(create.getPayload(), CreateMatchRequest.class);
+        if (OutboxEntity.CONFIRM_MATCH.equals(decision)) {
+            request.setAutoConfirm(true);
+            create.setPayload(gson.toJson(request));
+            outboxDao.updateOperation(create);
+            applyLocally(create);
+        } else {
+            outboxDao.deleteOperationById(create.getId());
+            matchDao.deleteMatchById(create.getTargetId());
+            link(request.getReceiptId(), request.getTransactionId(), false);
+        }
+    }
+    
+    // The latest edit of a receipt or transaction replaces any edit still waiting. The
+    // callback runs once the edit is stored, so a reload on success sees it.
+    private <T> void recordUpdate(String companyId, String operationType, int targetId, T item,
+                                  OutboxCallback<T> callback) {
+        // Serialized now, so later changes to the caller's object are not sent
+        String payload = gson.toJson(item);
+        databaseExecutor.execute(() -> {
+            try {
+                transactionRunner.runInTransaction(() -> {
+                    for (OutboxEntity pending : outboxDao.findOperations(companyId, targetId,
+                            Collections.singletonList(operationType))) {
+                        outboxDao.deleteOperationById(pending.getId());
+                    }
+                    OutboxEntity operation = new OutboxEntity(companyId, operationType, targetId, payload);
+                    operation.setId(outboxDao.insertOperation(operation));
+                    applyLocally(operation);
+                });
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to record " + operationType, e);
+                mainExecutor.execute(() -> callback.onError("Failed to save changes: " + e.getMessage()));
+                return;
+            }
+            mainExecutor.execute(() -> callback.onSuccess(item));
+            replay();
+        });
+    }
+    
+    // Optimistic effect of a pending write on the local cache
+    private void applyLocally(OutboxEntity operation) {
+        String companyId = operation.getCompanyId();
+        switch (operation.getOperation()) {
+            case OutboxEntity.CREATE_MATCH: {
+                CreateMatchRequest request = gson.fromJson(operation.getPayload(), CreateMatchRequest.class);
+                matchDao.insertMatch(MatchEntity.fromMatch(toLocalMatch(operation, request), companyId));
+                if (request.isAutoConfirm()) {
+                    link(request.getReceiptId(), request.getTransactionId(), true);
+                }
+                break;
+            }
+            case OutboxEntity.CONFIRM_MATCH:
+            case OutboxEntity.REJECT_MATCH: {
+                MatchEntity match = matchDao.getMatchById(operation.getTargetId());
+                if (match != null) {
+                    link(match.getReceiptId(), match.getTransactionId(),
+                            OutboxEntity.CONFIRM_MATCH.equals(operation.getOperation()));
+                }
+                break;
+            }
+            case OutboxEntity.UPDATE_RECEIPT:
+                receiptDao.insertReceipt(ReceiptEntity.fromReceipt(
+                        gson.fromJson(operation.getPayload(), Receipt.class), companyId));
+                break;
+            case OutboxEntity.UPDATE_TRANSACTION:
+                transactionDao.insertTransaction(TransactionEntity.fromTransaction(
+                        gson.fromJson(operation.getPayload(), Transaction.class), companyId));
+                break;
+            default:
+                Log.w(TAG, "Unknown outbox operation " + operation.getOperation());
+        }
+    }
+    
+    // Whether applyLocally would write any of the given receipts or transactions
+    private boolean touches(OutboxEntity operation, Set<Integer> receiptIds, Set<Integer> transactionIds) {
+        switch (operation.getOperation()) {
+            case OutboxEntity.CREATE_MATCH: {
+                CreateMatchRequest request = gson.fromJson(operation.getPayload(), CreateMatchRequest.class);
+                return receiptIds.contains(request.getReceiptId())
+                        || transactionIds.contains(request.getTransactionId());
+            }
+            case OutboxEntity.CONFIRM_MATCH:
+            case OutboxEntity.REJECT_MATCH: {
+                MatchEntity match = matchDao.getMatchById(operation.getTargetId());
+                return match != null && (receiptIds.contains(match.getReceiptId())
+                        || transactionIds.contains(match.getTransactionId()));
+            }
+            case OutboxEntity.UPDATE_RECEIPT:
+                return receiptIds.contains(operation.getTargetId());
+            case OutboxEntity.UPDATE_TRANSACTION:
+                return transactionIds.contains(operation.getTargetId());
+            default:
+                return false;
+        }
+    }
+    
+    // Point a receipt and transaction at each other, or clear the link between them
+    private void link(int receiptId, int transactionId, boolean matched) {
+        ReceiptEntity receipt = receiptDao.getReceiptById(receiptId);
+        if (receipt != null && (matched || receipt.getTransactionId() == transactionId)) {
+            receipt.setTransactionId(matched ? transactionId : -1);
+            receiptDao.insertReceipt(receipt);
+        }
+        TransactionEntity transaction = transactionDao.getTransactionById(transactionId);
+        if (transaction != null && (matched || transaction.getReceiptId() == receiptId)) {
+            transaction.setReceiptId(matched ? receiptId : -1);
+            transactionDao.insertTransaction(transaction);
+        }
+    }
+    
+    private static Match toLocalMatch(OutboxEntity operation, CreateMatchRequest request) {
+        Match match = new Match();
+        match.setId(operation.getTargetId());
+        match.setReceiptId(request.getReceiptId());
+        match.setTransactionId(request.getTransactionId());
+        match.setConfidenceScore(request.getMatchConfidence() / 100.0);
+        match.setManual(true);
+        return match;
+    }
+    
+    // Runs on replayExecutor. Writes are sent one at a time, oldest first, and the first
+    // network or server error stops the replay with that write still at the head of the
+    // outbox. The head is read again after each write because coalescing may have
+    // replaced or removed rows while a request was in flight.
+    void replayPending() {
+        OutboxEntity operation;
+        while ((operation = outboxDao.getFirstOperation()) != null) {
+            OutboxEntity sent = operation;
+            ReplayResult result = send(sent);
+            if (result.isSuccessful()) {
+                transactionRunner.runInTransaction(() -> complete(sent, result.data));
+            } else if (result.shouldRetry()) {
+                outboxDao.incrementAttempts(sent.getId());
+                Log.d(TAG, "Server unreachable, HTTP " + result.code + "; keeping pending writes");
+                return;
+            } else {
+                // The server refused the write; drop it and reload what it touched
+                Log.w(TAG, "Dropping " + sent.getOperation() + " for " + sent.getTargetId()
+                        + ", HTTP " + result.code);
+                outboxDao.deleteOperationById(sent.getId());
+                restore(sent);
+            }
+        }
+    }
+    
+    private ReplayResult send(OutboxEntity operation) {
+        String companyId = operation.getCompanyId();
+        switch (operation.getOperation()) {
+            case OutboxEntity.CREATE_MATCH:
+                return execute(apiService.createMatch(
+                        gson.fromJson(operation.getPayload(), CreateMatchRequest.class), companyId));
+            case OutboxEntity.CONFIRM_MATCH:
+                return execute(apiService.confirmMatch(operation.getTargetId(), companyId));
+            case OutboxEntity.REJECT_MATCH:
+                return execute(apiService.rejectMatch(operation.getTargetId(), companyId));
+            case OutboxEntity.UPDATE_RECEIPT:
+                return execute(apiService.updateReceipt(operation.getTargetId(),
+                        gson.fromJson(operation.getPayload(), Receipt.class), companyId));
+            case OutboxEntity.UPDATE_TRANSACTION:
+                return execute(apiService.updateTransaction(operation.getTargetId(),
+                        gson.fromJson(operation.getPayload(), Transaction.class), companyId));
+            default:
+                return new ReplayResult(400, null);
+        }
+    }
+    
+    private static <T> ReplayResult execute(Call<ApiResponse<T>> call) {
+        try {
+            Response<ApiResponse<T>> response = call.execute();
+            Object data = response.body() != null ? response.body().getData() : null;
+            return new ReplayResult(response.code(), data);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to replay outbox write", e);
+            return new ReplayResult(0, null);
+        }
+    }
+    
+    // Settle a write the server accepted. The row may have been coalesced or replaced
+    // while the request was in flight; only an unchanged row is removed.
+    private void complete(OutboxEntity sent, Object data) {
+        String companyId = sent.getCompanyId();
+        OutboxEntity current = outboxDao.getOperationById(sent.getId());
+        boolean unchanged = current != null && Objects.equals(current.getPayload(), sent.getPayload());
+        
+        switch (sent.getOperation()) {
+            case OutboxEntity.CREATE_MATCH:
+                completeCreate(sent, current, unchanged, data);
+                break;
+            case OutboxEntity.UPDATE_RECEIPT:
+                if (unchanged && data instanceof Receipt) {
+                    receiptDao.insertReceipt(ReceiptEntity.fromReceipt((Receipt) data, companyId));
+                }
+                break;
+            case OutboxEntity.UPDATE_TRANSACTION:
+                if (unchanged && data instanceof Transaction) {
+                    transactionDao.insertTransaction(TransactionEntity.fromTransaction((Transaction) data, companyId));
+                }
+                break;
+            default:
+                break;
+        }
+        
+        if (unchanged) {
+            outboxDao.deleteOperationById(sent.getId());
+        }
+    }
+    
+    // The local match is swapped for the server's and its id is kept, so decisions made
+    // against the negative id later still reach the right match
+    private void completeCreate(OutboxEntity sent, OutboxEntity current, boolean unchanged, Object data) {
+        String companyId = sent.getCompanyId();
+        matchDao.deleteMatchById(sent.getTargetId());
+        if (!(data instanceof Match) || ((Match) data).getId() <= 0) {
+            // Accepted, but without the new id; the next sync brings the match in, and
+            // resending would only create it twice
+            Log.w(TAG, "Match create for " + sent.getTargetId() + " returned no match");
+            if (current != null) {
+                outboxDao.deleteOperationById(current.getId());
+            }
+            return;
+        }
+        
+        Match created = (Match) data;
+        outboxDao.insertResolvedMatch(new ResolvedMatchEntity(sent.getTargetId(), created.getId()));
+        if (current == null) {
+            // Rejected locally while the create was in flight
+            outboxDao.insertOperation(new OutboxEntity(companyId, OutboxEntity.REJECT_MATCH,
+                    created.getId(), null));
+            return;
+        }
+        if (!unchanged) {
+            // Confirmed locally while in flight; send that as its own write
+            current.setOperation(OutboxEntity.CONFIRM_MATCH);
+            current.setTargetId(created.getId());
+            current.setPayload(null);
+            outboxDao.updateOperation(current);
+        }
+        matchDao.insertMatch(MatchEntity.fromMatch(created, companyId));
+    }
+    
+    // Undo the optimistic effect of a refused write by reloading the server copies
+    private void restore(OutboxEntity operation) {
+        String companyId = operation.getCompanyId();
+        int receiptId = -1;
+        int transactionId = -1;
+        switch (operation.getOperation()) {
+            case OutboxEntity.CREATE_MATCH: {
+                CreateMatchRequest request = gson.fromJson(operation.getPayload(), CreateMatchRequest.class);
+                matchDao.deleteMatchById(operation.getTargetId());
+                receiptId = request.getReceiptId();
+                transactionId = request.getTransactionId();
+                break;
+            }
+            case OutboxEntity.CONFIRM_MATCH:
+            case OutboxEntity.REJECT_MATCH: {
+                MatchEntity match = matchDao.getMatchById(operation.getTargetId());
+                if (match != null) {
+                    receiptId = match.getReceiptId();
+                    transactionId = match.getTransactionId();
+                }
+                break;
+            }
+            case OutboxEntity.UPDATE_RECEIPT:
+                receiptId = operation.getTargetId();
+                break;
+            case OutboxEntity.UPDATE_TRANSACTION:
+                transactionId = operation.getTargetId();
+                break;
+            default:
+                break;
+        }
+        
+        try {
+            if (receiptId != -1) {
+                Response<ApiResponse<Receipt>> response = apiService.getReceipt(receiptId, companyId).execute();
+                if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
+                    Receipt receipt = response.body().getData();
+                    applyServerData(companyId, () -> receiptDao.insertReceipt(ReceiptEntity.fromReceipt(receipt, companyId)));
+                }
+            }
+            if (transactionId != -1) {
+                Response<ApiResponse<Transaction>> response = apiService.getTransaction(transactionId, companyId).execute();
+                if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
+                    Transaction transaction = response.body().getData();
+                    applyServerData(companyId, () -> transactionDao.insertTransaction(
+                            TransactionEntity.fromTransaction(transaction, companyId)));
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to reload after a refused write", e);
+        }
+    }
+    
+    // Outcome of one replayed request; code 0 means it never got a response
+    private static class ReplayResult {
+        final int code;
+        final Object data;
+        
+        ReplayResult(int code, Object data) {
+            this.code = code;
+            this.data = data;
+        }
+        
+        boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+        
+        // Network trouble, server errors, throttling and expired sessions are worth
+        // retrying; anything else means the server will never accept this write
+        boolean shouldRetry() {
+            return code == 0 || code >= 500 || code == 401 || code == 408 || code == 429;
+        }
+    }
+}
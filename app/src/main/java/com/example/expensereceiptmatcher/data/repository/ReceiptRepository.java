@@ -1,15 +1,24 @@
 package com.example.expensereceiptmatcher.data.repository;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.example.expensereceiptmatcher.data.api.ApiClient;
 import com.example.expensereceiptmatcher.data.api.ApiService;
 import com.example.expensereceiptmatcher.data.api.ApiResponse;
+import com.example.expensereceiptmatcher.data.api.UploadCompleteResponse;
+import com.example.expensereceiptmatcher.data.database.AppDatabase;
+import com.example.expensereceiptmatcher.data.database.ReceiptDao;
+import com.example.expensereceiptmatcher.data.database.ReceiptEntity;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.utils.FileUploadUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -20,12 +29,25 @@ import retrofit2.Response;
 
 public class ReceiptRepository {
     private static final String TAG = "ReceiptRepository";
+    // Bulk requests in flight at once. OkHttp runs at most 5 requests per host, and over
+    // HTTP/2 it multiplexes them onto one connection.
+    public static final int DEFAULT_BULK_WINDOW = 3;
     private ApiClient apiClient;
     private ApiService apiService;
+    private ReceiptDao receiptDao;
+    private SyncRepository syncRepository;
+    private OutboxRepository outboxRepository;
+    private UploadQueueRepository uploadQueueRepository;
+    private Handler mainHandler;
     
     public ReceiptRepository(Context context) {
         apiClient = ApiClient.getInstance(context);
         apiService = apiClient.getApiService();
+        receiptDao = AppDatabase.getInstance(context).receiptDao();
+        syncRepository = new SyncRepository(context);
+        outboxRepository = OutboxRepository.getInstance(context);
+        uploadQueueRepository = UploadQueueRepository.getInstance(context);
+        mainHandler = new Handler(Looper.getMainLooper());
     }
     
     public interface ReceiptCallback<T> {
@@ -33,7 +55,9 @@ public class ReceiptRepository {
         void onError(String error);
     }
     
-    // Get all receipts
+    // Get all receipts. Cached rows are delivered first when there are any, then the
+    // cache is brought up to date with a delta sync and the callback fires again if
+    // anything changed. Filtered or paged requests go straight to the server.
     public void getAllReceipts(Integer page, Integer limit, String status, ReceiptCallback<List<Receipt>> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -41,35 +65,24 @@ public class ReceiptRepository {
             return;
         }
         
-        Call<ApiResponse<List<Receipt>>> call = apiService.getReceipts(page, limit, status, companyId);
-        call.enqueue(new Callback<ApiResponse<List<Receipt>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Receipt>>> call, Response<ApiResponse<List<Receipt>>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<List<Receipt>> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("No data received");
-                    }
-                } else {
-                    String error = "Failed to fetch receipts";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<ApiResponse<List<Receipt>>> call, Throwable t) {
-                Log.e(TAG, "Failed to fetch receipts", t);
-                callback.onError("Network error: " + t.getMessage());
+        // Only the unfiltered, unpaged listing is served from the synced cache
+        if (page != null || limit != null || status != null) {
+            enqueueReceiptList(apiService.getReceipts(page, limit, status, companyId), companyId,
+                    "Failed to fetch receipts", callback);
+            return;
+        }
+        
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<Receipt> cached = toReceipts(receiptDao.getAllReceipts(companyId));
+            boolean servedFromCache = !cached.isEmpty();
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached));
             }
+            syncThenReload(companyId, false, servedFromCache, callback);
         });
     }
     
-    // Get receipt by ID
+    // Get receipt by ID, cached copy first
     public void getReceiptById(int id, ReceiptCallback<Receipt> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -77,35 +90,47 @@ public class ReceiptRepository {
             return;
         }
         
-        Call<ApiResponse<Receipt>> call = apiService.getReceipt(id, companyId);
-        call.enqueue(new Callback<ApiResponse<Receipt>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Receipt>> call, Response<ApiResponse<Receipt>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<Receipt> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("Receipt not found");
+        AppDatabase.databaseExecutor.execute(() -> {
+            ReceiptEntity cached = receiptDao.getReceiptById(id);
+            boolean servedFromCache = cached != null;
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached.toReceipt()));
+            }
+            
+            Call<ApiResponse<Receipt>> call = apiService.getReceipt(id, companyId);
+            call.enqueue(new Callback<ApiResponse<Receipt>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<Receipt>> call, Response<ApiResponse<Receipt>> response) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        ApiResponse<Receipt> apiResponse = response.body();
+                        if (apiResponse.getData() != null) {
+                            cacheReceipt(apiResponse.getData(), companyId);
+                            callback.onSuccess(apiResponse.getData());
+                        } else if (!servedFromCache) {
+                            callback.onError("Receipt not found");
+                        }
+                    } else if (!servedFromCache) {
+                        String error = "Failed to fetch receipt";
+                        if (response.errorBody() != null) {
+                            error = response.message();
+                        }
+                        callback.onError(error);
                     }
-                } else {
-                    String error = "Failed to fetch receipt";
-                    if (response.errorBody() != null) {
-                        error = response.message();
+                }
+                
+                @Override
+                public void onFailure(Call<ApiResponse<Receipt>> call, Throwable t) {
+                    Log.e(TAG, "Failed to fetch receipt", t);
+                    if (!servedFromCache) {
+                        callback.onError("Network error: " + t.getMessage());
                     }
-                    callback.onError(error);
                 }
-            }
-            
-            @Override
-            public void onFailure(Call<ApiResponse<Receipt>> call, Throwable t) {
-                Log.e(TAG, "Failed to fetch receipt", t);
-                callback.onError("Network error: " + t.getMessage());
-            }
+            });
         });
     }
     
-    // Upload receipt
+    // Upload receipt. The file is streamed from disk as the request is written, so its
+    // size does not matter for memory.
     public void uploadReceipt(File file, ReceiptCallback<Receipt> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -113,9 +138,10 @@ public class ReceiptRepository {
             return;
         }
         
-        // Create request body for file
-        RequestBody requestFile = RequestBody.create(file, MediaType.parse("multipart/form-data"));
-        MultipartBody.Part body = MultipartBody.Part.createFormData("file", file.getName(), requestFile);
+        // Create request body for file. The server only accepts image and PDF parts, so
+        // the part carries the file's own type.
+        RequestBody requestFile = RequestBody.create(file, MediaType.parse(FileUploadUtils.getMimeType(file.getName())));
+        MultipartBody.Part body = MultipartBody.Part.createFormData("receipt", file.getName(), requestFile);
         
         Call<ApiResponse<Receipt>> call = apiService.uploadReceipt(body, companyId);
         call.enqueue(new Callback<ApiResponse<Receipt>>() {
@@ -124,6 +150,7 @@ public class ReceiptRepository {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<Receipt> apiResponse = response.body();
                     if (apiResponse.getData() != null) {
+                        cacheReceipt(apiResponse.getData(), companyId);
                         callback.onSuccess(apiResponse.getData());
                     } else {
                         callback.onError("Failed to upload receipt");
@@ -145,7 +172,62 @@ public class ReceiptRepository {
         });
     }
     
-    // Update receipt
+    // Upload many receipts at once with the default window
+    public void uploadReceipts(List<File> files, Function<File, FileUploadUtils.UploadProgressListener> progress,
+                               ReceiptCallback<List<UploadCompleteResponse>> callback) {
+        uploadReceipts(files, DEFAULT_BULK_WINDOW, progress, callback);
+    }
+    
+    // Upload many receipts at once. The files are packed into multipart requests of up
+    // to 20 files and 8 MB, and up to window requests are in flight at a time, so a large
+    // batch is bound by bandwidth rather than by one round trip per file (see
+    // BulkReceiptUpload). progress gives each file's listener, which hears about that
+    // file's bytes written, its completion or its error on the main thread. The callback
+    // fires once every request has finished, with one response per file in order, or
+    // with an error if any file failed.
+    public void uploadReceipts(List<File> files, int window,
+                               Function<File, FileUploadUtils.UploadProgressListener> progress,
+                               ReceiptCallback<List<UploadCompleteResponse>> callback) {
+        String companyId = apiClient.getCompanyId();
+        if (companyId == null) {
+            callback.onError("No company selected");
+            return;
+        }
+        if (files.isEmpty()) {
+            callback.onSuccess(new ArrayList<>());
+            return;
+        }
+        
+        BulkReceiptUpload upload = new BulkReceiptUpload(apiService, companyId, files, progress, callback,
+                mainHandler::post);
+        mainHandler.post(() -> upload.start(Math.max(1, window)));
+    }
+    
+    // Queue a receipt for a chunked upload that survives dropped connections and app
+    // restarts. The file is moved into the queue; the callback gets the upload id, and
+    // UploadQueueRepository's listeners hear about progress and the created receipt.
+    public void queueReceiptUpload(File file, ReceiptCallback<Long> callback) {
+        String companyId = apiClient.getCompanyId();
+        if (companyId == null) {
+            callback.onError("No company selected");
+            return;
+        }
+        
+        uploadQueueRepository.enqueue(companyId, file, new UploadQueueRepository.UploadCallback<Long>() {
+            @Override
+            public void onSuccess(Long uploadId) {
+                callback.onSuccess(uploadId);
+            }
+            
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+    
+    // Update receipt. The edit is applied to the cache at once and queued in the outbox
+    // until the server accepts it.
     public void updateReceipt(Receipt receipt, ReceiptCallback<Receipt> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -153,30 +235,15 @@ public class ReceiptRepository {
             return;
         }
         
-        Call<ApiResponse<Receipt>> call = apiService.updateReceipt(receipt.getId(), receipt, companyId);
-        call.enqueue(new Callback<ApiResponse<Receipt>>() {
+        outboxRepository.updateReceipt(companyId, receipt, new OutboxRepository.OutboxCallback<Receipt>() {
             @Override
-            public void onResponse(Call<ApiResponse<Receipt>> call, Response<ApiResponse<Receipt>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<Receipt> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("Failed to update receipt");
-                    }
-                } else {
-                    String error = "Failed to update receipt";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
+            public void onSuccess(Receipt response) {
+                callback.onSuccess(response);
             }
             
             @Override
-            public void onFailure(Call<ApiResponse<Receipt>> call, Throwable t) {
-                Log.e(TAG, "Failed to update receipt", t);
-                callback.onError("Network error: " + t.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
         });
     }
@@ -194,6 +261,7 @@ public class ReceiptRepository {
             @Override
             public void onResponse(Call<ApiResponse<Void>> call, Response<ApiResponse<Void>> response) {
                 if (response.isSuccessful()) {
+                    AppDatabase.databaseExecutor.execute(() -> receiptDao.deleteReceiptById(id));
                     callback.onSuccess(null);
                 } else {
                     String error = "Failed to delete receipt";
@@ -212,7 +280,7 @@ public class ReceiptRepository {
         });
     }
     
-    // Get unmatched receipts
+    // Get unmatched receipts, cached rows first
     public void getUnmatchedReceipts(ReceiptCallback<List<Receipt>> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -220,19 +288,62 @@ public class ReceiptRepository {
             return;
         }
         
-        Call<ApiResponse<List<Receipt>>> call = apiService.getUnmatchedReceipts(companyId);
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<Receipt> cached = toReceipts(receiptDao.getUnmatchedReceipts(companyId));
+            boolean servedFromCache = !cached.isEmpty();
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached));
+            }
+            syncThenReload(companyId, true, servedFromCache, callback);
+        });
+    }
+    
+    // Bring the cache up to date with a delta sync, then deliver the cached rows again
+    // unless nothing changed since they were served. Sync errors are only reported
+    // when nothing was served from the cache, so an offline refresh keeps the list.
+    private void syncThenReload(String companyId, boolean unmatchedOnly, boolean servedFromCache,
+                                ReceiptCallback<List<Receipt>> callback) {
+        syncRepository.syncReceipts(new SyncRepository.SyncCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer changed) {
+                if (changed == 0 && servedFromCache) {
+                    return;
+                }
+                AppDatabase.databaseExecutor.execute(() -> {
+                    List<Receipt> receipts = toReceipts(unmatchedOnly
+                            ? receiptDao.getUnmatchedReceipts(companyId)
+                            : receiptDao.getAllReceipts(companyId));
+                    mainHandler.post(() -> callback.onSuccess(receipts));
+                });
+            }
+            
+            @Override
+            public void onError(String error) {
+                if (!servedFromCache) {
+                    callback.onError(error);
+                }
+            }
+        });
+    }
+    
+    // Fetch a filtered receipt list and upsert the rows into the cache, keeping pending edits
+    private void enqueueReceiptList(Call<ApiResponse<List<Receipt>>> call, String companyId,
+                                    String errorMessage, ReceiptCallback<List<Receipt>> callback) {
         call.enqueue(new Callback<ApiResponse<List<Receipt>>>() {
             @Override
             public void onResponse(Call<ApiResponse<List<Receipt>>> call, Response<ApiResponse<List<Receipt>>> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<Receipt>> apiResponse = response.body();
                     if (apiResponse.getData() != null) {
+                        List<ReceiptEntity> entities = toEntities(apiResponse.getData(), companyId);
+                        AppDatabase.databaseExecutor.execute(() -> outboxRepository.applyServerData(companyId,
+                                () -> receiptDao.insertReceipts(entities)));
                         callback.onSuccess(apiResponse.getData());
                     } else {
                         callback.onError("No data received");
                     }
                 } else {
-                    String error = "Failed to fetch unmatched receipts";
+                    String error = errorMessage;
                     if (response.errorBody() != null) {
                         error = response.message();
                     }
@@ -242,9 +353,31 @@ public class ReceiptRepository {
             
             @Override
             public void onFailure(Call<ApiResponse<List<Receipt>>> call, Throwable t) {
-                Log.e(TAG, "Failed to fetch unmatched receipts", t);
+                Log.e(TAG, errorMessage, t);
                 callback.onError("Network error: " + t.getMessage());
             }
         });
     }
+    
+    private void cacheReceipt(Receipt receipt, String companyId) {
+        ReceiptEntity entity = ReceiptEntity.fromReceipt(receipt, companyId);
+        AppDatabase.databaseExecutor.execute(() -> outboxRepository.applyServerData(companyId,
+                () -> receiptDao.insertReceipt(entity)));
+    }
+    
+    private static List<Receipt> toReceipts(List<ReceiptEntity> entities) {
+        List<Receipt> receipts = new ArrayList<>(entities.size());
+        for (ReceiptEntity entity : entities) {
+            receipts.add(entity.toReceipt());
+        }
+        return receipts;
+    }
+    
+    private static List<ReceiptEntity> toEntities(List<Receipt> receipts, String companyId) {
+        List<ReceiptEntity> entities = new ArrayList<>(receipts.size());
+        for (Receipt receipt : receipts) {
+            entities.add(ReceiptEntity.fromReceipt(receipt, companyId));
+        }
+        return entities;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,321 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.expensereceiptmatcher.data.api.ApiClient;
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.api.SyncPageReader;
+import com.example.expensereceiptmatcher.data.api.SyncResponse;
+import com.example.expensereceiptmatcher.data.database.AppDatabase;
+import com.example.expensereceiptmatcher.data.database.ReceiptDao;
+import com.example.expensereceiptmatcher.data.database.ReceiptEntity;
+import com.example.expensereceiptmatcher.data.database.SyncStateDao;
+import com.example.expensereceiptmatcher.data.database.SyncStateEntity;
+import com.example.expensereceiptmatcher.data.database.TransactionDao;
+import com.example.expensereceiptmatcher.data.database.TransactionEntity;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+public class SyncRepository {
+    // Incremental sync of receipts and transactions into the Room cache. Each entity type
+    // keeps a server cursor per company; a sync pulls only rows changed and ids deleted
+    // since that cursor. Pages are streamed: rows are upserted in small batches as they
+    // are parsed, and the cursor only advances once the whole page is in, so an
+    // interrupted sync re-applies (idempotently) from the last complete page.
+    //
+    // What readers see: each batch commits on its own, so during a sync the cache holds
+    // some rows at their new server state and the rest at their old one, but never drops
+    // a row the server still has. Pending outbox writes to a batch's rows are re-applied in that batch's
+    // transaction, so they are never hidden behind server data. A full resync replaces
+    // rows in place and removes the ones the server no longer sends only after its last
+    // page, in one transaction with its cursor.
+    
+    private static final String TAG = "SyncRepository";
+    // Memory use is bounded by APPLY_BATCH_SIZE, not the page size, so pages can be large
+    private static final int PAGE_SIZE = 2000;
+    private static final int APPLY_BATCH_SIZE = 200;
+    private static final String ENTITY_RECEIPTS = "receipts";
+    private static final String ENTITY_TRANSACTIONS = "transactions";
+    // One sync at a time, so pages are applied in cursor order and never interleave
+    private static final Executor sharedSyncExecutor = Executors.newSingleThreadExecutor();
+    // Room's default limit on bound variables is 999
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private ApiClient apiClient;
+    private ApiService apiService;
+    private OutboxRepository.TransactionRunner transactionRunner;
+    private ReceiptDao receiptDao;
+    private TransactionDao transactionDao;
+    private SyncStateDao syncStateDao;
+    private OutboxRepository outboxRepository;
+    private SyncPageReader pageReader;
+    private Executor syncExecutor;
+    private Executor mainExecutor;
+    
+    public SyncRepository(Context context) {
+        this(ApiClient.getInstance(context).getApiService(), AppDatabase.getInstance(context),
+                OutboxRepository.getInstance(context));
+        apiClient = ApiClient.getInstance(context);
+    }
+    
+    private SyncRepository(ApiService apiService, AppDatabase database, OutboxRepository outboxRepository) {
+        this(apiService, database::runInTransaction, database.receiptDao(), database.transactionDao(),
+                database.syncStateDao(), outboxRepository, sharedSyncExecutor,
+                new Handler(Looper.getMainLooper())::post);
+    }
+    
+    // For tests, which run the DAOs and executors without Android
+    SyncRepository(ApiService apiService, OutboxRepository.TransactionRunner transactionRunner,
+                   ReceiptDao receiptDao, TransactionDao transactionDao, SyncStateDao syncStateDao,
+                   OutboxRepository outboxRepository, Executor syncExecutor, Executor mainExecutor) {
+        this.apiService = apiService;
+        this.transactionRunner = transactionRunner;
+        this.receiptDao = receiptDao;
+        this.transactionDao = transactionDao;
+        this.syncStateDao = syncStateDao;
+        this.outboxRepository = outboxRepository;
+        this.syncExecutor = syncExecutor;
+        this.mainExecutor = mainExecutor;
+        pageReader = new SyncPageReader(new Gson(), APPLY_BATCH_SIZE);
+    }
+    
+    public interface SyncCallback<T> {
+        void onSuccess(T response);
+        void onError(String error);
+    }
+    
+    // Fetches one page after a cursor and writes its parts to the cache
+    private interface DeltaSource<T> {
+        Call<ResponseBody> fetch(String cursor, String companyId);
+        Class<T> itemType();
+        int idOf(T item);
+        List<Integer> cachedIds(String companyId);
+        void upsert(String companyId, List<T> items);
+        void reapplyPending(String companyId, Set<Integer> ids);
+        void delete(List<Integer> ids);
+    }
+    
+    // Pull receipt changes since the last sync; reports how many rows changed locally
+    public void syncReceipts(SyncCallback<Integer> callback) {
+        syncReceipts(apiClient.getCompanyId(), callback);
+    }
+    
+    void syncReceipts(String companyId, SyncCallback<Integer> callback) {
+        sync(ENTITY_RECEIPTS, companyId, new DeltaSource<Receipt>() {
+            @Override
+            public Call<ResponseBody> fetch(String cursor, String companyId) {
+                return apiService.syncReceipts(cursor, PAGE_SIZE, companyId);
+            }
+            
+            @Override
+            public Class<Receipt> itemType() {
+                return Receipt.class;
+            }
+            
+            @Override
+            public int idOf(Receipt receipt) {
+                return receipt.getId();
+            }
+            
+            @Override
+            public List<Integer> cachedIds(String companyId) {
+                return receiptDao.getReceiptIds(companyId);
+            }
+            
+            @Override
+            public void upsert(String companyId, List<Receipt> items) {
+                List<ReceiptEntity> entities = new ArrayList<>(items.size());
+                for (Receipt receipt : items) {
+                    entities.add(ReceiptEntity.fromReceipt(receipt, companyId));
+                }
+                receiptDao.insertReceipts(entities);
+            }
+            
+            @Override
+            public void reapplyPending(String companyId, Set<Integer> ids) {
+                outboxRepository.reapplyPending(companyId, ids, Collections.emptySet());
+            }
+            
+            @Override
+            public void delete(List<Integer> ids) {
+                receiptDao.deleteReceiptsByIds(ids);
+            }
+        }, callback);
+    }
+    
+    // Pull transaction changes since the last sync; reports how many rows changed locally
+    public void syncTransactions(SyncCallback<Integer> callback) {
+        syncTransactions(apiClient.getCompanyId(), callback);
+    }
+    
+    void syncTransactions(String companyId, SyncCallback<Integer> callback) {
+        sync(ENTITY_TRANSACTIONS, companyId, new DeltaSource<Transaction>() {
+            @Override
+            public Call<ResponseBody> fetch(String cursor, String companyId) {
+                return apiService.syncTransactions(cursor, PAGE_SIZE, companyId);
+            }
+            
+            @Override
+            public Class<Transaction> itemType() {
+                return Transaction.class;
+            }
+            
+            @Override
+            public int idOf(Transaction transaction) {
+                return transaction.getId();
+            }
+            
+            @Override
+            public List<Integer> cachedIds(String companyId) {
+                return transactionDao.getTransactionIds(companyId);
+            }
+            
+            @Override
+            public void upsert(String companyId, List<Transaction> items) {
+                List<TransactionEntity> entities = new ArrayList<>(items.size());
+                for (Transaction transaction : items) {
+                    entities.add(TransactionEntity.fromTransaction(transaction, companyId));
+                }
+                transactionDao.insertTransactions(entities);
+            }
+            
+            @Override
+            public void reapplyPending(String companyId, Set<Integer> ids) {
+                outboxRepository.reapplyPending(companyId, Collections.emptySet(), ids);
+            }
+            
+            @Override
+            public void delete(List<Integer> ids) {
+                transactionDao.deleteTransactionsByIds(ids);
+            }
+        }, callback);
+    }
+    
+    private <T> void sync(String entityType, String companyId, DeltaSource<T> source,
+                          SyncCallback<Integer> callback) {
+        if (companyId == null) {
+            callback.onError("No company selected");
+            return;
+        }
+        
+        syncExecutor.execute(() -> {
+            try {
+                int changed = pullChanges(entityType, companyId, source);
+                mainExecutor.execute(() -> callback.onSuccess(changed));
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to sync " + entityType, e);
+                mainExecutor.execute(() -> callback.onError("Network error: " + e.getMessage()));
+            } catch (IllegalStateException e) {
+                Log.e(TAG, "Failed to sync " + entityType, e);
+                mainExecutor.execute(() -> callback.onError(e.getMessage()));
+            }
+        });
+    }
+    
+    // Runs on syncExecutor; pages until the server reports nothing more
+    private <T> int pullChanges(String entityType, String companyId, DeltaSource<T> source) throws IOException {
+        SyncStateEntity state = syncStateDao.getSyncState(companyId, entityType);
+        String cursor = state != null ? state.getCursor() : null;
+        // Ids a full resync has received so far; null for an incremental sync
+        BitSet resynced = cursor == null ? new BitSet() : null;
+        int changed = 0;
+        
+        while (true) {
+            Response<ResponseBody> response = source.fetch(cursor, companyId).execute();
+            
+            // The server no longer accepts our cursor; start over with a full sync
+            if (response.code() == 400 && cursor != null) {
+                Log.w(TAG, "Sync cursor for " + entityType + " rejected, resyncing");
+                response.errorBody().close();
+                cursor = null;
+                resynced = new BitSet();
+                continue;
+            }
+            if (!response.isSuccessful() || response.body() == null) {
+                String error = "Failed to sync " + entityType;
+                if (response.errorBody() != null) {
+                    error = response.message();
+                    response.errorBody().close();
+                }
+                throw new IllegalStateException(error);
+            }
+            
+            BitSet received = resynced;
+            int[] upserted = {0};
+            SyncResponse<T> page = pageReader.read(response.body(), source.itemType(), batch -> {
+                Set<Integer> ids = new HashSet<>(batch.size() * 2);
+                for (T item : batch) {
+                    ids.add(source.idOf(item));
+                }
+                transactionRunner.runInTransaction(() -> {
+                    source.upsert(companyId, batch);
+                    // Server rows must not overwrite edits still waiting in the outbox
+                    source.reapplyPending(companyId, ids);
+                });
+                if (received != null) {
+                    for (int id : ids) {
+                        if (id >= 0) {
+                            received.set(id);
+                        }
+                    }
+                }
+                upserted[0] += batch.size();
+            });
+            if (page == null) {
+                throw new IllegalStateException("Failed to sync " + entityType);
+            }
+            
+            // A resync's cursor is only stored with its last page: until then the rows it has
+            // not reached yet are still in the cache, and an interrupted resync starts over
+            boolean lastPage = !page.hasMore();
+            boolean saveCursor = received == null || lastPage;
+            List<Integer> deletedIds = page.getDeletedIds();
+            List<Integer> removedIds = new ArrayList<>();
+            SyncStateEntity nextState = new SyncStateEntity(companyId, entityType, page.getCursor(),
+                    System.currentTimeMillis());
+            transactionRunner.runInTransaction(() -> {
+                deleteInChunks(source, deletedIds);
+                if (received != null && lastPage) {
+                    for (Integer id : source.cachedIds(companyId)) {
+                        if (id < 0 || !received.get(id)) {
+                            removedIds.add(id);
+                        }
+                    }
+                    deleteInChunks(source, removedIds);
+                }
+                if (saveCursor) {
+                    syncStateDao.insertSyncState(nextState);
+                }
+            });
+            
+            changed += upserted[0] + deletedIds.size() + removedIds.size();
+            cursor = page.getCursor();
+            if (lastPage) {
+                return changed;
+            }
+        }
+    }
+    
+    private static <T> void deleteInChunks(DeltaSource<T> source, List<Integer> ids) {
+        for (int start = 0; start < ids.size(); start += DELETE_CHUNK_SIZE) {
+            source.delete(ids.subList(start, Math.min(start + DELETE_CHUNK_SIZE, ids.size())));
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.expensereceiptmatcher.data.repository;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.example.expensereceiptmatcher.data.api.ApiClient;
 import com.example.expensereceiptmatcher.data.api.ApiService;
 import com.example.expensereceiptmatcher.data.api.ApiResponse;
+import com.example.expensereceiptmatcher.data.database.AppDatabase;
+import com.example.expensereceiptmatcher.data.database.TransactionDao;
+import com.example.expensereceiptmatcher.data.database.TransactionEntity;
+import com.example.expensereceiptmatcher.data.paging.DateKeysetPageSource;
+import com.example.expensereceiptmatcher.data.paging.PageSource;
 import com.example.expensereceiptmatcher.domain.model.Transaction;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 import okhttp3.MediaType;
@@ -22,10 +30,18 @@ public class TransactionRepository {
     private static final String TAG = "TransactionRepository";
     private ApiClient apiClient;
     private ApiService apiService;
+    private TransactionDao transactionDao;
+    private SyncRepository syncRepository;
+    private OutboxRepository outboxRepository;
+    private Handler mainHandler;
     
     public TransactionRepository(Context context) {
         apiClient = ApiClient.getInstance(context);
         apiService = apiClient.getApiService();
+        transactionDao = AppDatabase.getInstance(context).transactionDao();
+        syncRepository = new SyncRepository(context);
+        outboxRepository = OutboxRepository.getInstance(context);
+        mainHandler = new Handler(Looper.getMainLooper());
     }
     
     public interface TransactionCallback<T> {
@@ -33,7 +49,9 @@ public class TransactionRepository {
         void onError(String error);
     }
     
-    // Get all transactions
+    // Get all transactions. Cached rows are delivered first when there are any, then the
+    // cache is brought up to date with a delta sync and the callback fires again if
+    // anything changed. Filtered or paged requests go straight to the server.
     public void getAllTransactions(Integer page, Integer limit, String status, TransactionCallback<List<Transaction>> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -41,35 +59,24 @@ public class TransactionRepository {
             return;
         }
         
-        Call<ApiResponse<List<Transaction>>> call = apiService.getTransactions(page, limit, status, companyId);
-        call.enqueue(new Callback<ApiResponse<List<Transaction>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<Transaction>>> call, Response<ApiResponse<List<Transaction>>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<List<Transaction>> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("No data received");
-                    }
-                } else {
-                    String error = "Failed to fetch transactions";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<ApiResponse<List<Transaction>>> call, Throwable t) {
-                Log.e(TAG, "Failed to fetch transactions", t);
-                callback.onError("Network error: " + t.getMessage());
+        // Only the unfiltered, unpaged listing is served from the synced cache
+        if (page != null || limit != null || status != null) {
+            enqueueTransactionList(apiService.getTransactions(page, limit, status, companyId), companyId,
+                    "Failed to fetch transactions", callback);
+            return;
+        }
+        
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<Transaction> cached = toTransactions(transactionDao.getAllTransactions(companyId));
+            boolean servedFromCache = !cached.isEmpty();
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached));
             }
+            syncThenReload(companyId, false, servedFromCache, callback);
         });
     }
     
-    // Get transaction by ID
+    // Get transaction by ID, cached copy first
     public void getTransactionById(int id, TransactionCallback<Transaction> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -77,31 +84,42 @@ public class TransactionRepository {
             return;
         }
         
-        Call<ApiResponse<Transaction>> call = apiService.getTransaction(id, companyId);
-        call.enqueue(new Callback<ApiResponse<Transaction>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<Transaction>> call, Response<ApiResponse<Transaction>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<Transaction> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("Transaction not found");
+        AppDatabase.databaseExecutor.execute(() -> {
+            TransactionEntity cached = transactionDao.getTransactionById(id);
+            boolean servedFromCache = cached != null;
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached.toTransaction()));
+            }
+            
+            Call<ApiResponse<Transaction>> call = apiService.getTransaction(id, companyId);
+            call.enqueue(new Callback<ApiResponse<Transaction>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<Transaction>> call, Response<ApiResponse<Transaction>> response) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        ApiResponse<Transaction> apiResponse = response.body();
+                        if (apiResponse.getData() != null) {
+                            cacheTransaction(apiResponse.getData(), companyId);
+                            callback.onSuccess(apiResponse.getData());
+                        } else if (!servedFromCache) {
+                            callback.onError("Transaction not found");
+                        }
+                    } else if (!servedFromCache) {
+                        String error = "Failed to fetch transaction";
+                        if (response.errorBody() != null) {
+                            error = response.message();
+                        }
+                        callback.onError(error);
                     }
-                } else {
-                    String error = "Failed to fetch transaction";
-                    if (response.errorBody() != null) {
-                        error = response.message();
+                }
+                
+                @Override
+                public void onFailure(Call<ApiResponse<Transaction>> call, Throwable t) {
+                    Log.e(TAG, "Failed to fetch transaction", t);
+                    if (!servedFromCache) {
+                        callback.onError("Network error: " + t.getMessage());
                     }
-                    callback.onError(error);
                 }
-            }
-            
-            @Override
-            public void onFailure(Call<ApiResponse<Transaction>> call, Throwable t) {
-                Log.e(TAG, "Failed to fetch transaction", t);
-                callback.onError("Network error: " + t.getMessage());
-            }
+            });
         });
     }
     
@@ -140,7 +158,8 @@ public class TransactionRepository {
         });
     }
     
-    // Update transaction
+    // Update transaction. The edit is applied to the cache at once and queued in the outbox
+    // until the server accepts it.
     public void updateTransaction(Transaction transaction, TransactionCallback<Transaction> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -148,30 +167,15 @@ public class TransactionRepository {
             return;
         }
         
-        Call<ApiResponse<Transaction>> call = apiService.updateTransaction(transaction.getId(), transaction, companyId);
-        call.enqueue(new Callback<ApiResponse<Transaction>>() {
+        outboxRepository.updateTransaction(companyId, transaction, new OutboxRepository.OutboxCallback<Transaction>() {
             @Override
-            public void onResponse(Call<ApiResponse<Transaction>> call, Response<ApiResponse<Transaction>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<Transaction> apiResponse = response.body();
-                    if (apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
-                    } else {
-                        callback.onError("Failed to update transaction");
-                    }
-                } else {
-                    String error = "Failed to update transaction";
-                    if (response.errorBody() != null) {
-                        error = response.message();
-                    }
-                    callback.onError(error);
-                }
+            public void onSuccess(Transaction response) {
+                callback.onSuccess(response);
             }
             
             @Override
-            public void onFailure(Call<ApiResponse<Transaction>> call, Throwable t) {
-                Log.e(TAG, "Failed to update transaction", t);
-                callback.onError("Network error: " + t.getMessage());
+            public void onError(String error) {
+                callback.onError(error);
             }
         });
     }
@@ -189,6 +193,7 @@ public class TransactionRepository {
             @Override
             public void onResponse(Call<ApiResponse<Void>> call, Response<ApiResponse<Void>> response) {
                 if (response.isSuccessful()) {
+                    AppDatabase.databaseExecutor.execute(() -> transactionDao.deleteTransactionById(id));
                     callback.onSuccess(null);
                 } else {
                     String error = "Failed to delete transaction";
@@ -207,7 +212,7 @@ public class TransactionRepository {
         });
     }
     
-    // Get unmatched transactions
+    // Get unmatched transactions, cached rows first
     public void getUnmatchedTransactions(TransactionCallback<List<Transaction>> callback) {
         String companyId = apiClient.getCompanyId();
         if (companyId == null) {
@@ -215,19 +220,123 @@ public class TransactionRepository {
             return;
         }
         
-        Call<ApiResponse<List<Transaction>>> call = apiService.getTransactions(null, null, "unmatched", companyId);
+        AppDatabase.databaseExecutor.execute(() -> {
+            List<Transaction> cached = toTransactions(transactionDao.getUnmatchedTransactions(companyId));
+            boolean servedFromCache = !cached.isEmpty();
+            if (servedFromCache) {
+                mainHandler.post(() -> callback.onSuccess(cached));
+            }
+            syncThenReload(companyId, true, servedFromCache, callback);
+        });
+    }
+    
+    // Pages through the cached transactions of the selected company, newest first. Pair it
+    // with syncTransactions to keep the cache current.
+    public PageSource<Transaction> getTransactionPageSource() {
+        return new DateKeysetPageSource<TransactionEntity, Transaction>() {
+            @Override
+            protected List<TransactionEntity> newest(int limit) {
+                return transactionDao.getNewestTransactions(apiClient.getCompanyId(), limit);
+            }
+            
+            @Override
+            protected List<TransactionEntity> olderThan(String date, int id, int limit) {
+                return transactionDao.getTransactionsOlderThan(apiClient.getCompanyId(), date, id, limit);
+            }
+            
+            @Override
+            protected List<TransactionEntity> newerThan(String date, int id, int limit) {
+                return transactionDao.getTransactionsNewerThan(apiClient.getCompanyId(), date, id, limit);
+            }
+            
+            @Override
+            protected List<TransactionEntity> undatedBelow(int id, int limit) {
+                return transactionDao.getUndatedTransactionsBelow(apiClient.getCompanyId(), id, limit);
+            }
+            
+            @Override
+            protected List<TransactionEntity> undatedAbove(int id, int limit) {
+                return transactionDao.getUndatedTransactionsAbove(apiClient.getCompanyId(), id, limit);
+            }
+            
+            @Override
+            protected Transaction toModel(TransactionEntity entity) {
+                return entity.toTransaction();
+            }
+            
+            @Override
+            protected String dateOf(Transaction transaction) {
+                return transaction.getDate();
+            }
+            
+            @Override
+            protected int idOf(Transaction transaction) {
+                return transaction.getId();
+            }
+        };
+    }
+    
+    // Bring the cache up to date without loading any rows; reports how many changed
+    public void syncTransactions(TransactionCallback<Integer> callback) {
+        syncRepository.syncTransactions(new SyncRepository.SyncCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer changed) {
+                callback.onSuccess(changed);
+            }
+            
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+    
+    // Bring the cache up to date with a delta sync, then deliver the cached rows again
+    // unless nothing changed since they were served. Sync errors are only reported
+    // when nothing was served from the cache, so an offline refresh keeps the list.
+    private void syncThenReload(String companyId, boolean unmatchedOnly, boolean servedFromCache,
+                                TransactionCallback<List<Transaction>> callback) {
+        syncRepository.syncTransactions(new SyncRepository.SyncCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer changed) {
+                if (changed == 0 && servedFromCache) {
+                    return;
+                }
+                AppDatabase.databaseExecutor.execute(() -> {
+                    List<Transaction> transactions = toTransactions(unmatchedOnly
+                            ? transactionDao.getUnmatchedTransactions(companyId)
+                            : transactionDao.getAllTransactions(companyId));
+                    mainHandler.post(() -> callback.onSuccess(transactions));
+                });
+            }
+            
+            @Override
+            public void onError(String error) {
+                if (!servedFromCache) {
+                    callback.onError(error);
+                }
+            }
+        });
+    }
+    
+    // Fetch a filtered transaction list and upsert the rows into the cache, keeping pending edits
+    private void enqueueTransactionList(Call<ApiResponse<List<Transaction>>> call, String companyId,
+                                        String errorMessage, TransactionCallback<List<Transaction>> callback) {
         call.enqueue(new Callback<ApiResponse<List<Transaction>>>() {
             @Override
             public void onResponse(Call<ApiResponse<List<Transaction>>> call, Response<ApiResponse<List<Transaction>>> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<List<Transaction>> apiResponse = response.body();
                     if (apiResponse.getData() != null) {
+                        List<TransactionEntity> entities = toEntities(apiResponse.getData(), companyId);
+                        AppDatabase.databaseExecutor.execute(() -> outboxRepository.applyServerData(companyId,
+                                () -> transactionDao.insertTransactions(entities)));
                         callback.onSuccess(apiResponse.getData());
                     } else {
                         callback.onError("No data received");
                     }
                 } else {
-                    String error = "Failed to fetch unmatched transactions";
+                    String error = errorMessage;
                     if (response.errorBody() != null) {
                         error = response.message();
                     }
@@ -237,9 +346,31 @@ public class TransactionRepository {
             
             @Override
             public void onFailure(Call<ApiResponse<List<Transaction>>> call, Throwable t) {
-                Log.e(TAG, "Failed to fetch unmatched transactions", t);
+                Log.e(TAG, errorMessage, t);
                 callback.onError("Network error: " + t.getMessage());
             }
         });
     }
+    
+    private void cacheTransaction(Transaction transaction, String companyId) {
+        TransactionEntity entity = TransactionEntity.fromTransaction(transaction, companyId);
+        AppDatabase.databaseExecutor.execute(() -> outboxRepository.applyServerData(companyId,
+                () -> transactionDao.insertTransaction(entity)));
+    }
+    
+    private static List<Transaction> toTransactions(List<TransactionEntity> entities) {
+        List<Transaction> transactions = new ArrayList<>(entities.size());
+        for (TransactionEntity entity : entities) {
+            transactions.add(entity.toTransaction());
+        }
+        return transactions;
+    }
+    
+    private static List<TransactionEntity> toEntities(List<Transaction> transactions, String companyId) {
+        List<TransactionEntity> entities = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            entities.add(TransactionEntity.fromTransaction(transaction, companyId));
+        }
+        return entities;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,355 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.expensereceiptmatcher.data.api.ApiClient;
+import com.example.expensereceiptmatcher.data.api.ApiResponse;
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.api.FileChunkRequestBody;
+import com.example.expensereceiptmatcher.data.api.StartUploadRequest;
+import com.example.expensereceiptmatcher.data.api.UploadCompleteResponse;
+import com.example.expensereceiptmatcher.data.api.UploadSessionResponse;
+import com.example.expensereceiptmatcher.data.database.AppDatabase;
+import com.example.expensereceiptmatcher.data.database.UploadDao;
+import com.example.expensereceiptmatcher.data.database.UploadEntity;
+import com.example.expensereceiptmatcher.utils.FileUploadUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+public class UploadQueueRepository {
+    // Durable queue of receipt files to upload. A queued file is moved into app storage
+    // and recorded in Room, then sent in chunks through a resumable upload session. The
+    // bytes the server has acknowledged are stored after every chunk, so an upload cut off
+    // by a dropped connection or by the process being killed carries on from there, not
+    // from the start. A few receipts are uploaded at once; the rest wait their turn. An
+    // upload that keeps failing is retried with growing delays and finally marked failed.
+    
+    private static final String TAG = "UploadQueueRepository";
+    private static final String PENDING_DIRECTORY = "pending_uploads";
+    // Small enough to get through before the write timeout on a weak cellular link, so
+    // a drop costs at most one chunk
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_PARALLEL_UPLOADS = 3;
+    private static final ExecutorService uploadExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_UPLOADS);
+    // Failed attempts in a row, without the server acknowledging any new bytes, before an
+    // upload is marked failed; retryFailed() puts it back in the queue
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long FIRST_RETRY_DELAY_MS = 2000;
+    private static final long MAX_RETRY_DELAY_MS = 5 * 60 * 1000;
+    private static final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    
+    private static UploadQueueRepository instance;
+    private ApiService apiService;
+    private UploadDao uploadDao;
+    private File pendingDirectory;
+    private Handler mainHandler;
+    // Uploads queued on or running in uploadExecutor, so a resume does not start one twice
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final List<UploadListener> listeners = new CopyOnWriteArrayList<>();
+    
+    private UploadQueueRepository(Context context) {
+        apiService = ApiClient.getInstance(context).getApiService();
+        uploadDao = AppDatabase.getInstance(context).uploadDao();
+        pendingDirectory = new File(context.getFilesDir(), PENDING_DIRECTORY);
+        mainHandler = new Handler(Looper.getMainLooper());
+        
+        // Carry on with interrupted uploads as soon as a network comes back
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager != null) {
+            connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    resume();
+                }
+            });
+        }
+    }
+    
+    public static synchronized UploadQueueRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new UploadQueueRepository(context.getApplicationContext());
+            // Pick up uploads left over from a previous run
+            instance.resume();
+        }
+        return instance;
+    }
+    
+    public interface UploadCallback<T> {
+        void onSuccess(T response);
+        void onError(String error);
+    }
+    
+    // Progress of queued uploads, delivered on the main thread
+    public interface UploadListener {
+        void onProgress(long uploadId, long uploadedBytes, long totalBytes);
+        void onComplete(long uploadId, int receiptId);
+        // The server refused the upload or it kept failing; it stays in the queue as failed
+        void onError(long uploadId, String error);
+    }
+    
+    public void addListener(UploadListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(UploadListener listener) {
+        listeners.remove(listener);
+    }
+    
+    // Queue a receipt file for upload. The file is moved into app storage, so the caller
+    // must not delete it; the callback gets the upload id once it is queued.
+    public void enqueue(String companyId, File file, UploadCallback<Long> callback) {
+        AppDatabase.databaseExecutor.execute(() -> {
+            UploadEntity upload;
+            try {
+                File stored = moveToPendingDirectory(file);
+                upload = new UploadEntity(companyId, stored.getAbsolutePath(), file.getName(),
+                        FileUploadUtils.getMimeType(file.getName()), stored.length());
+                upload.setId(uploadDao.insertUpload(upload));
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to queue receipt upload", e);
+                mainHandler.post(() -> callback.onError("Failed to queue receipt: " + e.getMessage()));
+                return;
+            }
+            long id = upload.getId();
+            mainHandler.post(() -> callback.onSuccess(id));
+            schedule(id);
+        });
+    }
+    
+    // Start every pending upload that is not already running; safe to call at any time
+    public void resume() {
+        AppDatabase.databaseExecutor.execute(() -> {
+            for (UploadEntity upload : uploadDao.getUploadsWithStatus(UploadEntity.PENDING)) {
+                schedule(upload.getId());
+            }
+        });
+    }
+    
+    // Put uploads the server refused back in the queue, e.g. after the user fixed the cause
+    public void retryFailed() {
+        AppDatabase.databaseExecutor.execute(() -> {
+            uploadDao.resetStatus(UploadEntity.FAILED, UploadEntity.PENDING);
+            resume();
+        });
+    }
+    
+    private void schedule(long id) {
+        if (!scheduled.add(id)) {
+            return;
+        }
+        uploadExecutor.execute(() -> {
+            try {
+                upload(id);
+            } finally {
+                scheduled.remove(id);
+            }
+        });
+    }
+    
+    // Runs on uploadExecutor. The row is read again here because a resume may have listed
+    // it just before an earlier run finished it.
+    private void upload(long id) {
+        UploadEntity upload = uploadDao.getUploadById(id);
+        if (upload == null || !UploadEntity.PENDING.equals(upload.getStatus())) {
+            return;
+        }
+        File file = new File(upload.getFilePath());
+        if (!file.exists()) {
+            uploadDao.deleteUploadById(id);
+            notifyError(id, "Receipt file is missing");
+            return;
+        }
+        
+        // Where this attempt started, to tell a stalled upload from one that is getting somewhere
+        long startOffset = -1;
+        long offset = -1;
+        try {
+            UploadSessionResponse session = openSession(upload);
+            if (session.isCompleted()) {
+                // An earlier attempt completed the upload but lost the response
+                finish(upload, file, session.getReceiptId());
+                return;
+            }
+            String sessionId = session.getUploadId();
+            offset = session.getOffset();
+            startOffset = offset;
+            uploadDao.updateProgress(id, sessionId, offset);
+            notifyProgress(id, offset, upload.getSize());
+            
+            while (offset < upload.getSize()) {
+                long length = Math.min(CHUNK_SIZE, upload.getSize() - offset);
+                try {
+                    session = execute(apiService.uploadChunk(sessionId, offset,
+                            new FileChunkRequestBody(file, offset, length), upload.getCompanyId()));
+                } catch (UploadFailure failure) {
+                    if (failure.code != 409) {
+                        throw failure;
+                    }
+                    // An earlier chunk was stored but its response was lost; carry on from
+                    // the offset the server has
+                    session = execute(apiService.getUploadSession(sessionId, upload.getCompanyId()));
+                }
+                offset = session.getOffset();
+                uploadDao.updateProgress(id, sessionId, offset);
+                notifyProgress(id, offset, upload.getSize());
+            }
+            
+            // Completing again after a lost response returns the same receipt
+            UploadCompleteResponse completed = execute(apiService.completeUpload(sessionId, upload.getCompanyId()));
+            finish(upload, file, completed.getReceiptId());
+        } catch (IOException e) {
+            Log.d(TAG, "Upload " + id + " interrupted: " + e.getMessage());
+            retryLater(upload, offset > startOffset, "Network error: " + e.getMessage());
+        } catch (UploadFailure failure) {
+            if (failure.shouldRetry()) {
+                Log.d(TAG, "Upload " + id + " got HTTP " + failure.code);
+                retryLater(upload, offset > startOffset, failure.getMessage());
+            } else {
+                Log.w(TAG, "Upload " + id + " refused, HTTP " + failure.code + ": " + failure.getMessage());
+                uploadDao.updateStatus(id, UploadEntity.FAILED, failure.getMessage());
+                notifyError(id, failure.getMessage());
+            }
+        }
+    }
+    
+    // Try again after a delay that doubles with every failed attempt in a row. An attempt
+    // that got more bytes through starts the count over.
+    private void retryLater(UploadEntity upload, boolean progressed, String reason) {
+        long id = upload.getId();
+        int attempts = progressed ? 1 : upload.getAttempts() + 1;
+        uploadDao.updateAttempts(id, attempts);
+        if (attempts >= MAX_ATTEMPTS) {
+            String error = "Gave up after " + attempts + " attempts. " + reason;
+            Log.w(TAG, "Upload " + id + ": " + error);
+            uploadDao.updateStatus(id, UploadEntity.FAILED, error);
+            notifyError(id, error);
+            return;
+        }
+        long delay = Math.min(MAX_RETRY_DELAY_MS, FIRST_RETRY_DELAY_MS << (attempts - 1));
+        Log.d(TAG, "Retrying upload " + id + " in " + delay + " ms");
+        retryScheduler.schedule(() -> schedule(id), delay, TimeUnit.MILLISECONDS);
+    }
+    
+    private void finish(UploadEntity upload, File file, int receiptId) {
+        uploadDao.deleteUploadById(upload.getId());
+        if (!file.delete()) {
+            Log.w(TAG, "Could not delete uploaded file " + file);
+        }
+        notifyComplete(upload.getId(), receiptId);
+    }
+    
+    // The upload's existing session if the server still has it, otherwise a new one
+    private UploadSessionResponse openSession(UploadEntity upload) throws IOException, UploadFailure {
+        if (upload.getSessionId() != null) {
+            try {
+                return execute(apiService.getUploadSession(upload.getSessionId(), upload.getCompanyId()));
+            } catch (UploadFailure failure) {
+                if (failure.code != 404) {
+                    throw failure;
+                }
+                Log.d(TAG, "Upload session " + upload.getSessionId() + " expired, starting over");
+            }
+        }
+        StartUploadRequest request = new StartUploadRequest(upload.getFileName(), upload.getSize(),
+                upload.getMimeType());
+        return execute(apiService.startUpload(request, upload.getCompanyId()));
+    }
+    
+    private static <T> T execute(Call<ApiResponse<T>> call) throws IOException, UploadFailure {
+        Response<ApiResponse<T>> response = call.execute();
+        if (!response.isSuccessful() || response.body() == null || response.body().getData() == null) {
+            String error = "Upload failed";
+            if (response.errorBody() != null) {
+                error += ": " + response.errorBody().string();
+            }
+            throw new UploadFailure(response.isSuccessful() ? 500 : response.code(), error);
+        }
+        return response.body().getData();
+    }
+    
+    // Renamed where possible; copied when the source is on another file system
+    private File moveToPendingDirectory(File file) throws IOException {
+        if (!pendingDirectory.exists() && !pendingDirectory.mkdirs()) {
+            throw new IOException("Could not create " + pendingDirectory);
+        }
+        File target = new File(pendingDirectory, UUID.randomUUID() + "_" + file.getName());
+        if (file.renameTo(target)) {
+            return target;
+        }
+        try (FileChannel source = new FileInputStream(file).getChannel();
+             FileChannel destination = new FileOutputStream(target).getChannel()) {
+            long position = 0;
+            long size = source.size();
+            while (position < size) {
+                position += source.transferTo(position, size - position, destination);
+            }
+        } catch (IOException e) {
+            target.delete();
+            throw e;
+        }
+        file.delete();
+        return target;
+    }
+    
+    private void notifyProgress(long id, long uploadedBytes, long totalBytes) {
+        mainHandler.post(() -> {
+            for (UploadListener listener : listeners) {
+                listener.onProgress(id, uploadedBytes, totalBytes);
+            }
+        });
+    }
+    
+    private void notifyComplete(long id, int receiptId) {
+        mainHandler.post(() -> {
+            for (UploadListener listener : listeners) {
+                listener.onComplete(id, receiptId);
+            }
+        });
+    }
+    
+    private void notifyError(long id, String error) {
+        mainHandler.post(() -> {
+            for (UploadListener listener : listeners) {
+                listener.onError(id, error);
+            }
+        });
+    }
+    
+    // A response other than success, with its HTTP status
+    private static class UploadFailure extends Exception {
+        final int code;
+        
+        UploadFailure(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+        
+        // Server errors, throttling and expired sessions are worth retrying; anything
+        // else means the server will never accept this file
+        boolean shouldRetry() {
+            return code >= 500 || code == 401 || code == 408 || code == 429;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.example.expensereceiptmatcher.presentation;
 import android.Manifest;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
@@ -33,16 +32,25 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import com.example.expensereceiptmatcher.R;
+import com.example.expensereceiptmatcher.data.repository.ReceiptRepository;
 import com.example.expensereceiptmatcher.domain.usecase.ScanReceiptUseCase;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
-import com.example.expensereceiptmatcher.utils.ImageUtils;
+import com.example.expensereceiptmatcher.utils.BitmapPool;
+import com.example.expensereceiptmatcher.utils.FileUploadUtils;
+import com.example.expensereceiptmatcher.utils.ReceiptCompressor;
+import com.example.expensereceiptmatcher.utils.ReceiptImageDecoder;
 
-import java.nio.ByteBuffer;
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 
 public class ReceiptScannerActivity extends AppCompatActivity {
     private static final String TAG = "ReceiptScannerActivity";
     private static final int CAMERA_REQUEST_CODE = 100;
+    // Captures are decoded to fit in this square, enough to read a receipt's text
+    private static final int MAX_IMAGE_EDGE = 2048;
+    // Room for one released capture at MAX_IMAGE_EDGE
+    private static final long CAPTURE_POOL_BYTES = 4L * MAX_IMAGE_EDGE * MAX_IMAGE_EDGE;
 
     private TextureView textureView;
     private ImageView imageView;
@@ -57,6 +65,14 @@ public class ReceiptScannerActivity extends AppCompatActivity {
     private HandlerThread backgroundThread;
     
     private ScanReceiptUseCase scanReceiptUseCase;
+    private ReceiptRepository receiptRepository;
+    
+    private final BitmapPool capturePool = new BitmapPool(CAPTURE_POOL_BYTES);
+    // Used on the camera background thread only
+    private final ReceiptImageDecoder imageDecoder = new ReceiptImageDecoder(capturePool);
+    private final ReceiptCompressor receiptCompressor = new ReceiptCompressor();
+    // The capture shown in imageView; main thread only
+    private Bitmap capturedBitmap;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -70,6 +86,7 @@ public class ReceiptScannerActivity extends AppCompatActivity {
         
         // Initialize use case
         scanReceiptUseCase = new ScanReceiptUseCase();
+        receiptRepository = new ReceiptRepository(this);
         
         // Set up click listener for capture button
         buttonCapture.setOnClickListener(v -> takePicture());
@@ -197,34 +214,75 @@ public class ReceiptScannerActivity extends AppCompatActivity {
         }
     }
     
+    // Runs on the camera background thread. The camera's JPEG is saved as it is, without
+    // copying it into a byte array or string, and previewed from that file. What gets
+    // uploaded is a grayscale, cropped copy sized for the connection's byte budget; the
+    // saved JPEG is only sent if that step fails.
     private void processImage(Image image) {
-        // Convert image to bitmap
-        ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-        byte[] bytes = new byte[buffer.remaining()];
-        buffer.get(bytes);
-        Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-        
-        // Display captured image
-        imageView.setImageBitmap(bitmap);
-        imageView.setVisibility(View.VISIBLE);
-        textureView.setVisibility(View.GONE);
+        if (image == null) {
+            return;
+        }
+        String baseName = "receipt_" + System.currentTimeMillis();
+        File jpegFile;
+        try {
+            jpegFile = FileUploadUtils.writeToCacheFile(this, image.getPlanes()[0].getBuffer(), baseName + ".jpg");
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to save captured image", e);
+            runOnUiThread(() -> Toast.makeText(this, "Could not save the captured image", Toast.LENGTH_SHORT).show());
+            return;
+        } finally {
+            image.close();
+        }
         
-        // Process the captured image for receipt data
-        processReceipt(bitmap);
+        Bitmap bitmap = imageDecoder.decodeFile(jpegFile.getPath(), MAX_IMAGE_EDGE, MAX_IMAGE_EDGE);
+        File uploadFile = jpegFile;
+        if (bitmap != null) {
+            try {
+                ReceiptCompressor.Result compressed = receiptCompressor.compress(bitmap,
+                        ReceiptCompressor.budgetFor(this), getCacheDir(), baseName + "_upload");
+                Log.d(TAG, "Compressed receipt to " + compressed.getFile().length() + " bytes, "
+                        + compressed.getWidth() + "x" + compressed.getHeight() + ", SSIM " + compressed.getSimilarity());
+                jpegFile.delete();
+                uploadFile = compressed.getFile();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to compress receipt, uploading the original", e);
+            }
+        }
+        File receiptFile = uploadFile;
         
-        image.close();
+        // Display captured image, handing the previous one back for reuse
+        runOnUiThread(() -> {
+            if (bitmap != null) {
+                Bitmap previous = capturedBitmap;
+                capturedBitmap = bitmap;
+                imageView.setImageBitmap(bitmap);
+                imageView.setVisibility(View.VISIBLE);
+                textureView.setVisibility(View.GONE);
+                imageDecoder.release(previous);
+            }
+            processReceipt(receiptFile);
+        });
     }
     
-    private void processReceipt(Bitmap bitmap) {
-        // Convert bitmap to base64 string for processing
-        String base64Image = ImageUtils.bitmapToBase64(bitmap);
-        
+    private void processReceipt(File receiptFile) {
         // Use the scan receipt use case to extract data
-        Receipt receipt = scanReceiptUseCase.execute(base64Image);
+        Receipt receipt = scanReceiptUseCase.execute(receiptFile.getAbsolutePath());
         
         // TODO: Handle the extracted receipt data
-        // For now, just show a toast message
-        Toast.makeText(this, "Receipt scanned successfully", Toast.LENGTH_SHORT).show();
+        // Meanwhile the server runs OCR on the uploaded image. The upload is queued, so a
+        // weak signal delays it instead of losing the receipt.
+        receiptRepository.queueReceiptUpload(receiptFile, new ReceiptRepository.ReceiptCallback<Long>() {
+            @Override
+            public void onSuccess(Long uploadId) {
+                Toast.makeText(ReceiptScannerActivity.this, "Receipt queued for upload", Toast.LENGTH_SHORT).show();
+            }
+            
+            @Override
+            public void onError(String error) {
+                // The capture stays in the cache directory until the system clears it
+                Toast.makeText(ReceiptScannerActivity.this, error, Toast.LENGTH_LONG).show();
+            }
+        });
     }
     
     @Override
@@ -279,6 +337,7 @@ public class ReceiptScannerActivity extends AppCompatActivity {
             cameraDevice.close();
             cameraDevice = null;
         }
+        capturePool.clear();
         super.onDestroy();
     }
     
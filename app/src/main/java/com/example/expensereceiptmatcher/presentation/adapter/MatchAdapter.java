@@ -7,46 +7,47 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.expensereceiptmatcher.R;
-import com.example.expensereceiptmatcher.domain.model.Match;
-import com.example.expensereceiptmatcher.domain.model.Receipt;
-import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.domain.model.MatchDetail;
+import com.example.expensereceiptmatcher.utils.DisplayFormatter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHolder> {
-    private List<Match> matches;
-    private List<Receipt> receipts;
-    private List<Transaction> transactions;
+    private static final DiffUtil.ItemCallback<MatchDetail> DIFF_CALLBACK = new DiffUtil.ItemCallback<MatchDetail>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MatchDetail oldItem, @NonNull MatchDetail newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull MatchDetail oldItem, @NonNull MatchDetail newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+    
+    private final AsyncListDiffer<MatchDetail> differ;
+    private final DisplayFormatter formatter = DisplayFormatter.getInstance();
     private OnMatchClickListener listener;
     
     public interface OnMatchClickListener {
-        void onMatchClick(Match match);
-        void onDeleteClick(Match match);
+        void onMatchClick(MatchDetail match);
+        void onDeleteClick(MatchDetail match);
     }
     
     public MatchAdapter() {
-        this.matches = new ArrayList<>();
-        this.receipts = new ArrayList<>();
-        this.transactions = new ArrayList<>();
-    }
-    
-    public void setMatches(List<Match> matches) {
-        this.matches = matches;
-        notifyDataSetChanged();
-    }
-    
-    public void setReceipts(List<Receipt> receipts) {
-        this.receipts = receipts;
-        notifyDataSetChanged();
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     }
     
-    public void setTransactions(List<Transaction> transactions) {
-        this.transactions = transactions;
-        notifyDataSetChanged();
+    // Rows carry their receipt and transaction fields, so a change to either arrives as
+    // a changed row and is diffed in the background like any other
+    public void setMatches(List<MatchDetail> matches) {
+        differ.submitList(matches != null ? new ArrayList<>(matches) : null);
     }
     
     public void setOnMatchClickListener(OnMatchClickListener listener) {
@@ -63,13 +64,13 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
     
     @Override
     public void onBindViewHolder(@NonNull MatchViewHolder holder, int position) {
-        Match match = matches.get(position);
+        MatchDetail match = differ.getCurrentList().get(position);
         holder.bind(match);
     }
     
     @Override
     public int getItemCount() {
-        return matches.size();
+        return differ.getCurrentList().size();
     }
     
     class MatchViewHolder extends RecyclerView.ViewHolder {
@@ -81,6 +82,7 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
         private TextView textViewMatchDate;
         private TextView textViewConfidenceScore;
         private View buttonDelete;
+        private MatchDetail match;
         
         public MatchViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -92,56 +94,33 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
             textViewMatchDate = itemView.findViewById(R.id.text_view_match_date);
             textViewConfidenceScore = itemView.findViewById(R.id.text_view_confidence_score);
             buttonDelete = itemView.findViewById(R.id.button_delete);
-        }
-        
-        public void bind(Match match) {
-            // Find associated receipt and transaction
-            Receipt receipt = findReceiptById(match.getReceiptId());
-            Transaction transaction = findTransactionById(match.getTransactionId());
             
-            if (receipt != null) {
-                textViewReceiptVendor.setText(receipt.getVendor());
-                textViewReceiptAmount.setText(String.format("$%.2f", receipt.getAmount()));
-            }
-            
-            if (transaction != null) {
-                textViewTransactionDescription.setText(transaction.getDescription());
-                textViewTransactionAmount.setText(String.format("$%.2f", transaction.getAmount()));
-            }
-            
-            textViewMatchDate.setText(match.getMatchDate());
-            textViewConfidenceScore.setText(String.format("Confidence: %.2f", match.getConfidenceScore()));
-            
-            // Set click listeners
+            // Set once here and read the bound match, so binding allocates nothing
             itemView.setOnClickListener(v -> {
-                if (listener != null) {
+                if (listener != null && match != null) {
                     listener.onMatchClick(match);
                 }
             });
             
             buttonDelete.setOnClickListener(v -> {
-                if (listener != null) {
+                if (listener != null && match != null) {
                     listener.onDeleteClick(match);
                 }
             });
         }
         
-        private Receipt findReceiptById(int id) {
-            for (Receipt receipt : receipts) {
-                if (receipt.getId() == id) {
-                    return receipt;
-                }
-            }
-            return null;
-        }
-        
-        private Transaction findTransactionById(int id) {
-            for (Transaction transaction : transactions) {
-                if (transaction.getId() == id) {
-                    return transaction;
-                }
-            }
-            return null;
+        public void bind(MatchDetail match) {
+            this.match = match;
+            
+            // Each field is null on its own: all of a side's fields when that side is not
+            // cached yet, and just the amount when the receipt or transaction has none
+            textViewReceiptVendor.setText(match.getReceiptVendor());
+            textViewReceiptAmount.setText(formatter.formatMoney(match.getReceiptAmount()));
+            textViewTransactionDescription.setText(match.getTransactionDescription());
+            textViewTransactionAmount.setText(formatter.formatMoney(match.getTransactionAmount()));
+            
+            textViewMatchDate.setText(formatter.formatDate(match.getMatch().getMatchDate()));
+            textViewConfidenceScore.setText(formatter.formatConfidence(match.getMatch().getConfidenceScore()));
         }
     }
 }
\ No newline at end of file
@@ -7,16 +7,32 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.expensereceiptmatcher.R;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.utils.DisplayFormatter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class ReceiptAdapter extends RecyclerView.Adapter<ReceiptAdapter.ReceiptViewHolder> {
-    private List<Receipt> receipts;
+    private static final DiffUtil.ItemCallback<Receipt> DIFF_CALLBACK = new DiffUtil.ItemCallback<Receipt>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Receipt oldItem, @NonNull Receipt newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Receipt oldItem, @NonNull Receipt newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+    
+    private final AsyncListDiffer<Receipt> differ;
+    private final DisplayFormatter formatter = DisplayFormatter.getInstance();
     private OnReceiptClickListener listener;
     
     public interface OnReceiptClickListener {
@@ -25,12 +41,12 @@ public class ReceiptAdapter extends RecyclerView.Adapter<ReceiptAdapter.ReceiptV
     }
     
     public ReceiptAdapter() {
-        this.receipts = new ArrayList<>();
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     }
     
+    // Diffed against the current list in the background
     public void setReceipts(List<Receipt> receipts) {
-        this.receipts = receipts;
-        notifyDataSetChanged();
+        differ.submitList(receipts != null ? new ArrayList<>(receipts) : null);
     }
     
     public void setOnReceiptClickListener(OnReceiptClickListener listener) {
@@ -47,13 +63,13 @@ public class ReceiptAdapter extends RecyclerView.Adapter<ReceiptAdapter.ReceiptV
     
     @Override
     public void onBindViewHolder(@NonNull ReceiptViewHolder holder, int position) {
-        Receipt receipt = receipts.get(position);
+        Receipt receipt = differ.getCurrentList().get(position);
         holder.bind(receipt);
     }
     
     @Override
     public int getItemCount() {
-        return receipts.size();
+        return differ.getCurrentList().size();
     }
     
     class ReceiptViewHolder extends RecyclerView.ViewHolder {
@@ -63,6 +79,7 @@ public class ReceiptAdapter extends RecyclerView.Adapter<ReceiptAdapter.ReceiptV
         private TextView textViewAmount;
         private TextView textViewCategory;
         private View buttonMatch;
+        private Receipt receipt;
         
         public ReceiptViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -72,26 +89,27 @@ public class ReceiptAdapter extends RecyclerView.Adapter<ReceiptAdapter.ReceiptV
             textViewAmount = itemView.findViewById(R.id.text_view_amount);
             textViewCategory = itemView.findViewById(R.id.text_view_category);
             buttonMatch = itemView.findViewById(R.id.button_match);
-        }
-        
-        public void bind(Receipt receipt) {
-            textViewDate.setText(receipt.getDate());
-            textViewVendor.setText(receipt.getVendor());
-            textViewAmount.setText(String.format("$%.2f", receipt.getAmount()));
-            textViewCategory.setText(receipt.getCategory());
             
-            // Set click listeners
+            // Created once per holder; clicks act on whichever receipt was bound last
             itemView.setOnClickListener(v -> {
-                if (listener != null) {
+                if (listener != null && receipt != null) {
                     listener.onReceiptClick(receipt);
                 }
             });
             
             buttonMatch.setOnClickListener(v -> {
-                if (listener != null) {
+                if (listener != null && receipt != null) {
                     listener.onMatchClick(receipt);
                 }
             });
+        }
+        
+        public void bind(Receipt receipt) {
+            this.receipt = receipt;
+            textViewDate.setText(formatter.formatDate(receipt.getDate()));
+            textViewVendor.setText(receipt.getVendor());
+            textViewAmount.setText(formatter.formatMoney(receipt.getAmount()));
+            textViewCategory.setText(receipt.getCategory());
             
             // Update UI based on match status
             if (receipt.isMatched()) {
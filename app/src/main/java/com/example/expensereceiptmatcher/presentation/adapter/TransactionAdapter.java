@@ -6,16 +6,33 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.expensereceiptmatcher.R;
 import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.utils.DisplayFormatter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.TransactionViewHolder> {
-    private List<Transaction> transactions;
+    // Same row when the ids match; unchanged when the contents match too
+    private static final DiffUtil.ItemCallback<Transaction> DIFF_CALLBACK = new DiffUtil.ItemCallback<Transaction>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Transaction oldItem, @NonNull Transaction newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Transaction oldItem, @NonNull Transaction newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+    
+    private final AsyncListDiffer<Transaction> differ;
+    private final DisplayFormatter formatter = DisplayFormatter.getInstance();
     private OnTransactionClickListener listener;
     
     public interface OnTransactionClickListener {
@@ -24,12 +41,13 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     }
     
     public TransactionAdapter() {
-        this.transactions = new ArrayList<>();
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     }
     
+    // The diff against the current list runs off the main thread; only rows that were
+    // inserted, moved, removed or changed are rebound
     public void setTransactions(List<Transaction> transactions) {
-        this.transactions = transactions;
-        notifyDataSetChanged();
+        differ.submitList(transactions != null ? new ArrayList<>(transactions) : null);
     }
     
     public void setOnTransactionClickListener(OnTransactionClickListener listener) {
@@ -46,13 +64,13 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     
     @Override
     public void onBindViewHolder(@NonNull TransactionViewHolder holder, int position) {
-        Transaction transaction = transactions.get(position);
+        Transaction transaction = differ.getCurrentList().get(position);
         holder.bind(transaction);
     }
     
     @Override
     public int getItemCount() {
-        return transactions.size();
+        return differ.getCurrentList().size();
     }
     
     class TransactionViewHolder extends RecyclerView.ViewHolder {
@@ -61,6 +79,7 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
         private TextView textViewAmount;
         private TextView textViewCategory;
         private View buttonMatch;
+        private Transaction transaction;
         
         public TransactionViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -69,26 +88,27 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
             textViewAmount = itemView.findViewById(R.id.text_view_amount);
             textViewCategory = itemView.findViewById(R.id.text_view_category);
             buttonMatch = itemView.findViewById(R.id.button_match);
-        }
-        
-        public void bind(Transaction transaction) {
-            textViewDate.setText(transaction.getDate());
-            textViewDescription.setText(transaction.getDescription());
-            textViewAmount.setText(String.format("$%.2f", transaction.getAmount()));
-            textViewCategory.setText(transaction.getCategory());
             
-            // Set click listeners
+            // Created once per holder, so bind() allocates no listeners
             itemView.setOnClickListener(v -> {
-                if (listener != null) {
+                if (listener != null && transaction != null) {
                     listener.onTransactionClick(transaction);
                 }
             });
             
             buttonMatch.setOnClickListener(v -> {
-                if (listener != null) {
+                if (listener != null && transaction != null) {
                     listener.onMatchClick(transaction);
                 }
             });
+        }
+        
+        public void bind(Transaction transaction) {
+            this.transaction = transaction;
+            textViewDate.setText(formatter.formatDate(transaction.getDate()));
+            textViewDescription.setText(transaction.getDescription());
+            textViewAmount.setText(formatter.formatMoney(transaction.getAmount()));
+            textViewCategory.setText(transaction.getCategory());
             
             // Update UI based on match status
             if (transaction.isMatched()) {
@@ -43,8 +43,8 @@ public class MatchesFragment extends Fragment {
         // Initialize ViewModel
         matchViewModel = new ViewModelProvider(this).get(MatchViewModel.class);
         
-        // Observe matches data
-        matchViewModel.getMatches().observe(getViewLifecycleOwner(), matches -> {
+        // Observe matches, already joined with their receipt and transaction
+        matchViewModel.getMatchDetails().observe(getViewLifecycleOwner(), matches -> {
             if (matches != null) {
                 matchAdapter.setMatches(matches);
                 textViewEmpty.setVisibility(matches.isEmpty() ? View.VISIBLE : View.GONE);
@@ -59,7 +59,7 @@ public class MatchesFragment extends Fragment {
         });
         
         // Load matches
-        matchViewModel.loadMatches();
+        matchViewModel.loadMatchDetails();
         
         return root;
     }
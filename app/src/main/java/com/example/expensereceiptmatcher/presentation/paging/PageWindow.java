@@ -0,0 +1,208 @@
+package com.example.expensereceiptmatcher.presentation.paging;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.expensereceiptmatcher.data.paging.PageSource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PageWindow<T> {
+    // A bounded, scrollable window over a PageSource. Pages are loaded on demand as the
+    // list scrolls, the next one is fetched while the user is still prefetchDistance
+    // items away from the edge, and once more than maxPages are held the page furthest
+    // from the viewport is dropped. Memory stays flat however long the list is.
+    //
+    // All methods must be called on the main thread. Each change is published as a new
+    // immutable list, ready to hand to a diffing adapter.
+    
+    private static final ExecutorService pageExecutor = Executors.newSingleThreadExecutor();
+    
+    private final PageSource<T> source;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxPages;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    private final List<T> items = new ArrayList<>();
+    // Sizes of the pages currently held, top to bottom
+    private final Deque<Integer> pageSizes = new ArrayDeque<>();
+    private boolean reachedStart = true;
+    private boolean reachedEnd;
+    private boolean loading;
+    private boolean loaded;
+    // Bumped by refresh/invalidate so results of older loads are ignored
+    private int generation;
+    private Listener<T> listener;
+    
+    public interface Listener<T> {
+        void onItemsChanged(List<T> items);
+    }
+    
+    public PageWindow(PageSource<T> source, int pageSize, int prefetchDistance, int maxPages) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = Math.max(maxPages, 2);
+    }
+    
+    public void setListener(Listener<T> listener) {
+        this.listener = listener;
+    }
+    
+    public List<T> getItems() {
+        return Collections.unmodifiableList(new ArrayList<>(items));
+    }
+    
+    // True once the first load has finished, so an empty window really means no items
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    // Start over from the top of the list
+    public void refresh() {
+        int current = ++generation;
+        loading = true;
+        pageExecutor.execute(() -> {
+            List<T> first = source.loadFirst(pageSize);
+            mainHandler.post(() -> {
+                if (current == generation) {
+                    replace(first, true);
+                }
+            });
+        });
+    }
+    
+    // Reload the items in the window after the underlying data changed, keeping the
+    // scroll position
+    public void invalidate() {
+        if (items.isEmpty() || reachedStart) {
+            int count = Math.max(items.size(), pageSize);
+            int current = ++generation;
+            loading = true;
+            pageExecutor.execute(() -> {
+                List<T> reloaded = source.loadFirst(count);
+                mainHandler.post(() -> {
+                    if (current == generation) {
+                        replace(reloaded, true);
+                    }
+                });
+            });
+            return;
+        }
+        
+        T first = items.get(0);
+        int count = items.size();
+        int current = ++generation;
+        loading = true;
+        pageExecutor.execute(() -> {
+            // Reload from the item just before the window, so its first item is included
+            List<T> previous = source.loadBefore(first, 1);
+            List<T> reloaded = previous.isEmpty()
+                    ? source.loadFirst(count)
+                    : source.loadAfter(previous.get(0), count);
+            mainHandler.post(() -> {
+                if (current == generation) {
+                    replace(reloaded, previous.isEmpty());
+                }
+            });
+        });
+    }
+    
+    // Call from the RecyclerView scroll listener with the visible adapter positions
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible) {
+        if (loading || firstVisible < 0) {
+            return;
+        }
+        if (!reachedEnd && lastVisible >= items.size() - 1 - prefetchDistance) {
+            loadAfter();
+        } else if (!reachedStart && firstVisible <= prefetchDistance) {
+            loadBefore();
+        }
+    }
+    
+    // One load at a time: a page dropped at one end while a load for the other end is
+    // in flight could otherwise leave a gap in the window
+    private void loadAfter() {
+        if (items.isEmpty()) {
+            return;
+        }
+        T anchor = items.get(items.size() - 1);
+        int current = generation;
+        loading = true;
+        pageExecutor.execute(() -> {
+            List<T> page = source.loadAfter(anchor, pageSize);
+            mainHandler.post(() -> {
+                if (current != generation) {
+                    return;
+                }
+                loading = false;
+                reachedEnd = page.size() < pageSize;
+                if (page.isEmpty()) {
+                    return;
+                }
+                items.addAll(page);
+                pageSizes.addLast(page.size());
+                if (pageSizes.size() > maxPages) {
+                    int dropped = pageSizes.removeFirst();
+                    items.subList(0, dropped).clear();
+                    reachedStart = false;
+                }
+                publish();
+            });
+        });
+    }
+    
+    private void loadBefore() {
+        T anchor = items.get(0);
+        int current = generation;
+        loading = true;
+        pageExecutor.execute(() -> {
+            List<T> page = source.loadBefore(anchor, pageSize);
+            mainHandler.post(() -> {
+                if (current != generation) {
+                    return;
+                }
+                loading = false;
+                reachedStart = page.size() < pageSize;
+                if (page.isEmpty()) {
+                    return;
+                }
+                items.addAll(0, page);
+                pageSizes.addFirst(page.size());
+                if (pageSizes.size() > maxPages) {
+                    int dropped = pageSizes.removeLast();
+                    items.subList(items.size() - dropped, items.size()).clear();
+                    reachedEnd = false;
+                }
+                publish();
+            });
+        });
+    }
+    
+    private void replace(List<T> newItems, boolean atStart) {
+        loading = false;
+        loaded = true;
+        items.clear();
+        items.addAll(newItems);
+        pageSizes.clear();
+        for (int offset = 0; offset < newItems.size(); offset += pageSize) {
+            pageSizes.addLast(Math.min(pageSize, newItems.size() - offset));
+        }
+        reachedStart = atStart;
+        reachedEnd = newItems.size() % pageSize != 0 || newItems.isEmpty();
+        publish();
+    }
+    
+    private void publish() {
+        if (listener != null) {
+            listener.onItemsChanged(getItems());
+        }
+    }
+}
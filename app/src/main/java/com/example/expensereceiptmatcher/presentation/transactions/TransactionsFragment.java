@@ -16,6 +16,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.expensereceiptmatcher.R;
 import com.example.expensereceiptmatcher.presentation.viewmodel.TransactionViewModel;
 import com.example.expensereceiptmatcher.presentation.adapter.TransactionAdapter;
+import com.example.expensereceiptmatcher.presentation.paging.PageWindow;
 import com.example.expensereceiptmatcher.domain.model.Transaction;
 
 public class TransactionsFragment extends Fragment {
@@ -24,6 +25,7 @@ public class TransactionsFragment extends Fragment {
     private TransactionAdapter transactionAdapter;
     private ProgressBar progressBar;
     private TextView textViewEmpty;
+    private PageWindow<Transaction> transactionPages;
 
     public View onCreateView(@NonNull LayoutInflater inflater,
                              ViewGroup container, Bundle savedInstanceState) {
@@ -31,7 +33,8 @@ public class TransactionsFragment extends Fragment {
 
         // Initialize RecyclerView
         RecyclerView recyclerView = root.findViewById(R.id.recycler_view_transactions);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
         
         // Initialize adapter
         transactionAdapter = new TransactionAdapter();
@@ -57,11 +60,20 @@ public class TransactionsFragment extends Fragment {
         // Initialize ViewModel
         transactionViewModel = new ViewModelProvider(this).get(TransactionViewModel.class);
         
-        // Observe transactions data
-        transactionViewModel.getTransactions().observe(getViewLifecycleOwner(), transactions -> {
-            if (transactions != null) {
-                transactionAdapter.setTransactions(transactions);
-                textViewEmpty.setVisibility(transactions.isEmpty() ? View.VISIBLE : View.GONE);
+        // Show the paged window; each change is diffed by the adapter
+        transactionPages = transactionViewModel.getTransactionPages();
+        transactionAdapter.setTransactions(transactionPages.getItems());
+        transactionPages.setListener(transactions -> {
+            transactionAdapter.setTransactions(transactions);
+            textViewEmpty.setVisibility(transactions.isEmpty() ? View.VISIBLE : View.GONE);
+        });
+        
+        // Load more pages as the list scrolls
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                transactionPages.onVisibleRangeChanged(layoutManager.findFirstVisibleItemPosition(),
+                        layoutManager.findLastVisibleItemPosition());
             }
         });
         
@@ -72,9 +84,20 @@ public class TransactionsFragment extends Fragment {
             }
         });
         
-        // Load transactions
-        transactionViewModel.loadTransactions();
+        // Load transactions, unless the window survived a configuration change
+        if (transactionPages.isLoaded()) {
+            textViewEmpty.setVisibility(transactionPages.getItems().isEmpty() ? View.VISIBLE : View.GONE);
+        } else {
+            transactionViewModel.loadTransactionPages();
+        }
 
         return root;
     }
+    
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // The window outlives this view in the ViewModel
+        transactionPages.setListener(null);
+    }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import android.widget.LinearLayout;
 import androidx.annotation.Nullable;
 
 import com.example.expensereceiptmatcher.R;
+import com.example.expensereceiptmatcher.domain.model.Money;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
 
 public class ReceiptFormView extends LinearLayout {
@@ -75,7 +76,7 @@ public class ReceiptFormView extends LinearLayout {
     public void setReceipt(Receipt receipt) {
         if (receipt != null) {
             editTextDate.setText(receipt.getDate());
-            editTextAmount.setText(String.valueOf(receipt.getAmount()));
+            editTextAmount.setText(receipt.getAmount() != null ? receipt.getAmount().toPlainString() : null);
             editTextVendor.setText(receipt.getVendor());
             editTextCategory.setText(receipt.getCategory());
             editTextNotes.setText(receipt.getNotes());
@@ -85,10 +86,14 @@ public class ReceiptFormView extends LinearLayout {
     public Receipt getReceipt() {
         Receipt receipt = new Receipt();
         receipt.setDate(editTextDate.getText().toString());
-        try {
-            receipt.setAmount(Double.parseDouble(editTextAmount.getText().toString()));
-        } catch (NumberFormatException e) {
-            receipt.setAmount(0.0);
+        // A blank or unreadable amount is left null: no amount, not $0.00
+        String amount = editTextAmount.getText().toString().trim();
+        if (!amount.isEmpty()) {
+            try {
+                receipt.setAmount(Money.parse(amount));
+            } catch (NumberFormatException | ArithmeticException e) {
+                receipt.setAmount(null);
+            }
         }
         receipt.setVendor(editTextVendor.getText().toString());
         receipt.setCategory(editTextCategory.getText().toString());
@@ -11,6 +11,7 @@ import androidx.annotation.Nullable;
 import com.example.expensereceiptmatcher.R;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
 import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.utils.DisplayFormatter;
 
 public class ReceiptTransactionView extends LinearLayout {
     private TextView textViewTitle;
@@ -45,16 +46,16 @@ public class ReceiptTransactionView extends LinearLayout {
 
     public void setReceipt(Receipt receipt) {
         textViewTitle.setText("Receipt");
-        textViewDate.setText(receipt.getDate());
-        textViewAmount.setText(String.format("$%.2f", receipt.getAmount()));
+        textViewDate.setText(DisplayFormatter.getInstance().formatDate(receipt.getDate()));
+        textViewAmount.setText(DisplayFormatter.getInstance().formatMoney(receipt.getAmount()));
         textViewDescription.setText(receipt.getVendor());
         textViewCategory.setText(receipt.getCategory());
     }
 
     public void setTransaction(Transaction transaction) {
         textViewTitle.setText("Transaction");
-        textViewDate.setText(transaction.getDate());
-        textViewAmount.setText(String.format("$%.2f", transaction.getAmount()));
+        textViewDate.setText(DisplayFormatter.getInstance().formatDate(transaction.getDate()));
+        textViewAmount.setText(DisplayFormatter.getInstance().formatMoney(transaction.getAmount()));
         textViewDescription.setText(transaction.getDescription());
         textViewCategory.setText(transaction.getCategory());
     }
@@ -1,22 +1,32 @@
 package com.example.expensereceiptmatcher.presentation.viewmodel;
 
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
+import com.example.expensereceiptmatcher.data.repository.MatchRepository;
 import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.MatchDetail;
 import com.example.expensereceiptmatcher.domain.model.Transaction;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
 
 import java.util.List;
 
-public class MatchViewModel extends ViewModel {
+public class MatchViewModel extends AndroidViewModel {
+    private MatchRepository matchRepository;
     private MutableLiveData<List<Match>> matches;
+    private MutableLiveData<List<MatchDetail>> matchDetails;
     private MutableLiveData<Boolean> isLoading;
     private MutableLiveData<String> errorMessage;
     
-    public MatchViewModel() {
+    public MatchViewModel(@NonNull Application application) {
+        super(application);
+        matchRepository = new MatchRepository(application);
         matches = new MutableLiveData<>();
+        matchDetails = new MutableLiveData<>();
         isLoading = new MutableLiveData<>();
         errorMessage = new MutableLiveData<>();
         
@@ -29,6 +39,10 @@ public class MatchViewModel extends ViewModel {
         return matches;
     }
     
+    public LiveData<List<MatchDetail>> getMatchDetails() {
+        return matchDetails;
+    }
+    
     public LiveData<Boolean> getIsLoading() {
         return isLoading;
     }
@@ -38,10 +52,39 @@ public class MatchViewModel extends ViewModel {
     }
     
     public void loadMatches() {
-        // Load matches from repository
+        // Load matches from repository; cached rows arrive first, then the refreshed list
+        setIsLoading(true);
+        matchRepository.getAllMatches(new MatchRepository.MatchCallback<List<Match>>() {
+            @Override
+            public void onSuccess(List<Match> response) {
+                matches.setValue(response);
+                setIsLoading(false);
+            }
+            
+            @Override
+            public void onError(String error) {
+                setErrorMessage(error);
+                setIsLoading(false);
+            }
+        });
+    }
+    
+    public void loadMatchDetails() {
+        // Load matches joined with their receipt and transaction for the Matches list
         setIsLoading(true);
-        // TODO: Implement actual data loading
-        setIsLoading(false);
+        matchRepository.getMatchDetails(new MatchRepository.MatchCallback<List<MatchDetail>>() {
+            @Override
+            public void onSuccess(List<MatchDetail> response) {
+                matchDetails.setValue(response);
+                setIsLoading(false);
+            }
+            
+            @Override
+            public void onError(String error) {
+                setErrorMessage(error);
+                setIsLoading(false);
+            }
+        });
     }
     
     public void refreshMatches() {
@@ -1,22 +1,39 @@
 package com.example.expensereceiptmatcher.presentation.viewmodel;
 
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
+import com.example.expensereceiptmatcher.data.repository.TransactionRepository;
 import com.example.expensereceiptmatcher.domain.model.Transaction;
 import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.presentation.paging.PageWindow;
 
 import java.util.List;
 
-public class TransactionViewModel extends ViewModel {
+public class TransactionViewModel extends AndroidViewModel {
+    // Ledger paging: roughly a screenful per page, the next page requested while 20 rows
+    // are still left, and at most 300 rows held at once
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 20;
+    private static final int MAX_PAGES = 6;
+    
+    private TransactionRepository transactionRepository;
+    private PageWindow<Transaction> transactionPages;
     private MutableLiveData<List<Transaction>> transactions;
     private MutableLiveData<List<Transaction>> unmatchedTransactions;
     private MutableLiveData<Boolean> isLoading;
     private MutableLiveData<String> errorMessage;
     
-    public TransactionViewModel() {
+    public TransactionViewModel(@NonNull Application application) {
+        super(application);
+        transactionRepository = new TransactionRepository(application);
         transactions = new MutableLiveData<>();
+        transactionPages = new PageWindow<>(transactionRepository.getTransactionPageSource(),
+                PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES);
         unmatchedTransactions = new MutableLiveData<>();
         isLoading = new MutableLiveData<>();
         errorMessage = new MutableLiveData<>();
@@ -30,6 +47,10 @@ public class TransactionViewModel extends ViewModel {
         return transactions;
     }
     
+    public PageWindow<Transaction> getTransactionPages() {
+        return transactionPages;
+    }
+    
     public LiveData<List<Transaction>> getUnmatchedTransactions() {
         return unmatchedTransactions;
     }
@@ -43,17 +64,61 @@ public class TransactionViewModel extends ViewModel {
     }
     
     public void loadTransactions() {
-        // Load transactions from repository
+        // Load transactions from repository; cached rows arrive first, then the refreshed list
+        setIsLoading(true);
+        transactionRepository.getAllTransactions(null, null, null, new TransactionRepository.TransactionCallback<List<Transaction>>() {
+            @Override
+            public void onSuccess(List<Transaction> response) {
+                transactions.setValue(response);
+                setIsLoading(false);
+            }
+            
+            @Override
+            public void onError(String error) {
+                setErrorMessage(error);
+                setIsLoading(false);
+            }
+        });
+    }
+    
+    public void loadTransactionPages() {
+        // Page through the cache right away, then sync and reload the visible window if
+        // anything changed
         setIsLoading(true);
-        // TODO: Implement actual data loading
-        setIsLoading(false);
+        transactionPages.refresh();
+        transactionRepository.syncTransactions(new TransactionRepository.TransactionCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer changed) {
+                if (changed > 0) {
+                    transactionPages.invalidate();
+                }
+                setIsLoading(false);
+            }
+            
+            @Override
+            public void onError(String error) {
+                setErrorMessage(error);
+                setIsLoading(false);
+            }
+        });
     }
     
     public void loadUnmatchedTransactions() {
         // Load unmatched transactions from repository
         setIsLoading(true);
-        // TODO: Implement actual data loading
-        setIsLoading(false);
+        transactionRepository.getUnmatchedTransactions(new TransactionRepository.TransactionCallback<List<Transaction>>() {
+            @Override
+            public void onSuccess(List<Transaction> response) {
+                unmatchedTransactions.setValue(response);
+                setIsLoading(false);
+            }
+            
+            @Override
+            public void onError(String error) {
+                setErrorMessage(error);
+                setIsLoading(false);
+            }
+        });
     }
     
     public void refreshTransactions() {
@@ -0,0 +1,80 @@
+package com.example.expensereceiptmatcher.utils;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BitmapPool {
+    // Mutable bitmaps kept for reuse as BitmapFactory.Options.inBitmap, so decoding a new
+    // receipt image writes into memory a previous one already holds instead of allocating
+    // another buffer of several megabytes. Since API 19 a bitmap can be reused for any
+    // image whose pixels fit in its allocation, so bitmaps are looked up by byte count.
+    // The pool holds at most maxBytes; the least recently returned bitmaps are recycled
+    // first when it is full.
+    
+    private final long maxBytes;
+    // Oldest first
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private long currentBytes;
+    
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    // The smallest pooled bitmap that can hold width x height pixels of config, removed
+    // from the pool, or null if none is large enough
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        int best = -1;
+        for (int i = 0; i < bitmaps.size(); i++) {
+            int size = bitmaps.get(i).getAllocationByteCount();
+            if (size >= needed && (best < 0 || size < bitmaps.get(best).getAllocationByteCount())) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        Bitmap bitmap = bitmaps.remove(best);
+        currentBytes -= bitmap.getAllocationByteCount();
+        return bitmap;
+    }
+    
+    // Hand a bitmap that is no longer displayed or read back to the pool. Immutable
+    // bitmaps cannot be decoded into and are recycled instead.
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || size > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        bitmaps.add(bitmap);
+        currentBytes += size;
+        while (currentBytes > maxBytes) {
+            Bitmap evicted = bitmaps.remove(0);
+            currentBytes -= evicted.getAllocationByteCount();
+            evicted.recycle();
+        }
+    }
+    
+    public synchronized void clear() {
+        for (Bitmap bitmap : bitmaps) {
+            bitmap.recycle();
+        }
+        bitmaps.clear();
+        currentBytes = 0;
+    }
+    
+    static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        return 4;
+    }
+}
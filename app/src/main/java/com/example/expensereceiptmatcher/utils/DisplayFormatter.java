@@ -0,0 +1,173 @@
+package com.example.expensereceiptmatcher.utils;
+
+import com.example.expensereceiptmatcher.domain.model.IsoDates;
+import com.example.expensereceiptmatcher.domain.model.Money;
+
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+public class DisplayFormatter {
+    // Locale-aware text for amounts, confidence scores and dates, for list rows. Every
+    // result is cached by the value it was made from (an amount in minor units, a score
+    // in hundredths, a date string), so rebinding a row whose data has not changed costs a
+    // lookup and no allocation. A miss formats into reused buffers and allocates only the
+    // resulting String. Caches are dropped when the default locale changes.
+    //
+    // Not thread-safe: call from the main thread only, as adapters and views do.
+    
+    private static final String CONFIDENCE_PREFIX = "Confidence: ";
+    // Direct-mapped: a colliding amount simply replaces the previous one
+    private static final int MONEY_CACHE_SIZE = 1024;
+    private static final int MAX_CACHED_DATES = 1024;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    
+    private static DisplayFormatter instance;
+    
+    private Locale locale;
+    private NumberFormat moneyFormat;
+    // Currency moneyFormat is currently set up for
+    private String moneyCurrency;
+    private NumberFormat scoreFormat;
+    private DateFormat dateFormat;
+    // Midnight UTC of the day being formatted; dateFormat works in UTC to match
+    private final Date day = new Date(0);
+    private final StringBuffer buffer = new StringBuffer(32);
+    private final FieldPosition fieldPosition = new FieldPosition(0);
+    
+    private final long[] moneyKeys = new long[MONEY_CACHE_SIZE];
+    private final String[] moneyKeyCurrencies = new String[MONEY_CACHE_SIZE];
+    private final String[] moneyValues = new String[MONEY_CACHE_SIZE];
+    // Scores between 0 and 1, indexed by hundredths
+    private final String[] confidenceValues = new String[101];
+    private final Map<String, String> dateValues = new HashMap<>();
+    
+    private DisplayFormatter() {
+        resetForLocale(Locale.getDefault());
+    }
+    
+    public static synchronized DisplayFormatter getInstance() {
+        if (instance == null) {
+            instance = new DisplayFormatter();
+        }
+        return instance;
+    }
+    
+    // e.g. "$1,234.50" for 123450 USD minor units in en-US
+    public String formatMoney(Money amount) {
+        if (amount == null) {
+            return null;
+        }
+        checkLocale();
+        long minorUnits = amount.getMinorUnits();
+        String currencyCode = amount.getCurrencyCode();
+        int slot = slotOf(minorUnits);
+        String cached = moneyValues[slot];
+        if (cached != null && moneyKeys[slot] == minorUnits && moneyKeyCurrencies[slot].equals(currencyCode)) {
+            return cached;
+        }
+        if (!currencyCode.equals(moneyCurrency)) {
+            useCurrency(currencyCode);
+        }
+        buffer.setLength(0);
+        moneyFormat.format(amount.toBigDecimal(), buffer, fieldPosition);
+        String formatted = buffer.toString();
+        moneyKeys[slot] = minorUnits;
+        moneyKeyCurrencies[slot] = currencyCode;
+        moneyValues[slot] = formatted;
+        return formatted;
+    }
+    
+    // e.g. "Confidence: 0.87"
+    public String formatConfidence(double score) {
+        checkLocale();
+        long hundredths = Math.round(score * 100);
+        if (hundredths < 0 || hundredths >= confidenceValues.length) {
+            return CONFIDENCE_PREFIX + format(scoreFormat, score);
+        }
+        int index = (int) hundredths;
+        if (confidenceValues[index] == null) {
+            buffer.setLength(0);
+            buffer.append(CONFIDENCE_PREFIX);
+            scoreFormat.format(hundredths / 100.0, buffer, fieldPosition);
+            confidenceValues[index] = buffer.toString();
+        }
+        return confidenceValues[index];
+    }
+    
+    // Dates arrive as "yyyy-MM-dd", optionally followed by a time, and are shown in the
+    // locale's medium style, e.g. "Mar 15, 2024". Anything IsoDates cannot read as a real
+    // day, including "2024-02-31", is shown as it is.
+    public String formatDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        checkLocale();
+        String cached = dateValues.get(date);
+        if (cached != null) {
+            return cached;
+        }
+        String formatted = date;
+        int epochDay = IsoDates.parseEpochDay(date);
+        if (epochDay != IsoDates.NO_DATE) {
+            day.setTime(epochDay * MILLIS_PER_DAY);
+            buffer.setLength(0);
+            dateFormat.format(day, buffer, fieldPosition);
+            formatted = buffer.toString();
+        }
+        if (dateValues.size() >= MAX_CACHED_DATES) {
+            dateValues.clear();
+        }
+        dateValues.put(date, formatted);
+        return formatted;
+    }
+    
+    private String format(NumberFormat numberFormat, double value) {
+        buffer.setLength(0);
+        numberFormat.format(value, buffer, fieldPosition);
+        return buffer.toString();
+    }
+    
+    private void checkLocale() {
+        Locale current = Locale.getDefault();
+        if (current != locale) {
+            resetForLocale(current);
+        }
+    }
+    
+    private void resetForLocale(Locale newLocale) {
+        locale = newLocale;
+        moneyFormat = NumberFormat.getCurrencyInstance(newLocale);
+        useCurrency(Money.DEFAULT_CURRENCY);
+        scoreFormat = NumberFormat.getNumberInstance(newLocale);
+        scoreFormat.setMinimumFractionDigits(2);
+        scoreFormat.setMaximumFractionDigits(2);
+        scoreFormat.setGroupingUsed(false);
+        dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM, newLocale);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        Arrays.fill(moneyValues, null);
+        Arrays.fill(confidenceValues, null);
+        dateValues.clear();
+    }
+    
+    private void useCurrency(String currencyCode) {
+        Currency currency = Currency.getInstance(currencyCode);
+        int digits = Math.max(currency.getDefaultFractionDigits(), 0);
+        moneyFormat.setCurrency(currency);
+        moneyFormat.setMinimumFractionDigits(digits);
+        moneyFormat.setMaximumFractionDigits(digits);
+        moneyCurrency = currencyCode;
+    }
+    
+    private int slotOf(long minorUnits) {
+        long hash = minorUnits * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (MONEY_CACHE_SIZE - 1);
+    }
+}
@@ -11,6 +11,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class FileUploadUtils {
     private static final String TAG = "FileUploadUtils";
@@ -54,6 +56,29 @@ public class FileUploadUtils {
         }
     }
     
+    /**
+     * Write a buffer, such as a camera JPEG plane, to a file in the cache directory
+     * without copying it to a byte array first. The buffer's position is left unchanged.
+     * @param context Application context
+     * @param data Bytes between the buffer's position and limit are written
+     * @param fileName Name of the file to create or replace
+     * @return The written file
+     */
+    public static File writeToCacheFile(Context context, ByteBuffer data, String fileName) throws IOException {
+        File file = new File(context.getCacheDir(), fileName);
+        ByteBuffer source = data.duplicate();
+        try (FileOutputStream outputStream = new FileOutputStream(file);
+             FileChannel channel = outputStream.getChannel()) {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+    
     /**
      * Copy file with progress tracking
      */
@@ -166,7 +191,7 @@ public class FileUploadUtils {
         
         String extension = getFileExtension(fileName).toLowerCase();
         return extension.equals("jpg") || extension.equals("jpeg") || 
-               extension.equals("png") || extension.equals("pdf");
+               extension.equals("png") || extension.equals("webp") || extension.equals("pdf");
     }
     
     /**
@@ -195,6 +220,8 @@ public class FileUploadUtils {
                 return "image/jpeg";
             case "png":
                 return "image/png";
+            case "webp":
+                return "image/webp";
             case "pdf":
                 return "application/pdf";
             default:
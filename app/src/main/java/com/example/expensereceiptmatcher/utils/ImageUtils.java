@@ -21,23 +21,19 @@ public class ImageUtils {
         return BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length);
     }
     
+    // Scales the bitmap down to fit inside maxWidth x maxHeight, keeping its aspect ratio.
+    // A bitmap that already fits is returned as it is. To load an image file or camera
+    // JPEG at a smaller size, use ReceiptImageDecoder instead of decoding it in full first.
     public static Bitmap resizeBitmap(Bitmap bitmap, int maxWidth, int maxHeight) {
         if (bitmap == null) return null;
         
         int width = bitmap.getWidth();
         int height = bitmap.getHeight();
+        int[] size = ReceiptImageDecoder.fitInside(width, height, maxWidth, maxHeight);
+        if (size[0] == width && size[1] == height) {
+            return bitmap;
+        }
         
-        float scaleWidth = ((float) maxWidth) / width;
-        float scaleHeight = ((float) maxHeight) / height;
-        
-        // Create a matrix for the manipulation
-        android.graphics.Matrix matrix = new android.graphics.Matrix();
-        // Resize the bitmap
-        matrix.postScale(scaleWidth, scaleHeight);
-        
-        // Recreate the new bitmap
-        Bitmap resizedBitmap = Bitmap.createBitmap(bitmap, 0, 0, width, height, matrix, false);
-        
-        return resizedBitmap;
+        return Bitmap.createScaledBitmap(bitmap, size[0], size[1], true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.example.expensereceiptmatcher.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import com.example.expensereceiptmatcher.domain.image.DocumentCropper;
+import com.example.expensereceiptmatcher.domain.image.GrayImage;
+import com.example.expensereceiptmatcher.domain.image.ImageSimilarity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class ReceiptCompressor {
+    // Prepares a receipt photo for upload within a byte budget. The photo is converted to
+    // grayscale (colour carries nothing for OCR) and cropped to the paper. Then, from the
+    // largest resolution down, each format's highest quality that fits the budget is
+    // encoded, decoded again and scored with SSIM against the uncompressed image at the
+    // largest resolution. Smaller encodings are scaled back up for scoring, so the detail
+    // they lost counts against them. The first resolution where a format scores at least
+    // MIN_SIMILARITY wins, with the better-scoring format. If none does, the best-scoring
+    // encoding is used.
+    //
+    // Qualities are searched by bisection, so a resolution costs a handful of encodes.
+    // Run off the main thread.
+    
+    public static final int CELLULAR_BUDGET_BYTES = 300 * 1024;
+    public static final int UNMETERED_BUDGET_BYTES = 1024 * 1024;
+    
+    // Long edges tried, largest first; below 1024 px small print stops being readable
+    private static final int[] LONG_EDGES = {2048, 1600, 1280, 1024};
+    private static final int[] QUALITIES = {40, 50, 60, 70, 80, 90};
+    private static final double MIN_SIMILARITY = 0.92;
+    @SuppressWarnings("deprecation")
+    private static final Bitmap.CompressFormat[] FORMATS = {Bitmap.CompressFormat.JPEG, Bitmap.CompressFormat.WEBP};
+    
+    public static class Result {
+        private final File file;
+        private final String mimeType;
+        private final int width;
+        private final int height;
+        private final int quality;
+        private final double similarity;
+        
+        Result(File file, String mimeType, int width, int height, int quality, double similarity) {
+            this.file = file;
+            this.mimeType = mimeType;
+            this.width = width;
+            this.height = height;
+            this.quality = quality;
+            this.similarity = similarity;
+        }
+        
+        public File getFile() {
+            return file;
+        }
+        
+        public String getMimeType() {
+            return mimeType;
+        }
+        
+        public int getWidth() {
+            return width;
+        }
+        
+        public int getHeight() {
+            return height;
+        }
+        
+        public int getQuality() {
+            return quality;
+        }
+        
+        // SSIM against the uncompressed grayscale image at the largest size tried
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+    
+    private static class Encoding {
+        byte[] bytes;
+        Bitmap.CompressFormat format;
+        int width;
+        int height;
+        int quality;
+        double similarity = -1;
+    }
+    
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CELLULAR_BUDGET_BYTES);
+    
+    // Budget for the current connection: tighter on mobile data
+    public static int budgetFor(Context context) {
+        return NetworkUtils.isWifiConnected(context) ? UNMETERED_BUDGET_BYTES : CELLULAR_BUDGET_BYTES;
+    }
+    
+    // Writes the compressed receipt to directory, named after baseName with the chosen
+    // format's extension
+    public Result compress(Bitmap photo, int budgetBytes, File directory, String baseName) throws IOException {
+        GrayImage gray = toGray(photo);
+        int[] bounds = DocumentCropper.findBounds(gray);
+        GrayImage document = gray.crop(bounds[0], bounds[1], bounds[2], bounds[3]);
+        
+        // Every encoding is scored at this size, whatever size it was encoded at
+        int[] scoringSize = ReceiptImageDecoder.fitInside(document.getWidth(), document.getHeight(),
+                LONG_EDGES[0], LONG_EDGES[0]);
+        GrayImage scoringReference = document.scaleTo(scoringSize[0], scoringSize[1]);
+        
+        Encoding best = null;
+        int lastLongEdge = -1;
+        for (int longEdge : LONG_EDGES) {
+            int[] size = ReceiptImageDecoder.fitInside(document.getWidth(), document.getHeight(), longEdge, longEdge);
+            if (Math.max(size[0], size[1]) == lastLongEdge) {
+                // The document is smaller than this edge too; already tried at its own size
+                continue;
+            }
+            lastLongEdge = Math.max(size[0], size[1]);
+            GrayImage reference = document.scaleTo(size[0], size[1]);
+            Bitmap bitmap = toBitmap(reference);
+            Encoding chosen = null;
+            try {
+                for (Bitmap.CompressFormat format : FORMATS) {
+                    Encoding encoding = largestWithin(bitmap, format, budgetBytes);
+                    if (encoding == null) {
+                        continue;
+                    }
+                    encoding.similarity = score(scoringReference, encoding);
+                    if (chosen == null || encoding.similarity > chosen.similarity) {
+                        chosen = encoding;
+                    }
+                }
+            } finally {
+                bitmap.recycle();
+            }
+            if (chosen == null) {
+                continue;
+            }
+            if (chosen.similarity >= MIN_SIMILARITY) {
+                best = chosen;
+                break;
+            }
+            if (best == null || chosen.similarity > best.similarity) {
+                best = chosen;
+            }
+        }
+        if (best == null) {
+            // Not even the smallest size at the lowest quality fits; send that anyway
+            int[] size = ReceiptImageDecoder.fitInside(document.getWidth(), document.getHeight(),
+                    LONG_EDGES[LONG_EDGES.length - 1], LONG_EDGES[LONG_EDGES.length - 1]);
+            GrayImage reference = document.scaleTo(size[0], size[1]);
+            Bitmap bitmap = toBitmap(reference);
+            try {
+                best = encode(bitmap, FORMATS[0], QUALITIES[0]);
+            } finally {
+                bitmap.recycle();
+            }
+            best.similarity = score(scoringReference, best);
+        }
+        
+        boolean jpeg = best.format == Bitmap.CompressFormat.JPEG;
+        File file = new File(directory, baseName + (jpeg ? ".jpg" : ".webp"));
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(best.bytes);
+        }
+        return new Result(file, jpeg ? "image/jpeg" : "image/webp", best.width, best.height, best.quality,
+                best.similarity);
+    }
+    
+    // Highest quality in QUALITIES whose encoding fits the budget, or null if even the
+    // lowest does not
+    private Encoding largestWithin(Bitmap bitmap, Bitmap.CompressFormat format, int budgetBytes) {
+        Encoding fitting = null;
+        int low = 0;
+        int high = QUALITIES.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Encoding encoding = encode(bitmap, format, QUALITIES[middle]);
+            if (encoding.bytes.length <= budgetBytes) {
+                fitting = encoding;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return fitting;
+    }
+    
+    private Encoding encode(Bitmap bitmap, Bitmap.CompressFormat format, int quality) {
+        buffer.reset();
+        bitmap.compress(format, quality, buffer);
+        Encoding encoding = new Encoding();
+        encoding.bytes = buffer.toByteArray();
+        encoding.format = format;
+        encoding.width = bitmap.getWidth();
+        encoding.height = bitmap.getHeight();
+        encoding.quality = quality;
+        return encoding;
+    }
+    
+    private static double score(GrayImage scoringReference, Encoding encoding) throws IOException {
+        GrayImage decoded = decodeGray(encoding.bytes)
+                .scaleTo(scoringReference.getWidth(), scoringReference.getHeight());
+        return ImageSimilarity.ssim(scoringReference, decoded);
+    }
+    
+    private static GrayImage decodeGray(byte[] bytes) throws IOException {
+        Bitmap decoded = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        if (decoded == null) {
+            throw new IOException("Could not decode compressed receipt");
+        }
+        try {
+            return toGray(decoded);
+        } finally {
+            decoded.recycle();
+        }
+    }
+    
+    // Row by row, so only one row of ARGB pixels is held alongside the gray image
+    private static GrayImage toGray(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] row = new int[width];
+        byte[] pixels = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = (byte) GrayImage.luminance(row[x]);
+            }
+        }
+        return new GrayImage(width, height, pixels);
+    }
+    
+    private static Bitmap toBitmap(GrayImage image) {
+        int width = image.getWidth();
+        Bitmap bitmap = Bitmap.createBitmap(width, image.getHeight(), Bitmap.Config.ARGB_8888);
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getArgbRow(y, row);
+            bitmap.setPixels(row, 0, width, 0, y, width, 1);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.expensereceiptmatcher.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+
+public class ReceiptImageDecoder {
+    // Decodes receipt photos straight to the size they are needed at, without ever holding
+    // the full-resolution image in memory. A bounds-only pass reads the dimensions from
+    // the header; the image is then decoded with a power-of-two inSampleSize, which the
+    // JPEG decoder applies while decoding, and the remaining step down to the target is
+    // done by density scaling within the same decode. The result fits inside the target
+    // with its aspect ratio kept, and is never scaled up. Pixels are decoded into a pooled
+    // bitmap when one is large enough.
+    //
+    // A 12 MP capture decoded for a 2048 px target costs about 12 MB for one decode instead
+    // of 48 MB for the full frame plus a resized copy.
+    //
+    // Not thread-safe: each thread decoding images needs its own instance (the pool may be
+    // shared).
+    
+    private static final String TAG = "ReceiptImageDecoder";
+    
+    // Upper bound on pixels the decoder produces before density scaling, 16 MB at ARGB_8888
+    public static final long MAX_DECODE_PIXELS = 4_000_000L;
+    
+    private static final Bitmap.Config CONFIG = Bitmap.Config.ARGB_8888;
+    
+    private final BitmapPool pool;
+    private final BitmapFactory.Options options = new BitmapFactory.Options();
+    // Reused copy of the JPEG bytes for buffers without an accessible array
+    private byte[] scratch = new byte[0];
+    
+    private interface Source {
+        Bitmap decode(BitmapFactory.Options options);
+    }
+    
+    public ReceiptImageDecoder(BitmapPool pool) {
+        this.pool = pool;
+    }
+    
+    // e.g. the JPEG plane of a camera Image; the buffer's position is left unchanged
+    public Bitmap decode(ByteBuffer jpeg, int maxWidth, int maxHeight) {
+        if (jpeg.hasArray()) {
+            return decode(jpeg.array(), jpeg.arrayOffset() + jpeg.position(), jpeg.remaining(), maxWidth, maxHeight);
+        }
+        int length = jpeg.remaining();
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        jpeg.duplicate().get(scratch, 0, length);
+        return decode(scratch, 0, length, maxWidth, maxHeight);
+    }
+    
+    public Bitmap decode(byte[] data, int offset, int length, int maxWidth, int maxHeight) {
+        return decode(opts -> BitmapFactory.decodeByteArray(data, offset, length, opts), maxWidth, maxHeight);
+    }
+    
+    public Bitmap decodeFile(String path, int maxWidth, int maxHeight) {
+        return decode(opts -> BitmapFactory.decodeFile(path, opts), maxWidth, maxHeight);
+    }
+    
+    // Return a decoded bitmap once it is no longer shown, so the next decode can reuse it
+    public void release(Bitmap bitmap) {
+        pool.put(bitmap);
+    }
+    
+    private Bitmap decode(Source source, int maxWidth, int maxHeight) {
+        resetOptions();
+        options.inJustDecodeBounds = true;
+        source.decode(options);
+        int width = options.outWidth;
+        int height = options.outHeight;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        
+        int[] target = fitInside(width, height, maxWidth, maxHeight);
+        int sampleSize = calculateInSampleSize(width, height, target[0], target[1], MAX_DECODE_PIXELS);
+        int sampledWidth = ceilDiv(width, sampleSize);
+        int sampledHeight = ceilDiv(height, sampleSize);
+        
+        resetOptions();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = CONFIG;
+        options.inMutable = true;
+        int outWidth = sampledWidth;
+        int outHeight = sampledHeight;
+        if (sampledWidth > target[0]) {
+            // Scale by target/sampled during the decode
+            options.inScaled = true;
+            options.inDensity = sampledWidth;
+            options.inTargetDensity = target[0];
+            outWidth = target[0];
+            outHeight = (int) Math.ceil((double) sampledHeight * target[0] / sampledWidth);
+        }
+        options.inBitmap = pool.get(outWidth, outHeight, CONFIG);
+        
+        Bitmap bitmap;
+        try {
+            bitmap = source.decode(options);
+        } catch (IllegalArgumentException e) {
+            // The decoder refused the pooled bitmap; decode into a new one
+            Log.w(TAG, "Could not reuse pooled bitmap", e);
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = source.decode(options);
+        }
+        if (bitmap == null && options.inBitmap != null) {
+            pool.put(options.inBitmap);
+        }
+        options.inBitmap = null;
+        return bitmap;
+    }
+    
+    // Largest power of two that keeps the decoded image at least as large as the target,
+    // raised when needed so the decoded image stays within maxPixels
+    public static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight, long maxPixels) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        while ((long) ceilDiv(width, sampleSize) * ceilDiv(height, sampleSize) > maxPixels) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+    
+    // The largest width x height with the image's aspect ratio that fits inside
+    // maxWidth x maxHeight, or the image's own size if it already fits
+    public static int[] fitInside(int width, int height, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min((double) maxWidth / width, (double) maxHeight / height));
+        return new int[]{
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+    
+    private void resetOptions() {
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = 1;
+        options.inScaled = false;
+        options.inDensity = 0;
+        options.inTargetDensity = 0;
+        options.inBitmap = null;
+        options.inMutable = false;
+        options.inPreferredConfig = CONFIG;
+        options.outWidth = 0;
+        options.outHeight = 0;
+    }
+    
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
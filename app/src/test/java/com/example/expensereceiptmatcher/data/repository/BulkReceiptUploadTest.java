@@ -0,0 +1,202 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.api.UploadCompleteResponse;
+import com.example.expensereceiptmatcher.utils.FileUploadUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BulkReceiptUploadTest {
+    // Runs bulk uploads against a stand-in for POST /receipts/upload/bulk that answers
+    // like backend/routes/receipts.js: one entry per file part, in order, with a per-file
+    // error for files it refuses. Files named "bad*" are refused.
+    
+    private static final Pattern FILE_PART = Pattern.compile("name=\"receipts\"; filename=\"([^\"]+)\"");
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private MockWebServer server;
+    private ApiService apiService;
+    // Stands in for the main thread
+    private ExecutorService mainThread;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<Integer> partsPerRequest = Collections.synchronizedList(new ArrayList<>());
+    
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (!"/api/receipts/upload/bulk".equals(request.getPath())) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    // Long enough for the next requests of the window to arrive
+                    Thread.sleep(100);
+                    return respond(request.getBody().readUtf8());
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+        mainThread = Executors.newSingleThreadExecutor();
+        apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/api/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .callbackExecutor(mainThread)
+                .build()
+                .create(ApiService.class);
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        mainThread.shutdownNow();
+        server.shutdown();
+    }
+    
+    @Test
+    public void keepsTheWindowFullAndReturnsOneResultPerFile() throws Exception {
+        List<File> files = createFiles("receipt", 45);
+        Outcome outcome = upload(files, 2);
+        
+        assertNull(outcome.error);
+        assertEquals(45, outcome.results.size());
+        for (int i = 0; i < files.size(); i++) {
+            assertEquals(files.get(i).getName(), outcome.results.get(i).getFilename());
+        }
+        assertEquals(45, outcome.completed.get());
+        
+        // 45 small files make requests of 20, 20 and 5, at most two at a time
+        assertEquals(3, server.getRequestCount());
+        assertEquals(45, partsPerRequest.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(partsPerRequest.stream().allMatch(parts -> parts <= BulkReceiptUpload.MAX_FILES));
+        assertEquals(2, maxInFlight.get());
+    }
+    
+    @Test
+    public void aRefusedFileFailsOnlyItself() throws Exception {
+        List<File> files = createFiles("receipt", 3);
+        files.add(1, createFile("bad.txt", 10));
+        Outcome outcome = upload(files, 3);
+        
+        assertEquals("Failed to upload 1 of 4 receipts", outcome.error);
+        assertEquals(3, outcome.completed.get());
+        assertEquals(Collections.singletonList("bad.txt: Only image files and PDF files are allowed"),
+                outcome.fileErrors);
+        assertEquals(1, server.getRequestCount());
+    }
+    
+    private Outcome upload(List<File> files, int window) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        CountDownLatch done = new CountDownLatch(1);
+        BulkReceiptUpload upload = new BulkReceiptUpload(apiService, "1", files, file -> new FileUploadUtils.UploadProgressListener() {
+            @Override
+            public void onProgress(long bytesWritten, long totalBytes) {
+            }
+            
+            @Override
+            public void onComplete(File completed) {
+                outcome.completed.incrementAndGet();
+            }
+            
+            @Override
+            public void onError(String error) {
+                outcome.fileErrors.add(file.getName() + ": " + error);
+            }
+        }, new ReceiptRepository.ReceiptCallback<List<UploadCompleteResponse>>() {
+            @Override
+            public void onSuccess(List<UploadCompleteResponse> response) {
+                outcome.results = response;
+                done.countDown();
+            }
+            
+            @Override
+            public void onError(String error) {
+                outcome.error = error;
+                done.countDown();
+            }
+        }, mainThread);
+        mainThread.execute(() -> upload.start(window));
+        assertTrue("upload did not finish", done.await(10, TimeUnit.SECONDS));
+        return outcome;
+    }
+    
+    private MockResponse respond(String body) {
+        StringBuilder data = new StringBuilder();
+        Matcher part = FILE_PART.matcher(body);
+        int parts = 0;
+        while (part.find()) {
+            String filename = part.group(1);
+            data.append(parts++ == 0 ? "" : ",");
+            if (filename.startsWith("bad")) {
+                data.append("{\"receiptId\":null,\"filename\":\"").append(filename)
+                        .append("\",\"processingStatus\":\"failed\",")
+                        .append("\"error\":\"Only image files and PDF files are allowed\"}");
+            } else {
+                data.append("{\"receiptId\":").append(parts).append(",\"filename\":\"").append(filename)
+                        .append("\",\"processingStatus\":\"processing\",\"error\":null}");
+            }
+        }
+        partsPerRequest.add(parts);
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"message\":\"Receipts uploaded\",\"data\":[" + data + "]}");
+    }
+    
+    private List<File> createFiles(String prefix, int count) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(createFile(String.format("%s-%02d.jpg", prefix, i), 1024));
+        }
+        return files;
+    }
+    
+    private File createFile(String name, int size) throws IOException {
+        File file = folder.newFile(name);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[size]);
+        }
+        return file;
+    }
+    
+    private static class Outcome {
+        final AtomicInteger completed = new AtomicInteger();
+        final List<String> fileErrors = Collections.synchronizedList(new ArrayList<>());
+        volatile List<UploadCompleteResponse> results;
+        volatile String error;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import com.example.expensereceiptmatcher.data.database.MatchDao;
+import com.example.expensereceiptmatcher.data.database.MatchDetailRow;
+import com.example.expensereceiptmatcher.data.database.MatchEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class FakeMatchDao implements MatchDao {
+    final Map<Integer, MatchEntity> matches = new HashMap<>();
+    
+    @Override
+    public List<MatchEntity> getAllMatches(String companyId) {
+        return new ArrayList<>(matches.values());
+    }
+    
+    @Override
+    public List<MatchDetailRow> getMatchDetails(String companyId) {
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public MatchEntity getMatchById(int id) {
+        return matches.get(id);
+    }
+    
+    @Override
+    public void insertMatch(MatchEntity match) {
+        matches.put(match.getId(), match);
+    }
+    
+    @Override
+    public void insertMatches(List<MatchEntity> entities) {
+        for (MatchEntity match : entities) {
+            insertMatch(match);
+        }
+    }
+    
+    @Override
+    public void deleteMatchById(int id) {
+        matches.remove(id);
+    }
+    
+    @Override
+    public void deleteAllMatches(String companyId) {
+        matches.clear();
+    }
+}
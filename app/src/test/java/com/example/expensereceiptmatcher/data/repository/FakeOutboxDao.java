@@ -0,0 +1,107 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import com.example.expensereceiptmatcher.data.database.OutboxDao;
+import com.example.expensereceiptmatcher.data.database.OutboxEntity;
+import com.example.expensereceiptmatcher.data.database.ResolvedMatchEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Rows are copied in and out, as Room does, so the repository cannot change them in place
+class FakeOutboxDao implements OutboxDao {
+    final TreeMap<Long, OutboxEntity> operations = new TreeMap<>();
+    final Map<Integer, Integer> resolvedMatches = new HashMap<>();
+    // Makes inserts throw, as Room does when a write fails
+    boolean failInserts;
+    private long nextId = 1;
+    
+    @Override
+    public OutboxEntity getFirstOperation() {
+        return operations.isEmpty() ? null : copy(operations.firstEntry().getValue());
+    }
+    
+    @Override
+    public OutboxEntity getOperationById(long id) {
+        return copy(operations.get(id));
+    }
+    
+    @Override
+    public List<OutboxEntity> findOperations(String companyId, int targetId, List<String> types) {
+        List<OutboxEntity> found = new ArrayList<>();
+        for (OutboxEntity operation : operations.values()) {
+            if (operation.getCompanyId().equals(companyId) && operation.getTargetId() == targetId
+                    && types.contains(operation.getOperation())) {
+                found.add(copy(operation));
+            }
+        }
+        return found;
+    }
+    
+    @Override
+    public List<OutboxEntity> getOperationsForCompany(String companyId) {
+        List<OutboxEntity> found = new ArrayList<>();
+        for (OutboxEntity operation : operations.values()) {
+            if (operation.getCompanyId().equals(companyId)) {
+                found.add(copy(operation));
+            }
+        }
+        return found;
+    }
+    
+    @Override
+    public long insertOperation(OutboxEntity operation) {
+        if (failInserts) {
+            throw new IllegalStateException("disk full");
+        }
+        long id = nextId++;
+        OutboxEntity stored = copy(operation);
+        stored.setId(id);
+        operations.put(id, stored);
+        return id;
+    }
+    
+    @Override
+    public void updateOperation(OutboxEntity operation) {
+        if (operations.containsKey(operation.getId())) {
+            operations.put(operation.getId(), copy(operation));
+        }
+    }
+    
+    @Override
+    public void incrementAttempts(long id) {
+        OutboxEntity operation = operations.get(id);
+        if (operation != null) {
+            operation.setAttempts(operation.getAttempts() + 1);
+        }
+    }
+    
+    @Override
+    public void deleteOperationById(long id) {
+        operations.remove(id);
+    }
+    
+    @Override
+    public void insertResolvedMatch(ResolvedMatchEntity resolvedMatch) {
+        resolvedMatches.put(resolvedMatch.getLocalId(), resolvedMatch.getServerId());
+    }
+    
+    @Override
+    public Integer getResolvedMatchId(int localId) {
+        return resolvedMatches.get(localId);
+    }
+    
+    private static OutboxEntity copy(OutboxEntity operation) {
+        if (operation == null) {
+            return null;
+        }
+        OutboxEntity copy = new OutboxEntity(operation.getCompanyId(), operation.getOperation(),
+                operation.getTargetId(), operation.getPayload());
+        copy.setId(operation.getId());
+        copy.setCreatedAt(operation.getCreatedAt());
+        copy.setAttempts(operation.getAttempts());
+        return copy;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.api.CreateMatchRequest;
+import com.example.expensereceiptmatcher.data.database.ReceiptDao;
+import com.example.expensereceiptmatcher.data.database.TransactionDao;
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OutboxRepositoryTest {
+    // Replays the outbox against a stand-in for the backend that answers the way
+    // backend/routes/matches.js and receipts.js do. The DAOs are in-memory fakes and
+    // every executor runs inline, except replay, which the tests start by hand.
+    
+    private static final String COMPANY = "1";
+    
+    private MockWebServer server;
+    private FakeOutboxDao outboxDao;
+    private FakeMatchDao matchDao;
+    private OutboxRepository outbox;
+    
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        ApiService apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/api/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(ApiService.class);
+        outboxDao = new FakeOutboxDao();
+        matchDao = new FakeMatchDao();
+        outbox = new OutboxRepository(apiService, outboxDao, matchDao, UnusedDao.of(ReceiptDao.class),
+                UnusedDao.of(TransactionDao.class), Runnable::run, Runnable::run, task -> { }, Runnable::run);
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+    
+    @Test
+    public void createdMatchTakesTheServerIdAndLaterDecisionsFollowIt() throws Exception {
+        int localId = createMatch(new CreateMatchRequest(11, 22, 80, false));
+        assertTrue(localId < 0);
+        
+        server.enqueue(json("{\"message\":\"Match created successfully\",\"matchId\":42,\"confirmed\":false,"
+                + "\"data\":{\"id\":42,\"receiptId\":22,\"transactionId\":11,\"confidenceScore\":0.8,"
+                + "\"matchDate\":\"2024-03-01T10:00:00.000Z\",\"isManual\":true}}"));
+        outbox.replayPending();
+        
+        RecordedRequest create = server.takeRequest();
+        assertEquals("POST", create.getMethod());
+        assertEquals("/api/matches", create.getPath());
+        assertTrue(outboxDao.operations.isEmpty());
+        assertNull(matchDao.getMatchById(localId));
+        assertNotNull(matchDao.getMatchById(42));
+        
+        // A decision against the id the UI still holds reaches the server's match, also
+        // after a restart, since the mapping is stored with the outbox
+        assertEquals(Integer.valueOf(42), outboxDao.getResolvedMatchId(localId));
+        String[] error = new String[1];
+        outbox.confirmMatch(COMPANY, localId, new OutboxRepository.OutboxCallback<Void>() {
+            @Override
+            public void onSuccess(Void response) {
+            }
+            
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+            }
+        });
+        assertNull(error[0]);
+        
+        server.enqueue(json("{\"message\":\"Match confirmed successfully\"}"));
+        outbox.replayPending();
+        
+        RecordedRequest confirm = server.takeRequest();
+        assertEquals("PUT", confirm.getMethod());
+        assertEquals("/api/matches/42/confirm", confirm.getPath());
+        assertTrue(outboxDao.operations.isEmpty());
+    }
+    
+    @Test
+    public void replayStopsAtTheFirstRetryableFailureAndKeepsOrder() throws Exception {
+        Receipt receipt = new Receipt();
+        receipt.setId(7);
+        outbox.updateReceipt(COMPANY, receipt, new OutboxRepository.OutboxCallback<Receipt>() {
+            @Override
+            public void onSuccess(Receipt response) {
+            }
+            
+            @Override
+            public void onError(String error) {
+            }
+        });
+        createMatch(new CreateMatchRequest(11, 22, 80, false));
+        
+        server.enqueue(new MockResponse().setResponseCode(503));
+        outbox.replayPending();
+        
+        assertEquals(1, server.getRequestCount());
+        assertEquals(2, outboxDao.operations.size());
+        assertEquals(1, outboxDao.operations.firstEntry().getValue().getAttempts());
+        
+        server.enqueue(json("{\"data\":{\"id\":7}}"));
+        server.enqueue(json("{\"matchId\":43,\"data\":{\"id\":43,\"receiptId\":22,\"transactionId\":11}}"));
+        outbox.replayPending();
+        
+        server.takeRequest();
+        assertEquals("/api/receipts/7", server.takeRequest().getPath());
+        assertEquals("/api/matches", server.takeRequest().getPath());
+        assertTrue(outboxDao.operations.isEmpty());
+    }
+    
+    @Test
+    public void anEditIsReportedOnlyOnceItIsStored() {
+        Receipt receipt = new Receipt();
+        receipt.setId(7);
+        int[] storedAtSuccess = {-1};
+        String[] error = new String[1];
+        OutboxRepository.OutboxCallback<Receipt> callback = new OutboxRepository.OutboxCallback<Receipt>() {
+            @Override
+            public void onSuccess(Receipt response) {
+                storedAtSuccess[0] = outboxDao.operations.size();
+            }
+            
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+            }
+        };
+        
+        outboxDao.failInserts = true;
+        outbox.updateReceipt(COMPANY, receipt, callback);
+        assertNotNull(error[0]);
+        assertEquals(-1, storedAtSuccess[0]);
+        
+        outboxDao.failInserts = false;
+        error[0] = null;
+        outbox.updateReceipt(COMPANY, receipt, callback);
+        assertNull(error[0]);
+        assertEquals(1, storedAtSuccess[0]);
+    }
+    
+    private int createMatch(CreateMatchRequest request) {
+        AtomicReference<Match> created = new AtomicReference<>();
+        outbox.createMatch(COMPANY, request, new OutboxRepository.OutboxCallback<Match>() {
+            @Override
+            public void onSuccess(Match match) {
+                created.set(match);
+            }
+            
+            @Override
+            public void onError(String error) {
+            }
+        });
+        return created.get().getId();
+    }
+    
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
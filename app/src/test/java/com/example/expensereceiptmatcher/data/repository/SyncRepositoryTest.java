@@ -0,0 +1,250 @@
+package com.example.expensereceiptmatcher.data.repository;
+
+import com.example.expensereceiptmatcher.data.api.ApiService;
+import com.example.expensereceiptmatcher.data.database.ReceiptDao;
+import com.example.expensereceiptmatcher.data.database.ReceiptEntity;
+import com.example.expensereceiptmatcher.data.database.SyncStateDao;
+import com.example.expensereceiptmatcher.data.database.SyncStateEntity;
+import com.example.expensereceiptmatcher.data.database.TransactionDao;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class SyncRepositoryTest {
+    // Syncs receipts from a stand-in for GET /api/receipts/sync into in-memory DAOs and
+    // checks what the cache holds between and after pages. Every executor runs inline.
+    
+    private static final String COMPANY = "1";
+    
+    private MockWebServer server;
+    private FakeReceiptDao receiptDao;
+    private FakeSyncStateDao syncStateDao;
+    private FakeOutboxDao outboxDao;
+    private OutboxRepository outbox;
+    private SyncRepository sync;
+    // Receipt 1's vendor after each transaction the sync commits
+    private final List<String> vendorAfterCommit = new ArrayList<>();
+    
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        ApiService apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/api/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(ApiService.class);
+        receiptDao = new FakeReceiptDao();
+        syncStateDao = new FakeSyncStateDao();
+        outboxDao = new FakeOutboxDao();
+        outbox = new OutboxRepository(apiService, outboxDao, new FakeMatchDao(), receiptDao,
+                UnusedDao.of(TransactionDao.class), Runnable::run, Runnable::run, task -> { }, Runnable::run);
+        OutboxRepository.TransactionRunner runner = body -> {
+            body.run();
+            ReceiptEntity receipt = receiptDao.getReceiptById(1);
+            vendorAfterCommit.add(receipt != null ? receipt.getVendor() : null);
+        };
+        sync = new SyncRepository(apiService, runner, receiptDao, UnusedDao.of(TransactionDao.class),
+                syncStateDao, outbox, Runnable::run, Runnable::run);
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+    
+    @Test
+    public void fullResyncKeepsCachedRowsUntilItsLastPage() throws Exception {
+        cache(1, "Old");
+        cache(2, "Old");
+        cache(3, "Gone from the server");
+        
+        Set<Integer> cachedAtSecondPage = new HashSet<>();
+        SyncStateEntity[] stateAtSecondPage = new SyncStateEntity[1];
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getRequestUrl().queryParameter("cursor") == null) {
+                    return page("[{\"id\":1,\"amount\":null,\"vendor\":\"A\"},{\"id\":2,\"amount\":12.5,\"vendor\":\"B\"}]",
+                            "[]", "c1", true);
+                }
+                cachedAtSecondPage.addAll(receiptDao.receipts.keySet());
+                stateAtSecondPage[0] = syncStateDao.getSyncState(COMPANY, "receipts");
+                return page("[]", "[]", "c2", false);
+            }
+        });
+        
+        int[] changed = {-1};
+        sync.syncReceipts(COMPANY, new SyncRepository.SyncCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer response) {
+                changed[0] = response;
+            }
+            
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        });
+        
+        // Mid-resync the cache still has every row, and no cursor is stored yet
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), cachedAtSecondPage);
+        assertNull(stateAtSecondPage[0]);
+        
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), receiptDao.receipts.keySet());
+        assertNull(receiptDao.getReceiptById(1).getAmountMinor());
+        assertEquals(Long.valueOf(1250), receiptDao.getReceiptById(2).getAmountMinor());
+        assertEquals("c2", syncStateDao.getSyncState(COMPANY, "receipts").getCursor());
+        assertEquals(3, changed[0]);
+    }
+    
+    @Test
+    public void pendingEditIsNeverHiddenByTheBatchThatOverwritesItsRow() {
+        cache(1, "Old");
+        syncStateDao.insertSyncState(new SyncStateEntity(COMPANY, "receipts", "c0", 0));
+        Receipt edited = receiptDao.getReceiptById(1).toReceipt();
+        edited.setVendor("Edited");
+        outbox.updateReceipt(COMPANY, edited, new OutboxRepository.OutboxCallback<Receipt>() {
+            @Override
+            public void onSuccess(Receipt response) {
+            }
+            
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        });
+        
+        server.enqueue(page("[{\"id\":1,\"amount\":3,\"vendor\":\"Server\"}]", "[]", "c1", false));
+        vendorAfterCommit.clear();
+        sync.syncReceipts(COMPANY, new SyncRepository.SyncCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer response) {
+            }
+            
+            @Override
+            public void onError(String error) {
+                throw new AssertionError(error);
+            }
+        });
+        
+        assertFalse(vendorAfterCommit.isEmpty());
+        for (String vendor : vendorAfterCommit) {
+            assertEquals("Edited", vendor);
+        }
+        assertEquals(1, outboxDao.operations.size());
+    }
+    
+    private void cache(int id, String vendor) {
+        ReceiptEntity receipt = new ReceiptEntity();
+        receipt.setId(id);
+        receipt.setCompanyId(COMPANY);
+        receipt.setVendor(vendor);
+        receipt.setTransactionId(-1);
+        receiptDao.insertReceipt(receipt);
+    }
+    
+    private static MockResponse page(String items, String deletedIds, String cursor, boolean hasMore) {
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                .setBody("{\"data\":{\"items\":" + items + ",\"deletedIds\":" + deletedIds
+                        + ",\"cursor\":\"" + cursor + "\",\"hasMore\":" + hasMore + "}}");
+    }
+    
+    // Only what sync and the outbox use; read from the server's thread as well
+    private static class FakeReceiptDao implements ReceiptDao {
+        final Map<Integer, ReceiptEntity> receipts = new ConcurrentHashMap<>();
+        
+        @Override
+        public List<Integer> getReceiptIds(String companyId) {
+            return new ArrayList<>(receipts.keySet());
+        }
+        
+        @Override
+        public ReceiptEntity getReceiptById(int id) {
+            return receipts.get(id);
+        }
+        
+        @Override
+        public void insertReceipt(ReceiptEntity receipt) {
+            receipts.put(receipt.getId(), receipt);
+        }
+        
+        @Override
+        public void insertReceipts(List<ReceiptEntity> entities) {
+            for (ReceiptEntity receipt : entities) {
+                insertReceipt(receipt);
+            }
+        }
+        
+        @Override
+        public void deleteReceiptsByIds(List<Integer> ids) {
+            receipts.keySet().removeAll(ids);
+        }
+        
+        @Override
+        public List<ReceiptEntity> getAllReceipts(String companyId) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public List<ReceiptEntity> getUnmatchedReceipts(String companyId) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void updateReceipt(ReceiptEntity receipt) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void deleteReceipt(ReceiptEntity receipt) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void deleteReceiptById(int id) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void deleteAllReceipts(String companyId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    private static class FakeSyncStateDao implements SyncStateDao {
+        final Map<String, SyncStateEntity> states = new HashMap<>();
+        
+        @Override
+        public synchronized SyncStateEntity getSyncState(String companyId, String entityType) {
+            return states.get(companyId + "/" + entityType);
+        }
+        
+        @Override
+        public synchronized void insertSyncState(SyncStateEntity syncState) {
+            states.put(syncState.getCompanyId() + "/" + syncState.getEntityType(), syncState);
+        }
+    }
+}
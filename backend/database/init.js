@@ -758,6 +758,59 @@ const initDatabase = () => {
     }
   });
 
+  // Sync tombstones: deleted receipt/transaction ids, so delta sync clients can drop them
+  db.run(`
+    CREATE TABLE IF NOT EXISTS sync_tombstones (
+      id INTEGER PRIMARY KEY AUTOINCREMENT,
+      entity_type TEXT NOT NULL, -- 'receipt', 'transaction'
+      entity_id INTEGER NOT NULL,
+      company_id INTEGER,
+      created_by INTEGER,
+      deleted_at DATETIME DEFAULT CURRENT_TIMESTAMP
+    )
+  `, (err) => {
+    if (err) {
+      console.error('Error creating sync_tombstones table:', err.message);
+      return;
+    }
+
+    // Triggers keep the sync bookkeeping correct for every write path:
+    // deletes leave a tombstone, and match changes bump updated_at on both sides
+    // because the matched state of a receipt/transaction is derived from matches
+    const syncTriggers = [
+      `CREATE INDEX IF NOT EXISTS idx_sync_tombstones_company ON sync_tombstones(company_id, entity_type, id)`,
+      `CREATE INDEX IF NOT EXISTS idx_receipts_sync ON receipts(company_id, updated_at, id)`,
+      `CREATE INDEX IF NOT EXISTS idx_transactions_sync ON transactions(company_id, updated_at, id)`,
+      `CREATE TRIGGER IF NOT EXISTS receipts_sync_delete AFTER DELETE ON receipts BEGIN
+         INSERT INTO sync_tombstones (entity_type, entity_id, company_id, created_by)
+         VALUES ('receipt', OLD.id, OLD.company_id, OLD.created_by);
+       END`,
+      `CREATE TRIGGER IF NOT EXISTS transactions_sync_delete AFTER DELETE ON transactions BEGIN
+         INSERT INTO sync_tombstones (entity_type, entity_id, company_id, created_by)
+         VALUES ('transaction', OLD.id, OLD.company_id, OLD.created_by);
+       END`,
+      `CREATE TRIGGER IF NOT EXISTS matches_sync_insert AFTER INSERT ON matches BEGIN
+         UPDATE receipts SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.receipt_id;
+         UPDATE transactions SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.transaction_id;
+       END`,
+      `CREATE TRIGGER IF NOT EXISTS matches_sync_update AFTER UPDATE OF user_confirmed, match_status ON matches BEGIN
+         UPDATE receipts SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.receipt_id;
+         UPDATE transactions SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.transaction_id;
+       END`,
+      `CREATE TRIGGER IF NOT EXISTS matches_sync_delete AFTER DELETE ON matches BEGIN
+         UPDATE receipts SET updated_at = CURRENT_TIMESTAMP WHERE id = OLD.receipt_id;
+         UPDATE transactions SET updated_at = CURRENT_TIMESTAMP WHERE id = OLD.transaction_id;
+       END`
+    ];
+    syncTriggers.forEach((sql) => {
+      db.run(sql, (err) => {
+        if (err) {
+          console.error('Error creating sync trigger/index:', err.message);
+        }
+      });
+    });
+  });
+
   console.log('Database tables created/verified (including ML/AI enhancement tables)');
   
   // Create default admin user if needed (run after a short delay to ensure tables are ready)
@@ -238,7 +238,11 @@ router.post('/find/:receiptId', (req, res) => {
 
 // Create a match
 router.post('/', (req, res) => {
-  const { transaction_id, receipt_id, match_confidence, auto_confirm = false } = req.body;
+  // The Android app sends camelCase field names
+  const transaction_id = req.body.transaction_id || req.body.transactionId;
+  const receipt_id = req.body.receipt_id || req.body.receiptId;
+  const match_confidence = req.body.match_confidence || req.body.matchConfidence;
+  const auto_confirm = req.body.auto_confirm || req.body.autoConfirm || false;
 
   if (!transaction_id || !receipt_id) {
     return res.status(400).json({ error: 'transaction_id and receipt_id are required' });
@@ -264,7 +268,15 @@ router.post('/', (req, res) => {
     res.json({
       message: 'Match created successfully',
       matchId: this.lastID,
-      confirmed: auto_confirm
+      confirmed: auto_confirm,
+      data: {
+        id: this.lastID,
+        receiptId: receipt_id,
+        transactionId: transaction_id,
+        confidenceScore: (match_confidence || 0) / 100,
+        matchDate: new Date().toISOString(),
+        isManual: true
+      }
     });
   });
 });
@@ -10,6 +10,7 @@ const moment = require('moment');
 const pdfParse = require('pdf-parse');
 const { authenticateToken, getUserCompanies, requireCompanyAccess, addUserTracking } = require('../middleware/auth');
 const llmService = require('../services/llmService');
+const deltaSyncService = require('../services/deltaSyncService');
 
 // Apply middleware to all receipt routes
 router.use(authenticateToken);
@@ -208,18 +209,22 @@ const storage = multer.diskStorage({
   }
 });
 
+const MAX_RECEIPT_SIZE = 20 * 1024 * 1024; // 20MB limit (increased for PDFs)
+
+// Accept image files and PDF files
+const isReceiptType = (mimetype) => mimetype.startsWith('image/') || mimetype === 'application/pdf';
+
 const upload = multer({
   storage: storage,
   fileFilter: (req, file, cb) => {
-    // Accept image files and PDF files
-    if (file.mimetype.startsWith('image/') || file.mimetype === 'application/pdf') {
+    if (isReceiptType(file.mimetype)) {
       cb(null, true);
     } else {
       cb(new Error('Only image files and PDF files are allowed'));
     }
   },
   limits: {
-    fileSize: 20 * 1024 * 1024 // 20MB limit (increased for PDFs)
+    fileSize: MAX_RECEIPT_SIZE
   }
 });
 
@@ -477,6 +482,24 @@ router.get('/', (req, res) => {
   });
 });
 
+// Incremental sync: receipts changed or deleted since the client's cursor
+router.get('/sync', async (req, res) => {
+  try {
+    const changes = await deltaSyncService.getChanges('receipt', {
+      companyId: req.companyId,
+      user: req.user,
+      cursorToken: req.query.cursor || null,
+      limit: req.query.limit
+    });
+    res.json({ data: changes });
+  } catch (error) {
+    if (error.message === 'Invalid sync cursor') {
+      return res.status(400).json({ error: error.message });
+    }
+    res.status(500).json({ error: error.message });
+  }
+});
+
 // Get single receipt
 router.get('/:id', (req, res) => {
   // Build query with proper user/admin filtering
@@ -512,145 +535,467 @@ router.get('/:id', (req, res) => {
 });
 
 // Upload receipt
-router.post('/upload', upload.single('receipt'), async (req, res) => {
+router.post('/upload', upload.single('receipt'), (req, res) => {
   if (!req.file) {
     return res.status(400).json({ error: 'No receipt file uploaded' });
   }
+  storeUploadedReceipt(req, res, req.file);
+});
 
-  const receiptData = {
-    filename: req.file.filename,
-    original_filename: req.file.originalname,
-    file_path: req.file.path,
-    file_size: req.file.size,
-    processing_status: 'processing'
-  };
-
-  // Insert receipt record
+// Insert the receipt record for a file that is already on disk
+function insertReceiptRecord(req, file, callback) {
   db.run(`
     INSERT INTO receipts (filename, original_filename, file_path, file_size, processing_status, company_id, created_by, updated_by)
     VALUES (?, ?, ?, ?, ?, ?, ?, ?)
   `, [
-    receiptData.filename,
-    receiptData.original_filename,
-    receiptData.file_path,
-    receiptData.file_size,
-    receiptData.processing_status,
+    file.filename,
+    file.originalname,
+    file.path,
+    file.size,
+    'processing',
     req.companyId,
     req.userId,
     req.userId
-  ], async function(err) {
+  ], function(err) {
+    callback(err, err ? null : this.lastID);
+  });
+}
+
+// Record a receipt file that is already on disk, run OCR on it and respond. Used by the
+// single-request upload.
+function storeUploadedReceipt(req, res, file) {
+  insertReceiptRecord(req, file, async (err, receiptId) => {
     if (err) {
       return res.status(500).json({ error: err.message });
     }
 
-    const receiptId = this.lastID;
-
     // Process OCR in background
-    try {
-      const ocrResult = await processReceipt(req.file.path, req.file.originalname, req.companyId);
-      
-      // Update receipt with OCR results
-      const breakdown = ocrResult.extractedData || {};
-      db.run(`
-        UPDATE receipts 
-        SET ocr_text = ?, extracted_amount = ?, extracted_date = ?, 
-            extracted_merchant = ?, extracted_description = ?, processing_status = ?, updated_at = CURRENT_TIMESTAMP
-        WHERE id = ?
-      `, [
-        ocrResult.ocrText,
-        breakdown.amount,
-        breakdown.date,
-        breakdown.merchant,
-        breakdown.description,
-        'completed',
-        receiptId
-      ], (err) => {
-        if (err) {
-          console.error('Error updating OCR results:', err);
+    await processUploadedReceipt(receiptId, file, req.companyId);
+
+    res.json({
+      message: 'Receipt uploaded successfully',
+      receiptId: receiptId,
+      filename: file.filename,
+      processing_status: 'processing',
+      data: {
+        receiptId: receiptId,
+        filename: file.filename,
+        processingStatus: 'processing'
+      }
+    });
+  });
+}
+
+// Run OCR on a stored receipt, save what it extracted and try to match it. Failures
+// mark the receipt as failed rather than rejecting.
+async function processUploadedReceipt(receiptId, file, companyId) {
+  try {
+    const ocrResult = await processReceipt(file.path, file.originalname, companyId);
+    
+    // Update receipt with OCR results
+    const breakdown = ocrResult.extractedData || {};
+    db.run(`
+      UPDATE receipts 
+      SET ocr_text = ?, extracted_amount = ?, extracted_date = ?, 
+          extracted_merchant = ?, extracted_description = ?, processing_status = ?, updated_at = CURRENT_TIMESTAMP
+      WHERE id = ?
+    `, [
+      ocrResult.ocrText,
+      breakdown.amount,
+      breakdown.date,
+      breakdown.merchant,
+      breakdown.description,
+      'completed',
+      receiptId
+    ], (err) => {
+      if (err) {
+        console.error('Error updating OCR results:', err);
+      } else {
+        // Log the breakdown for debugging
+        console.log(`Stored receipt ${receiptId} with breakdown:`, {
+          amount: breakdown.amount,
+          date: breakdown.date,
+          merchant: breakdown.merchant,
+          description: breakdown.description,
+          finalAmount: breakdown.amount,
+          llmProcessed: breakdown.llmProcessed,
+          notes: breakdown.notes
+        });
+        
+        // Trigger automatic matching for this receipt
+        let amountForMatching = breakdown.amount;
+        
+        // Convert amount to number if it's a string (LLM might return "$20.00")
+        if (typeof amountForMatching === 'string') {
+          // Remove currency symbols, commas, and convert to number
+          amountForMatching = parseFloat(amountForMatching.replace(/[$,]/g, ''));
+        }
+        
+        // Also handle if amount is already a number but needs validation
+        if (typeof amountForMatching === 'number' && isNaN(amountForMatching)) {
+          amountForMatching = null;
+        }
+        
+        // Check if we have valid data for matching
+        const hasValidAmount = amountForMatching && !isNaN(amountForMatching);
+        const hasValidMerchant = breakdown.merchant && breakdown.merchant !== 'name' && !breakdown.merchant.includes('If a more specific category');
+        
+        console.log(`Auto-match check for receipt ${receiptId}:`, {
+          amount: amountForMatching,
+          merchant: breakdown.merchant,
+          description: breakdown.description,
+          hasValidAmount,
+          hasValidMerchant
+        });
+        
+        if (hasValidAmount && hasValidMerchant) {
+          console.log(`✅ Triggering auto-match for receipt ${receiptId} with amount: ${amountForMatching}, merchant: ${breakdown.merchant}`);
+          
+          // Update the receipt with the extracted data for matching
+          db.run(`
+            UPDATE receipts 
+            SET extracted_amount = ?, extracted_merchant = ?, extracted_date = ?, extracted_description = ?
+            WHERE id = ?
+          `, [amountForMatching, breakdown.merchant, breakdown.date, breakdown.description, receiptId], (err) => {
+            if (err) {
+              console.error('Error updating receipt for matching:', err);
+            } else {
+              console.log(`✅ Updated receipt ${receiptId} with extracted data, triggering auto-match...`);
+              // Add a small delay to ensure the database update is complete
+              setTimeout(() => {
+          triggerAutoMatchForReceipt(receiptId);
+              }, 100);
+            }
+          });
         } else {
-          // Log the breakdown for debugging
-          console.log(`Stored receipt ${receiptId} with breakdown:`, {
+          console.log(`❌ Skipping auto-match for receipt ${receiptId}:`, {
+            reason: !hasValidAmount ? 'Invalid amount' : 'Invalid merchant',
             amount: breakdown.amount,
-            date: breakdown.date,
-            merchant: breakdown.merchant,
-            description: breakdown.description,
-            finalAmount: breakdown.amount,
-            llmProcessed: breakdown.llmProcessed,
-            notes: breakdown.notes
+            merchant: breakdown.merchant
           });
-          
-          // Trigger automatic matching for this receipt
-          let amountForMatching = breakdown.amount;
-          
-          // Convert amount to number if it's a string (LLM might return "$20.00")
-          if (typeof amountForMatching === 'string') {
-            // Remove currency symbols, commas, and convert to number
-            amountForMatching = parseFloat(amountForMatching.replace(/[$,]/g, ''));
-          }
-          
-          // Also handle if amount is already a number but needs validation
-          if (typeof amountForMatching === 'number' && isNaN(amountForMatching)) {
-            amountForMatching = null;
-          }
-          
-          // Check if we have valid data for matching
-          const hasValidAmount = amountForMatching && !isNaN(amountForMatching);
-          const hasValidMerchant = breakdown.merchant && breakdown.merchant !== 'name' && !breakdown.merchant.includes('If a more specific category');
-          
-          console.log(`Auto-match check for receipt ${receiptId}:`, {
-            amount: amountForMatching,
-            merchant: breakdown.merchant,
-            description: breakdown.description,
-            hasValidAmount,
-            hasValidMerchant
-          });
-          
-          if (hasValidAmount && hasValidMerchant) {
-            console.log(`✅ Triggering auto-match for receipt ${receiptId} with amount: ${amountForMatching}, merchant: ${breakdown.merchant}`);
-            
-            // Update the receipt with the extracted data for matching
-            db.run(`
-              UPDATE receipts 
-              SET extracted_amount = ?, extracted_merchant = ?, extracted_date = ?, extracted_description = ?
-              WHERE id = ?
-            `, [amountForMatching, breakdown.merchant, breakdown.date, breakdown.description, receiptId], (err) => {
-              if (err) {
-                console.error('Error updating receipt for matching:', err);
-              } else {
-                console.log(`✅ Updated receipt ${receiptId} with extracted data, triggering auto-match...`);
-                // Add a small delay to ensure the database update is complete
-                setTimeout(() => {
-            triggerAutoMatchForReceipt(receiptId);
-                }, 100);
-              }
-            });
-          } else {
-            console.log(`❌ Skipping auto-match for receipt ${receiptId}:`, {
-              reason: !hasValidAmount ? 'Invalid amount' : 'Invalid merchant',
-              amount: breakdown.amount,
-              merchant: breakdown.merchant
-            });
-          }
         }
+      }
+    });
+
+  } catch (error) {
+    console.error('OCR processing failed:', error);
+    
+    // Update status to failed
+    db.run(`
+      UPDATE receipts 
+      SET processing_status = ?, updated_at = CURRENT_TIMESTAMP
+      WHERE id = ?
+    `, ['failed', receiptId]);
+  }
+}
+
+// Upload several receipts in one request, so a batch pays for one connection and one
+// authentication instead of one per file. Each file is recorded before the response is
+// sent and OCR runs afterwards, one file at a time, so the response does not wait for
+// it. The data lists one entry per file, in the order the files were sent.
+const MAX_BULK_FILES = 50;
+
+// Unlike the single upload, a file of the wrong type or size fails only itself, not the
+// whole request. The filter notes every file in the order it arrives; rejected files are
+// never stored, and oversized ones are removed once the request has been read, since
+// multer's size limit would abort the request.
+const bulkUpload = multer({
+  storage: storage,
+  fileFilter: (req, file, cb) => {
+    const accepted = isReceiptType(file.mimetype);
+    req.bulkEntries = req.bulkEntries || [];
+    req.bulkEntries.push({
+      originalname: file.originalname,
+      error: accepted ? null : 'Only image files and PDF files are allowed'
+    });
+    cb(null, accepted);
+  }
+});
+
+router.post('/upload/bulk', bulkUpload.array('receipts', MAX_BULK_FILES), (req, res) => {
+  const entries = req.bulkEntries || [];
+  if (entries.length === 0) {
+    return res.status(400).json({ error: 'No receipt files uploaded' });
+  }
+
+  // req.files holds the accepted files in the order they arrived
+  const files = req.files || [];
+  let nextFile = 0;
+  for (const entry of entries) {
+    if (!entry.error) {
+      entry.file = files[nextFile++];
+      if (entry.file.size > MAX_RECEIPT_SIZE) {
+        fs.unlink(entry.file.path, () => {});
+        entry.error = 'File too large';
+      }
+    }
+  }
+
+  const stored = [];
+  const insertNext = (index) => {
+    if (index === entries.length) {
+      res.json({
+        message: 'Receipts uploaded',
+        data: stored.map(({ receiptId, filename, error }) => ({
+          receiptId: receiptId,
+          filename: filename,
+          processingStatus: error ? 'failed' : 'processing',
+          error: error
+        }))
+      });
+      processStoredReceipts(stored, req.companyId);
+      return;
+    }
+    const entry = entries[index];
+    if (entry.error) {
+      stored.push({ receiptId: null, filename: entry.originalname, error: entry.error });
+      return insertNext(index + 1);
+    }
+    insertReceiptRecord(req, entry.file, (err, receiptId) => {
+      // A file that could not be recorded is reported as failed without failing the
+      // others, so the client only sends that one again
+      stored.push({
+        receiptId: err ? null : receiptId,
+        file: entry.file,
+        filename: entry.file.filename,
+        error: err ? err.message : null
       });
+      insertNext(index + 1);
+    });
+  };
+  insertNext(0);
+});
+
+const processStoredReceipts = async (stored, companyId) => {
+  for (const { receiptId, file, error } of stored) {
+    if (!error) {
+      await processUploadedReceipt(receiptId, file, companyId);
+    }
+  }
+};
+
+// Chunked, resumable uploads for large files and weak connections. The client opens a
+// session, appends the file in chunks at the offset the server reports, and completes
+// the session, which stores the receipt exactly like /upload. A session's bytes are kept
+// in uploads/partial, so after a dropped connection the client asks for the offset and
+// carries on from there instead of starting over. A completed session leaves a small
+// record with its receipt id behind, so a client whose complete response was lost gets
+// the same receipt back instead of uploading it again.
+const partialDir = path.join(__dirname, '../uploads/partial');
+const MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+const partialPaths = (uploadId) => ({
+  data: path.join(partialDir, `${uploadId}.part`),
+  meta: path.join(partialDir, `${uploadId}.json`),
+  done: path.join(partialDir, `${uploadId}.done.json`)
+});
+
+// Sessions whose complete request is still being handled, so a retried complete does
+// not store the receipt twice
+const completingUploads = new Set();
+
+const isUploadId = (uploadId) => /^[0-9a-f-]{36}$/.test(uploadId);
+
+// Session metadata, or null when the session does not exist or belongs to another company
+const loadUploadSession = (uploadId, companyId) => {
+  if (!isUploadId(uploadId)) {
+    return null;
+  }
+  const paths = partialPaths(uploadId);
+  if (!fs.existsSync(paths.meta) || !fs.existsSync(paths.data)) {
+    return null;
+  }
+  const session = JSON.parse(fs.readFileSync(paths.meta, 'utf8'));
+  if (String(session.companyId) !== String(companyId)) {
+    return null;
+  }
+  session.offset = fs.statSync(paths.data).size;
+  return session;
+};
+
+// The record a completed session left behind, or null
+const loadCompletedUpload = (uploadId, companyId) => {
+  if (!isUploadId(uploadId)) {
+    return null;
+  }
+  const donePath = partialPaths(uploadId).done;
+  if (!fs.existsSync(donePath)) {
+    return null;
+  }
+  const completed = JSON.parse(fs.readFileSync(donePath, 'utf8'));
+  return String(completed.companyId) === String(companyId) ? completed : null;
+};
+
+const sessionResponse = (session) => ({
+  uploadId: session.uploadId,
+  offset: session.offset,
+  size: session.size
+});
+
+const completedSessionResponse = (completed) => ({
+  uploadId: completed.uploadId,
+  offset: completed.size,
+  size: completed.size,
+  receiptId: completed.receiptId
+});
+
+const completedUploadResponse = (completed) => ({
+  receiptId: completed.receiptId,
+  filename: completed.filename,
+  processingStatus: 'processing'
+});
+
+// Start a chunked upload
+router.post('/uploads', (req, res) => {
+  const { fileName, size, mimeType } = req.body;
+  if (!fileName || !Number.isInteger(size) || size <= 0) {
+    return res.status(400).json({ error: 'fileName and a positive size are required' });
+  }
+  if (!mimeType || !(mimeType.startsWith('image/') || mimeType === 'application/pdf')) {
+    return res.status(400).json({ error: 'Only image files and PDF files are allowed' });
+  }
+  if (size > MAX_RECEIPT_SIZE) {
+    return res.status(413).json({ error: 'File too large' });
+  }
+
+  if (!fs.existsSync(partialDir)) {
+    fs.mkdirSync(partialDir, { recursive: true });
+  }
+  const session = {
+    uploadId: uuidv4(),
+    fileName: path.basename(fileName),
+    size: size,
+    mimeType: mimeType,
+    companyId: req.companyId,
+    userId: req.userId,
+    createdAt: new Date().toISOString()
+  };
+  const paths = partialPaths(session.uploadId);
+  fs.writeFileSync(paths.data, Buffer.alloc(0));
+  fs.writeFileSync(paths.meta, JSON.stringify(session));
+  session.offset = 0;
+  res.status(201).json({ message: 'Upload started', data: sessionResponse(session) });
+});
+
+// Bytes received so far, for resuming. A completed session reports its receipt id.
+router.get('/uploads/:uploadId', (req, res) => {
+  const completed = loadCompletedUpload(req.params.uploadId, req.companyId);
+  if (completed) {
+    return res.json({ data: completedSessionResponse(completed) });
+  }
+  const session = loadUploadSession(req.params.uploadId, req.companyId);
+  if (!session) {
+    return res.status(404).json({ error: 'Upload not found' });
+  }
+  res.json({ data: sessionResponse(session) });
+});
+
+// Append one chunk. The offset must equal the bytes already received, so a chunk that
+// was stored but whose response was lost is not appended twice; the client gets 409
+// and asks for the current offset.
+router.put('/uploads/:uploadId', express.raw({ type: '*/*', limit: MAX_CHUNK_SIZE }), (req, res) => {
+  const session = loadUploadSession(req.params.uploadId, req.companyId);
+  if (!session) {
+    return res.status(404).json({ error: 'Upload not found' });
+  }
+  const offset = parseInt(req.query.offset, 10);
+  if (offset !== session.offset) {
+    return res.status(409).json({ error: 'Offset mismatch', data: sessionResponse(session) });
+  }
+  const chunk = Buffer.isBuffer(req.body) ? req.body : Buffer.alloc(0);
+  if (chunk.length === 0 || session.offset + chunk.length > session.size) {
+    return res.status(400).json({ error: 'Chunk does not fit the declared size' });
+  }
+  fs.appendFileSync(partialPaths(session.uploadId).data, chunk);
+  session.offset += chunk.length;
+  res.json({ data: sessionResponse(session) });
+});
 
+// Finish a chunked upload and store the receipt. The response does not wait for OCR,
+// which can take longer than the client's timeout. Completing a session again returns
+// the receipt it already stored.
+router.post('/uploads/:uploadId/complete', (req, res) => {
+  const uploadId = req.params.uploadId;
+  const completed = loadCompletedUpload(uploadId, req.companyId);
+  if (completed) {
+    return res.json({ message: 'Receipt uploaded successfully', data: completedUploadResponse(completed) });
+  }
+  if (completingUploads.has(uploadId)) {
+    return res.status(503).json({ error: 'Upload is being completed' });
+  }
+  const session = loadUploadSession(uploadId, req.companyId);
+  if (!session) {
+    return res.status(404).json({ error: 'Upload not found' });
+  }
+  if (session.offset !== session.size) {
+    return res.status(409).json({ error: 'Upload incomplete', data: sessionResponse(session) });
+  }
+
+  const receiptsDir = path.join(__dirname, '../uploads/receipts');
+  if (!fs.existsSync(receiptsDir)) {
+    fs.mkdirSync(receiptsDir, { recursive: true });
+  }
+  const paths = partialPaths(uploadId);
+  const filename = `${uuidv4()}_${session.fileName}`;
+  const file = {
+    filename: filename,
+    originalname: session.fileName,
+    path: path.join(receiptsDir, filename),
+    size: session.size
+  };
+
+  // The file is moved into place before the row is inserted, and every step that fails
+  // undoes the ones before it, so a failed complete leaves no receipt row behind and the
+  // client's retry starts from the same session instead of storing a second receipt
+  completingUploads.add(uploadId);
+  const moveBack = () => {
+    try {
+      fs.renameSync(file.path, paths.data);
     } catch (error) {
-      console.error('OCR processing failed:', error);
-      
-      // Update status to failed
-      db.run(`
-        UPDATE receipts 
-        SET processing_status = ?, updated_at = CURRENT_TIMESTAMP
-        WHERE id = ?
-      `, ['failed', receiptId]);
+      console.error(`Could not restore upload ${uploadId}:`, error.message);
     }
+  };
+  try {
+    fs.renameSync(paths.data, file.path);
+  } catch (error) {
+    completingUploads.delete(uploadId);
+    return res.status(500).json({ error: error.message });
+  }
 
-    res.json({
-      message: 'Receipt uploaded successfully',
+  insertReceiptRecord(req, file, (err, receiptId) => {
+    if (err) {
+      moveBack();
+      completingUploads.delete(uploadId);
+      return res.status(500).json({ error: err.message });
+    }
+    const record = {
+      uploadId: uploadId,
+      companyId: req.companyId,
       receiptId: receiptId,
-      filename: receiptData.filename,
-      processing_status: 'processing'
-    });
+      filename: filename,
+      size: session.size,
+      completedAt: new Date().toISOString()
+    };
+    try {
+      fs.writeFileSync(paths.done, JSON.stringify(record));
+    } catch (error) {
+      fs.unlink(paths.done, () => {});
+      db.run('DELETE FROM receipts WHERE id = ?', [receiptId], (deleteErr) => {
+        if (deleteErr) {
+          console.error(`Could not remove receipt ${receiptId} of failed upload ${uploadId}:`, deleteErr.message);
+        }
+        moveBack();
+        completingUploads.delete(uploadId);
+        res.status(500).json({ error: error.message });
+      });
+      return;
+    }
+    // The done record makes the session complete; the metadata file is only leftover
+    fs.unlink(paths.meta, () => {});
+    completingUploads.delete(uploadId);
+
+    res.json({ message: 'Receipt uploaded successfully', data: completedUploadResponse(record) });
+    processUploadedReceipt(receiptId, file, req.companyId);
   });
 });
 
@@ -7,6 +7,7 @@ const multer = require('multer');
 const path = require('path');
 const moment = require('moment');
 const { authenticateToken, getUserCompanies, requireCompanyAccess, requireRole, addUserTracking } = require('../middleware/auth');
+const deltaSyncService = require('../services/deltaSyncService');
 
 // Helper function to find or create a master data item
 const findOrCreateMasterDataItem = (tableName, name, companyId) => {
@@ -275,6 +276,24 @@ router.get('/', (req, res) => {
   });
 });
 
+// Incremental sync: transactions changed or deleted since the client's cursor
+router.get('/sync', async (req, res) => {
+  try {
+    const changes = await deltaSyncService.getChanges('transaction', {
+      companyId: req.companyId,
+      user: req.user,
+      cursorToken: req.query.cursor || null,
+      limit: req.query.limit
+    });
+    res.json({ data: changes });
+  } catch (error) {
+    if (error.message === 'Invalid sync cursor') {
+      return res.status(400).json({ error: error.message });
+    }
+    res.status(500).json({ error: error.message });
+  }
+});
+
 // Get single transaction
 router.get('/:id', (req, res) => {
   // Build query with proper user/admin filtering
@@ -86,6 +86,16 @@ if (!fs.existsSync(uploadsDir)) {
 // Serve static files (uploaded receipts)
 app.use('/uploads', express.static(uploadsDir));
 
+// API responses depend on the caller and the selected company. Clients may keep them
+// but must revalidate; Express adds an ETag to every JSON body, so an unchanged list
+// costs a 304 instead of a full payload.
+app.use('/api', (req, res, next) => {
+  res.set('Cache-Control', 'private, no-cache');
+  res.vary('Authorization');
+  res.vary('x-company-id');
+  next();
+});
+
 // API Routes
 app.use('/api/auth', authRoutes);
 app.use('/api/companies', companyRoutes);
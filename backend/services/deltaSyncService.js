@@ -0,0 +1,156 @@
+const db = require('../database/init');
+
+// Incremental sync for mobile clients. A cursor records how far a client has read:
+// the (updated_at, id) of the last row it received plus the last tombstone id.
+// Each call returns rows changed after that point, ids deleted after it, and the
+// next cursor, so a client only downloads what changed since its previous sync.
+class DeltaSyncService {
+  constructor() {
+    this.defaultLimit = 500;
+    this.maxLimit = 2000;
+
+    this.entities = {
+      receipt: {
+        select: `
+          SELECT e.id, e.updated_at,
+                 e.extracted_date AS date,
+                 e.extracted_amount AS amount,
+                 e.extracted_merchant AS vendor,
+                 e.extracted_description AS notes,
+                 (SELECT m.transaction_id FROM matches m
+                  WHERE m.receipt_id = e.id AND m.user_confirmed = 1 LIMIT 1) AS linked_id
+          FROM receipts e
+        `,
+        toItem: (row) => ({
+          id: row.id,
+          imageUrl: `receipts/${row.id}/view`,
+          date: row.date,
+          amount: row.amount,
+          vendor: row.vendor,
+          notes: row.notes,
+          transactionId: row.linked_id != null ? row.linked_id : -1,
+          isMatched: row.linked_id != null
+        })
+      },
+      transaction: {
+        select: `
+          SELECT e.id, e.updated_at,
+                 e.transaction_date AS date,
+                 e.amount,
+                 e.description,
+                 COALESCE(c.name, e.category) AS category,
+                 (SELECT m.receipt_id FROM matches m
+                  WHERE m.transaction_id = e.id AND m.user_confirmed = 1 LIMIT 1) AS linked_id
+          FROM transactions e
+          LEFT JOIN categories c ON e.category_id = c.id
+        `,
+        toItem: (row) => ({
+          id: row.id,
+          date: row.date,
+          amount: row.amount,
+          description: row.description,
+          category: row.category,
+          receiptId: row.linked_id != null ? row.linked_id : -1,
+          isMatched: row.linked_id != null
+        })
+      }
+    };
+  }
+
+  encodeCursor(cursor) {
+    return Buffer.from(`${cursor.updatedAt}|${cursor.id}|${cursor.tombstoneId}`).toString('base64');
+  }
+
+  decodeCursor(token) {
+    if (!token) {
+      return null;
+    }
+    const parts = Buffer.from(token, 'base64').toString('utf8').split('|');
+    if (parts.length !== 3) {
+      throw new Error('Invalid sync cursor');
+    }
+    const id = parseInt(parts[1]);
+    const tombstoneId = parseInt(parts[2]);
+    if (isNaN(id) || isNaN(tombstoneId)) {
+      throw new Error('Invalid sync cursor');
+    }
+    return { updatedAt: parts[0], id, tombstoneId };
+  }
+
+  all(query, params) {
+    return new Promise((resolve, reject) => {
+      db.all(query, params, (err, rows) => (err ? reject(err) : resolve(rows)));
+    });
+  }
+
+  get(query, params) {
+    return new Promise((resolve, reject) => {
+      db.get(query, params, (err, row) => (err ? reject(err) : resolve(row)));
+    });
+  }
+
+  // One page of changes for the given entity type ('receipt' or 'transaction')
+  async getChanges(entityType, { companyId, user, cursorToken, limit }) {
+    const entity = this.entities[entityType];
+    const pageSize = Math.min(Math.max(parseInt(limit) || this.defaultLimit, 1), this.maxLimit);
+    let cursor = this.decodeCursor(cursorToken);
+
+    // A first sync reads every row but only deletions that happen from now on
+    if (!cursor) {
+      const last = await this.get(
+        'SELECT COALESCE(MAX(id), 0) AS id FROM sync_tombstones WHERE entity_type = ?',
+        [entityType]
+      );
+      cursor = { updatedAt: '', id: 0, tombstoneId: last.id };
+    }
+
+    // Non-admin users only see their own records, same as the list endpoints
+    let scope = 'e.company_id = ?';
+    const scopeParams = [companyId];
+    if (user && user.currentRole !== 'admin') {
+      scope += ' AND e.created_by = ?';
+      scopeParams.push(user.id);
+    }
+
+    // updated_at has one-second resolution, so only hand out seconds that are over;
+    // a row written later in the current second is picked up by the next sync
+    const rows = await this.all(`
+      ${entity.select}
+      WHERE ${scope}
+        AND e.updated_at < datetime('now')
+        AND (e.updated_at > ? OR (e.updated_at = ? AND e.id > ?))
+      ORDER BY e.updated_at, e.id
+      LIMIT ?
+    `, [...scopeParams, cursor.updatedAt, cursor.updatedAt, cursor.id, pageSize + 1]);
+
+    let tombstoneScope = 'entity_type = ? AND company_id = ?';
+    const tombstoneParams = [entityType, companyId];
+    if (user && user.currentRole !== 'admin') {
+      tombstoneScope += ' AND created_by = ?';
+      tombstoneParams.push(user.id);
+    }
+    const tombstones = await this.all(`
+      SELECT id, entity_id FROM sync_tombstones
+      WHERE ${tombstoneScope} AND id > ?
+      ORDER BY id
+      LIMIT ?
+    `, [...tombstoneParams, cursor.tombstoneId, pageSize + 1]);
+
+    const pageRows = rows.slice(0, pageSize);
+    const pageTombstones = tombstones.slice(0, pageSize);
+    const next = {
+      updatedAt: pageRows.length > 0 ? pageRows[pageRows.length - 1].updated_at : cursor.updatedAt,
+      id: pageRows.length > 0 ? pageRows[pageRows.length - 1].id : cursor.id,
+      tombstoneId: pageTombstones.length > 0 ? pageTombstones[pageTombstones.length - 1].id : cursor.tombstoneId
+    };
+
+    return {
+      items: pageRows.map(entity.toItem),
+      deletedIds: pageTombstones.map((tombstone) => tombstone.entity_id),
+      cursor: this.encodeCursor(next),
+      hasMore: rows.length > pageSize || tombstones.length > pageSize
+    };
+  }
+}
+
+module.exports = new DeltaSyncService();
@@ -0,0 +1,56 @@
+const assert = require('assert');
+const db = require('./database/init');
+const deltaSyncService = require('./services/deltaSyncService');
+
+const run = (query, params) => new Promise((resolve, reject) => {
+  db.run(query, params, function(err) {
+    if (err) reject(err);
+    else resolve(this);
+  });
+});
+
+const get = (query, params) => new Promise((resolve, reject) => {
+  db.get(query, params, (err, row) => (err ? reject(err) : resolve(row)));
+});
+
+// A receipt whose OCR found no amount must reach the client with amount null, not 0,
+// or the app caches it as $0.00 and scores it as an exact match for $0.00 transactions
+async function testMissingAmountSyncsAsNull() {
+  let receiptId = null;
+  try {
+    const company = await get('SELECT id FROM companies ORDER BY id LIMIT 1', []);
+    assert.ok(company, 'Need at least one company in the database');
+
+    // The oldest possible updated_at puts the row first in sync order
+    const inserted = await run(`
+      INSERT INTO receipts (company_id, filename, original_filename, file_path,
+                            extracted_amount, extracted_merchant, processing_status, updated_at)
+      VALUES (?, 'delta-sync-test.jpg', 'delta-sync-test.jpg', 'uploads/receipts/delta-sync-test.jpg',
+              NULL, 'Delta Sync Test', 'completed', '0000-01-01 00:00:00')
+    `, [company.id]);
+    receiptId = inserted.lastID;
+
+    const changes = await deltaSyncService.getChanges('receipt', {
+      companyId: company.id,
+      user: { currentRole: 'admin' },
+      cursorToken: null,
+      limit: 1
+    });
+
+    assert.strictEqual(changes.items.length, 1);
+    assert.strictEqual(changes.items[0].id, receiptId);
+    assert.strictEqual(changes.items[0].amount, null);
+    assert.strictEqual(changes.items[0].vendor, 'Delta Sync Test');
+    console.log('Missing amount syncs as null: OK');
+  } catch (error) {
+    console.error('Delta sync test failed:', error);
+    process.exitCode = 1;
+  } finally {
+    if (receiptId !== null) {
+      await run('DELETE FROM receipts WHERE id = ?', [receiptId]);
+      await run("DELETE FROM sync_tombstones WHERE entity_type = 'receipt' AND entity_id = ?", [receiptId]);
+    }
+  }
+}
+
+testMissingAmountSyncsAsNull();
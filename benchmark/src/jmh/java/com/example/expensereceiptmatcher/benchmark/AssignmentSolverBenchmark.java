@@ -0,0 +1,55 @@
+package com.example.expensereceiptmatcher.benchmark;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.domain.usecase.AutoMatchUseCase;
+import com.example.expensereceiptmatcher.domain.usecase.GreedyAssignmentSolver;
+import com.example.expensereceiptmatcher.domain.usecase.MatchScorer;
+import com.example.expensereceiptmatcher.domain.usecase.OptimalAssignmentSolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AssignmentSolverBenchmark {
+    // Conflict resolution alone, on the candidate pairs auto-match produces for as many
+    // receipts as transactions: the optimal solver the app uses against the greedy one
+
+    @Param({"1000", "10000", "100000"})
+    public int rowCount;
+
+    private List<Match> candidates;
+    private OptimalAssignmentSolver optimal;
+    private GreedyAssignmentSolver greedy;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> transactions = BenchmarkData.transactions(rowCount, 1);
+        List<Receipt> receipts = BenchmarkData.receipts(rowCount, transactions, 2);
+        candidates = new AutoMatchUseCase().findCandidates(receipts, transactions, MatchScorer.MIN_CONFIDENCE);
+        optimal = new OptimalAssignmentSolver();
+        greedy = new GreedyAssignmentSolver();
+    }
+
+    @Benchmark
+    public List<Match> optimal() {
+        return optimal.solve(candidates);
+    }
+
+    @Benchmark
+    public List<Match> greedy() {
+        return greedy.solve(candidates);
+    }
+}
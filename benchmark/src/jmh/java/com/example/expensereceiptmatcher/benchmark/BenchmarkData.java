@@ -0,0 +1,91 @@
+package com.example.expensereceiptmatcher.benchmark;
+
+import com.example.expensereceiptmatcher.domain.model.IsoDates;
+import com.example.expensereceiptmatcher.domain.model.Money;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+final class BenchmarkData {
+    // Synthetic receipts and transactions shaped like a company's card statement: two
+    // years of charges from a few dozen merchants, and receipts that mostly correspond
+    // to one of them with the usual drift (a tip on the amount, a day or two on the date,
+    // a shorter merchant name). Generation is seeded, so every run sees the same rows.
+
+    private static final String[] MERCHANTS = {
+            "Starbucks Coffee", "Shell Oil", "Amazon Marketplace", "Delta Air Lines", "Uber Technologies",
+            "Marriott Hotels", "Office Depot", "Home Depot", "Whole Foods Market", "Chipotle Mexican Grill",
+            "Hertz Rent A Car", "FedEx Office", "Apple Store", "Best Buy", "Walgreens Pharmacy",
+            "Costco Wholesale", "Southwest Airlines", "Hilton Garden Inn", "Lyft Rides", "Staples",
+            "Panera Bread", "Exxon Mobil", "Target Stores", "Dropbox Subscription", "Zoom Video",
+            "Slack Technologies", "Adobe Systems", "Microsoft Azure", "Google Cloud", "Verizon Wireless"
+    };
+    private static final int FIRST_DAY = IsoDates.epochDay(2023, 1, 1);
+    private static final int DAY_SPAN = 730;
+    // Share of receipts that have a matching transaction at all
+    private static final double MATCHED_RECEIPT_SHARE = 0.8;
+
+    private BenchmarkData() {
+    }
+
+    static List<Transaction> transactions(int count, long seed) {
+        Random random = new Random(seed);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setId(i + 1);
+            transaction.setDate(isoDate(FIRST_DAY + random.nextInt(DAY_SPAN)));
+            // Card charges are stored negative
+            transaction.setAmount(Money.ofMinor(-(100 + random.nextInt(50_000)), Money.DEFAULT_CURRENCY));
+            transaction.setDescription(MERCHANTS[random.nextInt(MERCHANTS.length)].toUpperCase(Locale.US) + " #" + random.nextInt(10_000));
+            transaction.setCategory("Expense");
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    static List<Receipt> receipts(int count, List<Transaction> transactions, long seed) {
+        Random random = new Random(seed);
+        List<Receipt> receipts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Receipt receipt = new Receipt();
+            receipt.setId(i + 1);
+            if (random.nextDouble() < MATCHED_RECEIPT_SHARE) {
+                Transaction source = transactions.get(random.nextInt(transactions.size()));
+                long cents = -source.getAmount().getMinorUnits();
+                // Most receipts match to the cent; the rest carry a tip or a rounding
+                if (random.nextInt(10) >= 6) {
+                    cents += random.nextInt(1_200);
+                }
+                receipt.setAmount(Money.ofMinor(cents, Money.DEFAULT_CURRENCY));
+                receipt.setDate(isoDate(source.getEpochDay() - random.nextInt(3)));
+                receipt.setVendor(source.getDescription().substring(0, source.getDescription().indexOf(' ')));
+            } else {
+                receipt.setAmount(Money.ofMinor(100 + random.nextInt(50_000), Money.DEFAULT_CURRENCY));
+                receipt.setDate(isoDate(FIRST_DAY + random.nextInt(DAY_SPAN)));
+                receipt.setVendor(MERCHANTS[random.nextInt(MERCHANTS.length)]);
+            }
+            receipt.setCategory("Expense");
+            receipts.add(receipt);
+        }
+        return receipts;
+    }
+
+    // yyyy-MM-dd for a day count, via civil-from-days so java.time is not needed
+    static String isoDate(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return String.format(Locale.US, "%04d-%02d-%02d", year, month, day);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.expensereceiptmatcher.benchmark;
+
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.domain.usecase.TransactionIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CandidateLookupBenchmark {
+    // Building the amount/date index and looking up a batch of 100 receipts in it,
+    // against the same filter done as a linear scan
+
+    private static final int LOOKUPS = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int transactionCount;
+
+    private List<Transaction> transactions;
+    private List<Receipt> receipts;
+    private TransactionIndex index;
+
+    @Setup
+    public void setUp() {
+        transactions = BenchmarkData.transactions(transactionCount, 1);
+        receipts = BenchmarkData.receipts(LOOKUPS, transactions, 2);
+        index = new TransactionIndex(transactions);
+    }
+
+    @Benchmark
+    public TransactionIndex buildIndex() {
+        return new TransactionIndex(transactions);
+    }
+
+    @Benchmark
+    public void indexedLookup(Blackhole blackhole) {
+        for (Receipt receipt : receipts) {
+            blackhole.consume(index.findCandidates(receipt));
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        long tolerance = index.getAmountToleranceCents();
+        int window = index.getDayWindow();
+        for (Receipt receipt : receipts) {
+            long receiptCents = Math.abs(receipt.getAmount().getMinorUnits());
+            int receiptDay = receipt.getEpochDay();
+            int found = 0;
+            for (Transaction transaction : transactions) {
+                long cents = Math.abs(transaction.getAmount().getMinorUnits());
+                if (Math.abs(cents - receiptCents) <= tolerance
+                        && Math.abs(transaction.getEpochDay() - receiptDay) <= window) {
+                    found++;
+                }
+            }
+            blackhole.consume(found);
+        }
+    }
+}
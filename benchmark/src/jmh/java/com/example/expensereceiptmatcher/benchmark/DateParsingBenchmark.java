@@ -0,0 +1,74 @@
+package com.example.expensereceiptmatcher.benchmark;
+
+import com.example.expensereceiptmatcher.domain.model.IsoDates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateParsingBenchmark {
+    // IsoDates against SimpleDateFormat on the two shapes the server sends: plain dates
+    // on receipts and transactions, and UTC timestamps on matches
+
+    private static final int SAMPLES = 1024;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final String[] dates = new String[SAMPLES];
+    private final String[] timestamps = new String[SAMPLES];
+    private SimpleDateFormat dateFormat;
+    private SimpleDateFormat timestampFormat;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < SAMPLES; i++) {
+            dates[i] = BenchmarkData.isoDate(IsoDates.epochDay(2023, 1, 1) + random.nextInt(730));
+            timestamps[i] = String.format(Locale.US, "%sT%02d:%02d:%02dZ",
+                    dates[i], random.nextInt(24), random.nextInt(60), random.nextInt(60));
+        }
+        dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        timestampFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        timestampFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int isoDatesEpochDay() {
+        return IsoDates.parseEpochDay(dates[nextIndex()]);
+    }
+
+    @Benchmark
+    public long simpleDateFormatEpochDay() throws ParseException {
+        return dateFormat.parse(dates[nextIndex()]).getTime() / MILLIS_PER_DAY;
+    }
+
+    @Benchmark
+    public long isoDatesEpochMillis() {
+        return IsoDates.parseEpochMillis(timestamps[nextIndex()]);
+    }
+
+    @Benchmark
+    public long simpleDateFormatEpochMillis() throws ParseException {
+        return timestampFormat.parse(timestamps[nextIndex()]).getTime();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.expensereceiptmatcher.benchmark;
+
+import com.example.expensereceiptmatcher.data.api.ApiResponse;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonDecodingBenchmark {
+    // Decoding a transaction list response the way Retrofit's Gson converter does,
+    // Money amounts included
+
+    private static final Type RESPONSE_TYPE = new TypeToken<ApiResponse<List<Transaction>>>() {
+    }.getType();
+
+    @Param({"1000", "10000", "100000"})
+    public int transactionCount;
+
+    private Gson gson;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        gson = new Gson();
+        ApiResponse<List<Transaction>> response = new ApiResponse<>();
+        response.setData(BenchmarkData.transactions(transactionCount, 1));
+        json = gson.toJson(response, RESPONSE_TYPE);
+    }
+
+    @Benchmark
+    public ApiResponse<List<Transaction>> decodeTransactionList() {
+        return gson.fromJson(json, RESPONSE_TYPE);
+    }
+}
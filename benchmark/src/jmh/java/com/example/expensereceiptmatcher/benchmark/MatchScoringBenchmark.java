@@ -0,0 +1,65 @@
+package com.example.expensereceiptmatcher.benchmark;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.domain.usecase.AutoMatchUseCase;
+import com.example.expensereceiptmatcher.domain.usecase.MatchScorer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MatchScoringBenchmark {
+    // Scoring one receipt against the whole transaction list (what the single-receipt
+    // match screen does without an index) and the full client-side auto-match, with one
+    // receipt for every ten transactions
+
+    @Param({"1000", "10000", "100000"})
+    public int transactionCount;
+
+    private List<Transaction> transactions;
+    private List<Receipt> receipts;
+    private MatchScorer scorer;
+    private MatchScorer.PreparedReceipt prepared;
+    private AutoMatchUseCase autoMatch;
+
+    @Setup
+    public void setUp() {
+        transactions = BenchmarkData.transactions(transactionCount, 1);
+        receipts = BenchmarkData.receipts(transactionCount / 10, transactions, 2);
+        scorer = new MatchScorer();
+        prepared = scorer.prepare(receipts.get(0));
+        autoMatch = new AutoMatchUseCase();
+    }
+
+    @Benchmark
+    public double scoreOneReceiptAgainstAll() {
+        double best = 0;
+        for (Transaction transaction : transactions) {
+            best = Math.max(best, scorer.score(prepared, transaction));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public List<Match> autoMatchCandidates() {
+        return autoMatch.findCandidates(receipts, transactions, MatchScorer.MIN_CONFIDENCE);
+    }
+
+    @Benchmark
+    public List<Match> autoMatch() {
+        return autoMatch.execute(receipts, transactions, MatchScorer.MIN_CONFIDENCE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.expensereceiptmatcher.data.api;
+
+public class StartUploadRequest {
+    private String fileName;
+    private long size;
+    private String mimeType;
+    
+    public StartUploadRequest() {
+    }
+    
+    public StartUploadRequest(String fileName, long size, String mimeType) {
+        this.fileName = fileName;
+        this.size = size;
+        this.mimeType = mimeType;
+    }
+    
+    // Getters and setters
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.expensereceiptmatcher.data.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SyncResponse<T> {
+    // One page of an incremental sync: rows changed and ids deleted since the cursor
+    private List<T> items;
+    private List<Integer> deletedIds;
+    private String cursor;
+    private boolean hasMore;
+    
+    public SyncResponse() {
+    }
+    
+    // Getters and setters
+    public List<T> getItems() {
+        return items != null ? items : new ArrayList<>();
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public List<Integer> getDeletedIds() {
+        return deletedIds != null ? deletedIds : new ArrayList<>();
+    }
+    
+    public void setDeletedIds(List<Integer> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+    
+    public String getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+    
+    public boolean hasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
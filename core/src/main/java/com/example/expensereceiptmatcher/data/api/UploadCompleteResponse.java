@@ -0,0 +1,44 @@
+package com.example.expensereceiptmatcher.data.api;
+
+public class UploadCompleteResponse {
+    private int receiptId;
+    private String filename;
+    private String processingStatus;
+    private String error; // Why the server could not store this file of a bulk upload
+    
+    public UploadCompleteResponse() {
+    }
+    
+    // Getters and setters
+    public int getReceiptId() {
+        return receiptId;
+    }
+    
+    public void setReceiptId(int receiptId) {
+        this.receiptId = receiptId;
+    }
+    
+    public String getFilename() {
+        return filename;
+    }
+    
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+    
+    public String getProcessingStatus() {
+        return processingStatus;
+    }
+    
+    public void setProcessingStatus(String processingStatus) {
+        this.processingStatus = processingStatus;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
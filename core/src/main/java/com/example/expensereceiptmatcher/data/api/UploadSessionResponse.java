@@ -0,0 +1,50 @@
+package com.example.expensereceiptmatcher.data.api;
+
+public class UploadSessionResponse {
+    // A chunked upload in progress: offset is the number of bytes the server has stored
+    
+    private String uploadId;
+    private long offset;
+    private long size;
+    private Integer receiptId; // Set once the session has been completed
+    
+    public UploadSessionResponse() {
+    }
+    
+    // Getters and setters
+    public String getUploadId() {
+        return uploadId;
+    }
+    
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+    
+    public long getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    public Integer getReceiptId() {
+        return receiptId;
+    }
+    
+    public void setReceiptId(Integer receiptId) {
+        this.receiptId = receiptId;
+    }
+    
+    public boolean isCompleted() {
+        return receiptId != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.example.expensereceiptmatcher.domain.image;
+
+public final class DocumentCropper {
+    // Finds the receipt in a photo: a bright sheet of paper on a darker table or hand.
+    // A thumbnail is split into paper and background with Otsu's threshold, and the crop
+    // is the span of rows and columns that are mostly paper, plus a small margin. When
+    // paper and background are too alike to tell apart, or the result is implausibly
+    // small or barely smaller than the photo, the whole image is kept.
+    
+    private static final int THUMBNAIL_EDGE = 256;
+    // A row or column belongs to the document when at least this share of it is paper
+    private static final double PAPER_SHARE = 0.3;
+    // Otsu classes closer than this in mean brightness are not paper on a background
+    private static final int MIN_CONTRAST = 40;
+    private static final double MIN_AREA_SHARE = 0.1;
+    private static final double MAX_AREA_SHARE = 0.9;
+    private static final double MARGIN_SHARE = 0.02;
+    
+    private DocumentCropper() {
+    }
+    
+    // {x, y, width, height} of the document in image
+    public static int[] findBounds(GrayImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] whole = {0, 0, width, height};
+        double scale = Math.min(1.0, (double) THUMBNAIL_EDGE / Math.max(width, height));
+        int thumbWidth = Math.max(1, (int) Math.round(width * scale));
+        int thumbHeight = Math.max(1, (int) Math.round(height * scale));
+        GrayImage thumbnail = image.scaleTo(thumbWidth, thumbHeight);
+        byte[] pixels = thumbnail.getPixels();
+        
+        int[] histogram = new int[256];
+        for (int i = 0; i < thumbWidth * thumbHeight; i++) {
+            histogram[pixels[i] & 0xFF]++;
+        }
+        int threshold = otsuThreshold(histogram, thumbWidth * thumbHeight);
+        if (threshold < 0) {
+            return whole;
+        }
+        
+        int[] paperInRow = new int[thumbHeight];
+        int[] paperInColumn = new int[thumbWidth];
+        for (int y = 0; y < thumbHeight; y++) {
+            for (int x = 0; x < thumbWidth; x++) {
+                if ((pixels[y * thumbWidth + x] & 0xFF) > threshold) {
+                    paperInRow[y]++;
+                    paperInColumn[x]++;
+                }
+            }
+        }
+        int top = first(paperInRow, PAPER_SHARE * thumbWidth);
+        int bottom = last(paperInRow, PAPER_SHARE * thumbWidth);
+        int left = first(paperInColumn, PAPER_SHARE * thumbHeight);
+        int right = last(paperInColumn, PAPER_SHARE * thumbHeight);
+        if (top < 0 || left < 0) {
+            return whole;
+        }
+        double area = (double) (bottom - top + 1) * (right - left + 1) / (thumbWidth * thumbHeight);
+        if (area < MIN_AREA_SHARE || area > MAX_AREA_SHARE) {
+            return whole;
+        }
+        
+        // Back to full-size coordinates, widened by the margin
+        int marginX = (int) Math.round(width * MARGIN_SHARE);
+        int marginY = (int) Math.round(height * MARGIN_SHARE);
+        int x0 = Math.max(0, (int) Math.floor(left / scale) - marginX);
+        int y0 = Math.max(0, (int) Math.floor(top / scale) - marginY);
+        int x1 = Math.min(width, (int) Math.ceil((right + 1) / scale) + marginX);
+        int y1 = Math.min(height, (int) Math.ceil((bottom + 1) / scale) + marginY);
+        return new int[]{x0, y0, x1 - x0, y1 - y0};
+    }
+    
+    // Threshold maximizing between-class variance, or -1 when the two classes are too
+    // close in brightness to be paper and background
+    static int otsuThreshold(int[] histogram, int total) {
+        long sumAll = 0;
+        for (int i = 0; i < 256; i++) {
+            sumAll += (long) i * histogram[i];
+        }
+        long sumBelow = 0;
+        int countBelow = 0;
+        double bestVariance = -1;
+        int best = -1;
+        double bestGap = 0;
+        for (int t = 0; t < 255; t++) {
+            countBelow += histogram[t];
+            sumBelow += (long) t * histogram[t];
+            int countAbove = total - countBelow;
+            if (countBelow == 0 || countAbove == 0) {
+                continue;
+            }
+            double meanBelow = (double) sumBelow / countBelow;
+            double meanAbove = (double) (sumAll - sumBelow) / countAbove;
+            double gap = meanAbove - meanBelow;
+            double variance = (double) countBelow * countAbove * gap * gap;
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                best = t;
+                bestGap = gap;
+            }
+        }
+        return bestGap >= MIN_CONTRAST ? best : -1;
+    }
+    
+    private static int first(int[] counts, double minimum) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] >= minimum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int last(int[] counts, double minimum) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] >= minimum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
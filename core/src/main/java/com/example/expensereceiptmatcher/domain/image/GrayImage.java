@@ -0,0 +1,109 @@
+package com.example.expensereceiptmatcher.domain.image;
+
+public final class GrayImage {
+    // An 8-bit luminance image, one byte per pixel in row-major order. Receipts are
+    // compressed, cropped and compared as GrayImage so that the work, and the quality
+    // metric in particular, is plain Java and can be run on the JVM against sample files.
+    
+    private final int width;
+    private final int height;
+    private final byte[] pixels;
+    
+    public GrayImage(int width, int height, byte[] pixels) {
+        if (width <= 0 || height <= 0 || pixels.length < width * height) {
+            throw new IllegalArgumentException("Bad image size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+    
+    // Luminance of ARGB pixels (as from Bitmap.getPixels or BufferedImage.getRGB), with
+    // the Rec. 601 weights in fixed point
+    public static GrayImage fromArgb(int[] argb, int width, int height) {
+        byte[] pixels = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) luminance(argb[i]);
+        }
+        return new GrayImage(width, height, pixels);
+    }
+    
+    public static int luminance(int argb) {
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        return (77 * r + 150 * g + 29 * b + 128) >> 8;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    // 0 (black) to 255 (white)
+    public int get(int x, int y) {
+        return pixels[y * width + x] & 0xFF;
+    }
+    
+    // Direct access for bulk loops; row-major, width bytes per row
+    public byte[] getPixels() {
+        return pixels;
+    }
+    
+    // Opaque gray ARGB pixels for one row, e.g. for Bitmap.setPixels
+    public void getArgbRow(int y, int[] row) {
+        int offset = y * width;
+        for (int x = 0; x < width; x++) {
+            int value = pixels[offset + x] & 0xFF;
+            row[x] = 0xFF000000 | (value << 16) | (value << 8) | value;
+        }
+    }
+    
+    public GrayImage crop(int x, int y, int cropWidth, int cropHeight) {
+        if (x < 0 || y < 0 || cropWidth <= 0 || cropHeight <= 0 || x + cropWidth > width || y + cropHeight > height) {
+            throw new IllegalArgumentException("Crop outside image");
+        }
+        if (x == 0 && y == 0 && cropWidth == width && cropHeight == height) {
+            return this;
+        }
+        byte[] cropped = new byte[cropWidth * cropHeight];
+        for (int row = 0; row < cropHeight; row++) {
+            System.arraycopy(pixels, (y + row) * width + x, cropped, row * cropWidth, cropWidth);
+        }
+        return new GrayImage(cropWidth, cropHeight, cropped);
+    }
+    
+    // Resized by averaging the source pixels each target pixel covers, which keeps thin
+    // strokes as lighter lines rather than dropping them as nearest-neighbour would
+    public GrayImage scaleTo(int targetWidth, int targetHeight) {
+        if (targetWidth == width && targetHeight == height) {
+            return this;
+        }
+        byte[] scaled = new byte[targetWidth * targetHeight];
+        int[] columnStart = new int[targetWidth + 1];
+        for (int x = 0; x <= targetWidth; x++) {
+            columnStart[x] = (int) ((long) x * width / targetWidth);
+        }
+        for (int y = 0; y < targetHeight; y++) {
+            int top = (int) ((long) y * height / targetHeight);
+            int bottom = Math.max(top + 1, (int) ((long) (y + 1) * height / targetHeight));
+            for (int x = 0; x < targetWidth; x++) {
+                int left = columnStart[x];
+                int right = Math.max(left + 1, columnStart[x + 1]);
+                int sum = 0;
+                for (int sy = top; sy < bottom; sy++) {
+                    int offset = sy * width;
+                    for (int sx = left; sx < right; sx++) {
+                        sum += pixels[offset + sx] & 0xFF;
+                    }
+                }
+                int count = (bottom - top) * (right - left);
+                scaled[y * targetWidth + x] = (byte) ((sum + count / 2) / count);
+            }
+        }
+        return new GrayImage(targetWidth, targetHeight, scaled);
+    }
+}
\ No newline at end of file
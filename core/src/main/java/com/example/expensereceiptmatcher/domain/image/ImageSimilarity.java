@@ -0,0 +1,66 @@
+package com.example.expensereceiptmatcher.domain.image;
+
+public final class ImageSimilarity {
+    // Structural similarity (SSIM, Wang et al. 2004) between a reference image and a
+    // compressed copy of it: 1.0 for identical images, falling as compression blurs
+    // edges or adds ringing and blocking. It compares local mean, contrast and
+    // correlation rather than raw pixel error, so it tracks whether small print is still
+    // readable better than PSNR does. Computed over 8x8 windows with a stride of 4.
+    
+    private static final int WINDOW = 8;
+    private static final int STRIDE = 4;
+    private static final double C1 = (0.01 * 255) * (0.01 * 255);
+    private static final double C2 = (0.03 * 255) * (0.03 * 255);
+    
+    private ImageSimilarity() {
+    }
+    
+    // Mean SSIM of two images of the same size
+    public static double ssim(GrayImage reference, GrayImage candidate) {
+        int width = reference.getWidth();
+        int height = reference.getHeight();
+        if (candidate.getWidth() != width || candidate.getHeight() != height) {
+            throw new IllegalArgumentException("Images differ in size");
+        }
+        if (width < WINDOW || height < WINDOW) {
+            return windowSsim(reference.getPixels(), candidate.getPixels(), width, 0, 0, width, height);
+        }
+        double total = 0;
+        int windows = 0;
+        for (int y = 0; y + WINDOW <= height; y += STRIDE) {
+            for (int x = 0; x + WINDOW <= width; x += STRIDE) {
+                total += windowSsim(reference.getPixels(), candidate.getPixels(), width, x, y, WINDOW, WINDOW);
+                windows++;
+            }
+        }
+        return total / windows;
+    }
+    
+    private static double windowSsim(byte[] a, byte[] b, int stride, int left, int top, int windowWidth, int windowHeight) {
+        long sumA = 0;
+        long sumB = 0;
+        long sumAA = 0;
+        long sumBB = 0;
+        long sumAB = 0;
+        for (int y = top; y < top + windowHeight; y++) {
+            int offset = y * stride;
+            for (int x = left; x < left + windowWidth; x++) {
+                int va = a[offset + x] & 0xFF;
+                int vb = b[offset + x] & 0xFF;
+                sumA += va;
+                sumB += vb;
+                sumAA += va * va;
+                sumBB += vb * vb;
+                sumAB += va * vb;
+            }
+        }
+        double n = windowWidth * windowHeight;
+        double meanA = sumA / n;
+        double meanB = sumB / n;
+        double varianceA = sumAA / n - meanA * meanA;
+        double varianceB = sumBB / n - meanB * meanB;
+        double covariance = sumAB / n - meanA * meanB;
+        return ((2 * meanA * meanB + C1) * (2 * covariance + C2))
+                / ((meanA * meanA + meanB * meanB + C1) * (varianceA + varianceB + C2));
+    }
+}
\ No newline at end of file
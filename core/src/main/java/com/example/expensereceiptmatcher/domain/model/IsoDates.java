@@ -0,0 +1,174 @@
+package com.example.expensereceiptmatcher.domain.model;
+
+public final class IsoDates {
+    // Hand-rolled parsers for the date formats the server sends. They read characters in
+    // place and allocate nothing, so models can afford to parse their dates once and keep
+    // the result as a plain int or long. java.time would do the same but needs API 26.
+    
+    // Returned for missing or unparseable dates; sorts before every real date
+    public static final int NO_DATE = Integer.MIN_VALUE;
+    public static final long NO_INSTANT = Long.MIN_VALUE;
+    
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    
+    private IsoDates() {
+    }
+    
+    // Days since 1970-01-01 for yyyy-MM-dd (anything after the day is ignored) or
+    // M/d/yyyy and M/d/yy as typed on receipts
+    public static int parseEpochDay(String date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        int year;
+        int month;
+        int day;
+        int firstSlash = date.indexOf('/');
+        if (firstSlash > 0) {
+            int secondSlash = date.indexOf('/', firstSlash + 1);
+            if (secondSlash < 0) {
+                return NO_DATE;
+            }
+            int end = secondSlash + 1;
+            while (end < date.length() && isDigit(date.charAt(end))) {
+                end++;
+            }
+            month = parseDigits(date, 0, firstSlash);
+            day = parseDigits(date, firstSlash + 1, secondSlash);
+            year = parseDigits(date, secondSlash + 1, end);
+            if (end - secondSlash - 1 == 2) {
+                year += 2000;
+            }
+        } else {
+            if (date.length() < 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+                return NO_DATE;
+            }
+            year = parseDigits(date, 0, 4);
+            month = parseDigits(date, 5, 7);
+            day = parseDigits(date, 8, 10);
+        }
+        if (!isValidDate(year, month, day)) {
+            return NO_DATE;
+        }
+        return epochDay(year, month, day);
+    }
+    
+    // Milliseconds since the epoch for yyyy-MM-dd[(T| )HH:mm[:ss[.fraction]]][Z|+HH:mm|-HH:mm].
+    // A timestamp without an offset is UTC, as SQLite's CURRENT_TIMESTAMP writes it; a
+    // bare date is midnight UTC.
+    public static long parseEpochMillis(String timestamp) {
+        if (timestamp == null || timestamp.length() < 10
+                || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-') {
+            return NO_INSTANT;
+        }
+        int year = parseDigits(timestamp, 0, 4);
+        int month = parseDigits(timestamp, 5, 7);
+        int day = parseDigits(timestamp, 8, 10);
+        if (!isValidDate(year, month, day)) {
+            return NO_INSTANT;
+        }
+        long millis = epochDay(year, month, day) * MILLIS_PER_DAY;
+        int length = timestamp.length();
+        if (length == 10) {
+            return millis;
+        }
+        
+        char separator = timestamp.charAt(10);
+        if ((separator != 'T' && separator != ' ') || length < 16 || timestamp.charAt(13) != ':') {
+            return NO_INSTANT;
+        }
+        int hour = parseDigits(timestamp, 11, 13);
+        int minute = parseDigits(timestamp, 14, 16);
+        int second = 0;
+        int fractionMillis = 0;
+        int i = 16;
+        if (i < length && timestamp.charAt(i) == ':') {
+            second = parseDigits(timestamp, i + 1, i + 3);
+            i += 3;
+            if (i < length && timestamp.charAt(i) == '.') {
+                i++;
+                int scale = 100;
+                while (i < length && isDigit(timestamp.charAt(i))) {
+                    fractionMillis += (timestamp.charAt(i) - '0') * scale;
+                    scale /= 10;
+                    i++;
+                }
+            }
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return NO_INSTANT;
+        }
+        millis += ((hour * 60L + minute) * 60L + second) * 1000L + fractionMillis;
+        
+        if (i == length) {
+            return millis;
+        }
+        char zone = timestamp.charAt(i);
+        if (zone == 'Z' && i + 1 == length) {
+            return millis;
+        }
+        if ((zone == '+' || zone == '-') && length - i == 6 && timestamp.charAt(i + 3) == ':') {
+            int offsetHours = parseDigits(timestamp, i + 1, i + 3);
+            int offsetMinutes = parseDigits(timestamp, i + 4, i + 6);
+            if (offsetHours < 0 || offsetMinutes < 0) {
+                return NO_INSTANT;
+            }
+            long offsetMillis = (offsetHours * 60L + offsetMinutes) * 60_000L;
+            return zone == '+' ? millis - offsetMillis : millis + offsetMillis;
+        }
+        return NO_INSTANT;
+    }
+    
+    // Days-from-civil: the proleptic Gregorian day count used by java.time
+    public static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+    
+    // Rejects days the month does not have, such as 2024-02-30 or 2023-02-29
+    private static boolean isValidDate(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        return day <= daysInMonth(year, month);
+    }
+    
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    // -1 for an empty range, a range past the end or any non-digit
+    private static int parseDigits(String text, int start, int end) {
+        if (start >= end || end > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.example.expensereceiptmatcher.domain.model;
 
+import java.util.Objects;
+
 public class Match {
+    private static final long UNPARSED_INSTANT = IsoDates.NO_INSTANT + 1;
+    
     private int id;
     private int receiptId;
     private int transactionId;
     private double confidenceScore; // Confidence score between 0.0 and 1.0
     private String matchDate;
+    // matchDate as epoch milliseconds, parsed on first use like Receipt's epoch day
+    private transient long matchInstant = UNPARSED_INSTANT;
     private boolean isManual; // True if manually matched, false if auto-matched
     
     public Match() {
@@ -52,6 +58,17 @@ public class Match {
     
     public void setMatchDate(String matchDate) {
         this.matchDate = matchDate;
+        this.matchInstant = IsoDates.parseEpochMillis(matchDate);
+    }
+    
+    // IsoDates.NO_INSTANT when there is no parseable match date
+    public long getMatchInstant() {
+        long parsed = matchInstant;
+        if (parsed == UNPARSED_INSTANT) {
+            parsed = IsoDates.parseEpochMillis(matchDate);
+            matchInstant = parsed;
+        }
+        return parsed;
     }
     
     public boolean isManual() {
@@ -61,4 +78,26 @@ public class Match {
     public void setManual(boolean manual) {
         isManual = manual;
     }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Match other = (Match) o;
+        return id == other.id
+                && receiptId == other.receiptId
+                && transactionId == other.transactionId
+                && Double.compare(confidenceScore, other.confidenceScore) == 0
+                && isManual == other.isManual
+                && Objects.equals(matchDate, other.matchDate);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, receiptId, transactionId, confidenceScore, matchDate, isManual);
+    }
 }
\ No newline at end of file
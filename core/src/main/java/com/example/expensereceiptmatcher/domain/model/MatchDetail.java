@@ -0,0 +1,82 @@
+package com.example.expensereceiptmatcher.domain.model;
+
+import java.util.Objects;
+
+public class MatchDetail {
+    // A match together with the receipt and transaction fields the Matches screen shows.
+    // Amounts are null when the linked receipt or transaction is not in the local cache.
+    private Match match;
+    private String receiptVendor;
+    private Money receiptAmount;
+    private String transactionDescription;
+    private Money transactionAmount;
+    
+    public MatchDetail() {
+    }
+    
+    // Getters and setters
+    public Match getMatch() {
+        return match;
+    }
+    
+    public void setMatch(Match match) {
+        this.match = match;
+    }
+    
+    public int getId() {
+        return match.getId();
+    }
+    
+    public String getReceiptVendor() {
+        return receiptVendor;
+    }
+    
+    public void setReceiptVendor(String receiptVendor) {
+        this.receiptVendor = receiptVendor;
+    }
+    
+    public Money getReceiptAmount() {
+        return receiptAmount;
+    }
+    
+    public void setReceiptAmount(Money receiptAmount) {
+        this.receiptAmount = receiptAmount;
+    }
+    
+    public String getTransactionDescription() {
+        return transactionDescription;
+    }
+    
+    public void setTransactionDescription(String transactionDescription) {
+        this.transactionDescription = transactionDescription;
+    }
+    
+    public Money getTransactionAmount() {
+        return transactionAmount;
+    }
+    
+    public void setTransactionAmount(Money transactionAmount) {
+        this.transactionAmount = transactionAmount;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MatchDetail other = (MatchDetail) o;
+        return Objects.equals(match, other.match)
+                && Objects.equals(receiptVendor, other.receiptVendor)
+                && Objects.equals(receiptAmount, other.receiptAmount)
+                && Objects.equals(transactionDescription, other.transactionDescription)
+                && Objects.equals(transactionAmount, other.transactionAmount);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(match, receiptVendor, receiptAmount, transactionDescription, transactionAmount);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.example.expensereceiptmatcher.domain.model;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+@JsonAdapter(Money.GsonAdapter.class)
+public final class Money {
+    // An exact amount: a whole number of the currency's minor units (cents for USD) plus
+    // an ISO 4217 currency code. Two amounts are equal only when both parts are, so Money
+    // can be compared with equals and used as a hash key without any tolerance.
+    
+    // The server stores plain decimal amounts without a currency; they are all in USD
+    public static final String DEFAULT_CURRENCY = "USD";
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+    
+    private final long minorUnits;
+    private final String currencyCode;
+    
+    private Money(long minorUnits, String currencyCode) {
+        this.minorUnits = minorUnits;
+        this.currencyCode = currencyCode;
+    }
+    
+    public static Money ofMinor(long minorUnits, String currencyCode) {
+        if (currencyCode == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        return new Money(minorUnits, currencyCode);
+    }
+    
+    // Rounds half-up to the currency's minor unit, e.g. 12.345 USD becomes 1235 cents
+    public static Money of(BigDecimal amount, String currencyCode) {
+        int scale = scaleOf(currencyCode);
+        return ofMinor(amount.setScale(scale, RoundingMode.HALF_UP).movePointRight(scale).longValueExact(),
+                currencyCode);
+    }
+    
+    // Parses a decimal string such as "12.34" in the default currency; throws
+    // NumberFormatException when the text is not a number
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount.trim()), DEFAULT_CURRENCY);
+    }
+    
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+    
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+    
+    public Money abs() {
+        return minorUnits < 0 ? new Money(-minorUnits, currencyCode) : this;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scaleOf(currencyCode));
+    }
+    
+    // Plain decimal without symbol or grouping, e.g. "1234.50", for editing
+    public String toPlainString() {
+        return toBigDecimal().toPlainString();
+    }
+    
+    // Number of minor-unit digits, 2 for USD and 0 for JPY
+    private static int scaleOf(String currencyCode) {
+        try {
+            return Math.max(Currency.getInstance(currencyCode).getDefaultFractionDigits(), 0);
+        } catch (IllegalArgumentException e) {
+            return 2;
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currencyCode.equals(other.currencyCode);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currencyCode.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currencyCode;
+    }
+    
+    // On the wire an amount is a bare JSON number, read without going through double so
+    // 0.1 stays exactly ten cents
+    public static class GsonAdapter extends TypeAdapter<Money> {
+        @Override
+        public void write(JsonWriter out, Money money) throws IOException {
+            if (money == null) {
+                out.nullValue();
+            } else {
+                out.value(money.toBigDecimal());
+            }
+        }
+        
+        @Override
+        public Money read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String text = in.nextString();
+            try {
+                return parse(text);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new JsonSyntaxException("Invalid amount: " + text, e);
+            }
+        }
+    }
+}
\ No newline at end of file
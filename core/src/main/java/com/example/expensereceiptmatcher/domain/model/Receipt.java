@@ -1,10 +1,17 @@
 package com.example.expensereceiptmatcher.domain.model;
 
+import java.util.Objects;
+
 public class Receipt {
+    private static final int UNPARSED_DATE = IsoDates.NO_DATE + 1;
+    
     private int id;
     private String imageUrl;
     private String date;
-    private double amount;
+    // date as days since 1970-01-01, parsed on first use and kept; transient keeps it
+    // out of JSON, so it is rebuilt from date after deserialization
+    private transient int epochDay = UNPARSED_DATE;
+    private Money amount;
     private String vendor;
     private String category;
     private String notes;
@@ -39,13 +46,24 @@ public class Receipt {
     
     public void setDate(String date) {
         this.date = date;
+        this.epochDay = IsoDates.parseEpochDay(date);
+    }
+    
+    // IsoDates.NO_DATE when there is no parseable date
+    public int getEpochDay() {
+        int parsed = epochDay;
+        if (parsed == UNPARSED_DATE) {
+            parsed = IsoDates.parseEpochDay(date);
+            epochDay = parsed;
+        }
+        return parsed;
     }
     
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
     
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
     
@@ -89,4 +107,30 @@ public class Receipt {
         this.transactionId = transactionId;
         this.isMatched = transactionId != -1;
     }
+    
+    // Content equality, so list diffs can tell a changed row from an unchanged one
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Receipt other = (Receipt) o;
+        return id == other.id
+                && Objects.equals(amount, other.amount)
+                && isMatched == other.isMatched
+                && transactionId == other.transactionId
+                && Objects.equals(imageUrl, other.imageUrl)
+                && Objects.equals(date, other.date)
+                && Objects.equals(vendor, other.vendor)
+                && Objects.equals(category, other.category)
+                && Objects.equals(notes, other.notes);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, imageUrl, date, amount, vendor, category, notes, isMatched, transactionId);
+    }
 }
\ No newline at end of file
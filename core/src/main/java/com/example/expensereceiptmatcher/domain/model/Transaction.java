@@ -0,0 +1,116 @@
+package com.example.expensereceiptmatcher.domain.model;
+
+import java.util.Objects;
+
+public class Transaction {
+    private static final int UNPARSED_DATE = IsoDates.NO_DATE + 1;
+    
+    private int id;
+    private String date;
+    // date as days since 1970-01-01, parsed on first use and kept; transient keeps it
+    // out of JSON, so it is rebuilt from date after deserialization
+    private transient int epochDay = UNPARSED_DATE;
+    private Money amount;
+    private String description;
+    private String category;
+    private boolean isMatched;
+    private int receiptId;
+    
+    public Transaction() {
+        this.isMatched = false;
+        this.receiptId = -1;
+    }
+    
+    // Getters and setters
+    public int getId() {
+        return id;
+    }
+    
+    public void setId(int id) {
+        this.id = id;
+    }
+    
+    public String getDate() {
+        return date;
+    }
+    
+    public void setDate(String date) {
+        this.date = date;
+        this.epochDay = IsoDates.parseEpochDay(date);
+    }
+    
+    // IsoDates.NO_DATE when there is no parseable date
+    public int getEpochDay() {
+        int parsed = epochDay;
+        if (parsed == UNPARSED_DATE) {
+            parsed = IsoDates.parseEpochDay(date);
+            epochDay = parsed;
+        }
+        return parsed;
+    }
+    
+    public Money getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public boolean isMatched() {
+        return isMatched;
+    }
+    
+    public void setMatched(boolean matched) {
+        isMatched = matched;
+    }
+    
+    public int getReceiptId() {
+        return receiptId;
+    }
+    
+    public void setReceiptId(int receiptId) {
+        this.receiptId = receiptId;
+        this.isMatched = receiptId != -1;
+    }
+    
+    // Equal when every field matches; the list adapters diff on this
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Transaction other = (Transaction) o;
+        return id == other.id
+                && Objects.equals(amount, other.amount)
+                && isMatched == other.isMatched
+                && receiptId == other.receiptId
+                && Objects.equals(date, other.date)
+                && Objects.equals(description, other.description)
+                && Objects.equals(category, other.category);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, date, amount, description, category, isMatched, receiptId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class AutoMatchUseCase {
+    // Client-side batch auto-match: score every unmatched receipt against the
+    // candidate index in parallel, then resolve conflicts one-to-one (by default
+    // maximizing total confidence with OptimalAssignmentSolver)
+
+    // Receipts scored per leaf task before the fork/join split stops
+    private static final int RECEIPTS_PER_TASK = 64;
+
+    private final MatchScorer scorer;
+    private final MatchAssignmentSolver solver;
+    private final ForkJoinPool pool;
+
+    public AutoMatchUseCase() {
+        this(new MatchScorer(), new OptimalAssignmentSolver(), ForkJoinPool.commonPool());
+    }
+
+    public AutoMatchUseCase(MatchScorer scorer, MatchAssignmentSolver solver, ForkJoinPool pool) {
+        this.scorer = scorer;
+        this.solver = solver;
+        this.pool = pool;
+    }
+
+    // Conflict-free matches scoring at or above threshold (0.0 - 1.0)
+    public List<Match> execute(List<Receipt> receipts, List<Transaction> transactions, double threshold) {
+        return solver.solve(findCandidates(receipts, transactions, threshold));
+    }
+
+    // Every receipt/transaction pair at or above threshold, conflicts included
+    public List<Match> findCandidates(List<Receipt> receipts, List<Transaction> transactions, double threshold) {
+        if (receipts == null || receipts.isEmpty() || transactions == null || transactions.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TransactionIndex index = new TransactionIndex(transactions);
+        return pool.invoke(new ScoreTask(receipts, 0, receipts.size(), index, threshold));
+    }
+
+    private class ScoreTask extends RecursiveTask<List<Match>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Receipt> receipts;
+        private final int start;
+        private final int end;
+        private final TransactionIndex index;
+        private final double threshold;
+
+        ScoreTask(List<Receipt> receipts, int start, int end, TransactionIndex index, double threshold) {
+            this.receipts = receipts;
+            this.start = start;
+            this.end = end;
+            this.index = index;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<Match> compute() {
+            if (end - start <= RECEIPTS_PER_TASK) {
+                return scoreRange();
+            }
+            int middle = (start + end) >>> 1;
+            ScoreTask left = new ScoreTask(receipts, start, middle, index, threshold);
+            ScoreTask right = new ScoreTask(receipts, middle, end, index, threshold);
+            left.fork();
+            List<Match> result = right.compute();
+            result.addAll(left.join());
+            return result;
+        }
+
+        private List<Match> scoreRange() {
+            List<Match> candidates = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                Receipt receipt = receipts.get(i);
+                if (receipt.isMatched()) {
+                    continue;
+                }
+                MatchScorer.PreparedReceipt prepared = scorer.prepare(receipt);
+                if (!prepared.hasAmount()) {
+                    // Nothing to match on until OCR finds a total
+                    continue;
+                }
+                for (Transaction transaction : index.findCandidates(prepared.getAmountCents(), prepared.getEpochDay())) {
+                    double confidence = scorer.score(prepared, transaction);
+                    if (confidence >= threshold) {
+                        Match match = new Match();
+                        match.setReceiptId(receipt.getId());
+                        match.setTransactionId(transaction.getId());
+                        match.setConfidenceScore(confidence);
+                        match.setManual(false);
+                        candidates.add(match);
+                    }
+                }
+            }
+            return candidates;
+        }
+    }
+}
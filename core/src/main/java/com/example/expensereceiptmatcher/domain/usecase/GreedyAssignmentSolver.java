@@ -0,0 +1,39 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class GreedyAssignmentSolver implements MatchAssignmentSolver {
+    // Highest confidence first; a pair is accepted if neither side is taken yet
+
+    @Override
+    public List<Match> solve(List<Match> candidates) {
+        List<Match> sorted = new ArrayList<>(candidates);
+        Collections.sort(sorted, new Comparator<Match>() {
+            @Override
+            public int compare(Match a, Match b) {
+                return Double.compare(b.getConfidenceScore(), a.getConfidenceScore());
+            }
+        });
+
+        Set<Integer> usedReceipts = new HashSet<>();
+        Set<Integer> usedTransactions = new HashSet<>();
+        List<Match> assigned = new ArrayList<>();
+        for (Match candidate : sorted) {
+            if (usedReceipts.contains(candidate.getReceiptId())
+                    || usedTransactions.contains(candidate.getTransactionId())) {
+                continue;
+            }
+            usedReceipts.add(candidate.getReceiptId());
+            usedTransactions.add(candidate.getTransactionId());
+            assigned.add(candidate);
+        }
+        return assigned;
+    }
+}
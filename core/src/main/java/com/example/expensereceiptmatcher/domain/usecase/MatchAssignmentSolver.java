@@ -0,0 +1,11 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+
+import java.util.List;
+
+public interface MatchAssignmentSolver {
+    // Pick a conflict-free subset of candidates: each receipt and each
+    // transaction appears in at most one returned match
+    List<Match> solve(List<Match> candidates);
+}
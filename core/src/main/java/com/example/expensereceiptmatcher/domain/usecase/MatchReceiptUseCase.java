@@ -0,0 +1,86 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class MatchReceiptUseCase {
+    // Use case for matching a receipt with a transaction
+
+    private final MatchScorer scorer;
+
+    public MatchReceiptUseCase() {
+        this(new MatchScorer());
+    }
+
+    public MatchReceiptUseCase(MatchScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    // Rank unmatched transactions against a receipt on-device, best candidate first
+    public List<Match> findMatches(Receipt receipt, List<Transaction> transactions) {
+        List<Match> matches = new ArrayList<>();
+        if (receipt == null || transactions == null) {
+            return matches;
+        }
+
+        MatchScorer.PreparedReceipt prepared = scorer.prepare(receipt);
+        for (Transaction transaction : transactions) {
+            if (transaction.isMatched()) {
+                continue;
+            }
+            double confidence = scorer.score(prepared, transaction);
+            if (confidence >= MatchScorer.MIN_CONFIDENCE) {
+                matches.add(toMatch(receipt, transaction, confidence));
+            }
+        }
+
+        Collections.sort(matches, new Comparator<Match>() {
+            @Override
+            public int compare(Match a, Match b) {
+                return Double.compare(b.getConfidenceScore(), a.getConfidenceScore());
+            }
+        });
+        return matches;
+    }
+
+    // Same ranking, but only scores the index's candidates within the amount/day window
+    public List<Match> findMatches(Receipt receipt, TransactionIndex index) {
+        if (receipt == null || index == null) {
+            return new ArrayList<>();
+        }
+        return findMatches(receipt, index.findCandidates(receipt));
+    }
+
+    // Best candidate at or above the threshold, or null if none qualifies
+    public Match findBestMatch(Receipt receipt, List<Transaction> transactions, double threshold) {
+        List<Match> matches = findMatches(receipt, transactions);
+        if (matches.isEmpty() || matches.get(0).getConfidenceScore() < threshold) {
+            return null;
+        }
+        return matches.get(0);
+    }
+
+    public void execute(Receipt receipt, Transaction transaction) {
+        // This would typically involve validating the match and updating both entities
+        // For now, we'll just mark them as matched
+        receipt.setMatched(true);
+        receipt.setTransactionId(transaction.getId());
+        transaction.setMatched(true);
+        transaction.setReceiptId(receipt.getId());
+    }
+
+    private static Match toMatch(Receipt receipt, Transaction transaction, double confidence) {
+        Match match = new Match();
+        match.setReceiptId(receipt.getId());
+        match.setTransactionId(transaction.getId());
+        match.setConfidenceScore(confidence);
+        match.setManual(false);
+        return match;
+    }
+}
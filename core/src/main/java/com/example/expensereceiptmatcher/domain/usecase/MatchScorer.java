@@ -0,0 +1,180 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.IsoDates;
+import com.example.expensereceiptmatcher.domain.model.Money;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class MatchScorer {
+    // Scores a receipt/transaction pair locally using the same point system as
+    // findPotentialMatches() in backend/routes/matches.js, scaled to 0.0 - 1.0
+
+    public static final double MIN_CONFIDENCE = 0.10;
+
+    private static final double MAX_POINTS = 100.0;
+
+    // Amount points (most important factor)
+    private static final double EXACT_AMOUNT_POINTS = 60;
+    private static final double VERY_CLOSE_AMOUNT_POINTS = 40;
+    private static final double CLOSE_AMOUNT_POINTS = 20;
+    private static final double APPROXIMATE_AMOUNT_POINTS = 10;
+
+    // Date points
+    private static final double SAME_DATE_POINTS = 25;
+    private static final double ONE_DAY_POINTS = 15;
+    private static final double THREE_DAYS_POINTS = 5;
+
+    // Vendor/description points
+    private static final double VENDOR_BASE_POINTS = 15;
+    private static final double SIGNIFICANT_WORD_POINTS = 5;
+    private static final double MAX_VENDOR_POINTS = 20;
+    private static final int SIGNIFICANT_WORD_LENGTH = 5;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(
+            Arrays.asList("llc", "inc", "corp", "ltd", "company", "co"));
+
+    static final int NO_DATE = IsoDates.NO_DATE;
+    // Cents of a missing amount, e.g. a receipt whose total OCR did not find. Like the
+    // backend, a missing amount earns no amount points rather than counting as $0.00.
+    static final long NO_AMOUNT = -1;
+
+    // Score a single pair; returns 0.0 when nothing lines up
+    public double score(Receipt receipt, Transaction transaction) {
+        return score(prepare(receipt), transaction);
+    }
+
+    // Score a prepared receipt against a transaction, so the receipt side is only parsed once
+    public double score(PreparedReceipt receipt, Transaction transaction) {
+        double points = amountPoints(receipt.amountCents, toCents(transaction.getAmount()));
+        points += datePoints(receipt.epochDay, transaction.getEpochDay());
+        points += vendorPoints(receipt.vendorWords, transaction.getDescription());
+        return Math.min(points, MAX_POINTS) / MAX_POINTS;
+    }
+
+    public PreparedReceipt prepare(Receipt receipt) {
+        return new PreparedReceipt(receipt, toCents(receipt.getAmount()),
+                receipt.getEpochDay(), vendorWords(receipt.getVendor()));
+    }
+
+    private double amountPoints(long receiptCents, long transactionCents) {
+        if (receiptCents == NO_AMOUNT || transactionCents == NO_AMOUNT) {
+            return 0;
+        }
+        long diff = Math.abs(receiptCents - transactionCents);
+        if (diff == 0) {
+            return EXACT_AMOUNT_POINTS;
+        } else if (diff <= 100) {
+            return VERY_CLOSE_AMOUNT_POINTS;
+        } else if (diff <= 500) {
+            return CLOSE_AMOUNT_POINTS;
+        } else if (diff <= 1000) {
+            return APPROXIMATE_AMOUNT_POINTS;
+        }
+        return 0;
+    }
+
+    private double datePoints(int receiptDay, int transactionDay) {
+        if (receiptDay == NO_DATE || transactionDay == NO_DATE) {
+            return 0;
+        }
+        int daysDiff = Math.abs(receiptDay - transactionDay);
+        if (daysDiff == 0) {
+            return SAME_DATE_POINTS;
+        } else if (daysDiff <= 1) {
+            return ONE_DAY_POINTS;
+        } else if (daysDiff <= 3) {
+            return THREE_DAYS_POINTS;
+        }
+        return 0;
+    }
+
+    private double vendorPoints(String[] vendorWords, String description) {
+        if (vendorWords.length == 0 || description == null) {
+            return 0;
+        }
+        int wordMatches = 0;
+        int significantWordMatches = 0;
+        for (String word : vendorWords) {
+            if (containsIgnoreCase(description, word)) {
+                wordMatches++;
+                // Give extra credit for longer, more specific words
+                if (word.length() >= SIGNIFICANT_WORD_LENGTH) {
+                    significantWordMatches++;
+                }
+            }
+        }
+        if (wordMatches == 0) {
+            return 0;
+        }
+        double basePoints = ((double) wordMatches / vendorWords.length) * VENDOR_BASE_POINTS;
+        return Math.min(basePoints + significantWordMatches * SIGNIFICANT_WORD_POINTS, MAX_VENDOR_POINTS);
+    }
+
+    // Case-insensitive contains without lowercasing a copy of the description
+    private static boolean containsIgnoreCase(String text, String word) {
+        int last = text.length() - word.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, word, 0, word.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Split the vendor into lowercase keywords, skipping short words and company suffixes
+    private static String[] vendorWords(String vendor) {
+        if (vendor == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : vendor.toLowerCase(Locale.US).split("\\s+")) {
+            if (word.length() > 2 && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // Transactions are stored signed (card charges are negative), receipts are not
+    static long toCents(Money amount) {
+        return amount != null ? Math.abs(amount.getMinorUnits()) : NO_AMOUNT;
+    }
+
+    // Receipt fields parsed once so ranking against many transactions stays cheap
+    public static class PreparedReceipt {
+        private final Receipt receipt;
+        private final long amountCents;
+        private final int epochDay;
+        private final String[] vendorWords;
+
+        PreparedReceipt(Receipt receipt, long amountCents, int epochDay, String[] vendorWords) {
+            this.receipt = receipt;
+            this.amountCents = amountCents;
+            this.epochDay = epochDay;
+            this.vendorWords = vendorWords;
+        }
+
+        public Receipt getReceipt() {
+            return receipt;
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public boolean hasAmount() {
+            return amountCents != NO_AMOUNT;
+        }
+
+        public int getEpochDay() {
+            return epochDay;
+        }
+    }
+}
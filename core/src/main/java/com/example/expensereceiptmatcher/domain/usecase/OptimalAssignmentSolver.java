@@ -0,0 +1,246 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OptimalAssignmentSolver implements MatchAssignmentSolver {
+    // Maximum-total-confidence one-to-one assignment over the sparse receipt x transaction
+    // candidate matrix. This is the Hungarian method in its shortest augmenting path form
+    // (Jonker-Volgenant): each receipt is added with a Dijkstra search over reduced costs
+    // that stops at the first free transaction, so work and memory stay proportional to
+    // the number of candidate pairs rather than receipts x transactions.
+    //
+    // Every receipt also gets a private zero-cost "stay unmatched" column, which keeps the
+    // problem feasible and lets a receipt lose its only candidate to a better pairing.
+
+    // Confidence is turned into integer costs so ties and potentials are exact
+    private static final double COST_SCALE = 1_000_000;
+
+    @Override
+    public List<Match> solve(List<Match> candidates) {
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Dense row/column numbering for receipt and transaction ids
+        Map<Integer, Integer> rowIds = new HashMap<>();
+        Map<Integer, Integer> columnIds = new HashMap<>();
+        int edgeCount = candidates.size();
+        int[] edgeRow = new int[edgeCount];
+        int[] edgeColumn = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            Match candidate = candidates.get(e);
+            edgeRow[e] = denseId(rowIds, candidate.getReceiptId());
+            edgeColumn[e] = denseId(columnIds, candidate.getTransactionId());
+        }
+        int rows = rowIds.size();
+        int realColumns = columnIds.size();
+
+        // Compressed sparse rows; slot rowStart[r + 1] - 1 is the row's dummy column
+        int[] rowStart = new int[rows + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            rowStart[edgeRow[e] + 1]++;
+        }
+        for (int r = 0; r < rows; r++) {
+            rowStart[r + 1] += rowStart[r] + 1;
+        }
+        int[] fill = Arrays.copyOf(rowStart, rows);
+        int[] column = new int[edgeCount + rows];
+        long[] cost = new long[edgeCount + rows];
+        int[] edgeOfSlot = new int[edgeCount + rows];
+        int[] slotRow = new int[edgeCount + rows];
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = fill[edgeRow[e]]++;
+            slotRow[slot] = edgeRow[e];
+            column[slot] = edgeColumn[e];
+            cost[slot] = -Math.round(candidates.get(e).getConfidenceScore() * COST_SCALE);
+            edgeOfSlot[slot] = e;
+        }
+        for (int r = 0; r < rows; r++) {
+            int slot = fill[r];
+            slotRow[slot] = r;
+            column[slot] = realColumns + r;
+            cost[slot] = 0;
+            edgeOfSlot[slot] = -1;
+        }
+
+        int[] rowSlot = solve(rows, realColumns + rows, rowStart, slotRow, column, cost);
+
+        List<Match> assigned = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            int edge = edgeOfSlot[rowSlot[r]];
+            if (edge >= 0) {
+                assigned.add(candidates.get(edge));
+            }
+        }
+        return assigned;
+    }
+
+    // Returns, for each row, the CSR slot it is assigned through
+    private int[] solve(int rows, int columns, int[] rowStart, int[] slotRow, int[] column, long[] cost) {
+        long[] potential = new long[columns];
+        int[] columnRow = new int[columns];
+        int[] columnSlot = new int[columns];
+        Arrays.fill(columnRow, -1);
+        int[] rowSlot = new int[rows];
+
+        long[] distance = new long[columns];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        int[] predecessorSlot = new int[columns];
+        boolean[] settled = new boolean[columns];
+        int[] touched = new int[columns];
+        ColumnHeap heap = new ColumnHeap();
+
+        for (int free = 0; free < rows; free++) {
+            int touchedCount = 0;
+            heap.clear();
+
+            for (int s = rowStart[free]; s < rowStart[free + 1]; s++) {
+                int c = column[s];
+                long d = cost[s] - potential[c];
+                if (d < distance[c]) {
+                    if (distance[c] == Long.MAX_VALUE) {
+                        touched[touchedCount++] = c;
+                    }
+                    distance[c] = d;
+                    predecessorSlot[c] = s;
+                    heap.push(d, c);
+                }
+            }
+
+            int end = -1;
+            while (!heap.isEmpty()) {
+                int c = heap.popColumn();
+                if (settled[c]) {
+                    continue;
+                }
+                settled[c] = true;
+                int row = columnRow[c];
+                if (row < 0) {
+                    end = c;
+                    break;
+                }
+
+                // Reduced cost of leaving row via its current column is zero; relax the rest
+                long base = distance[c] - (cost[columnSlot[c]] - potential[c]);
+                for (int s = rowStart[row]; s < rowStart[row + 1]; s++) {
+                    int next = column[s];
+                    if (settled[next]) {
+                        continue;
+                    }
+                    long d = base + cost[s] - potential[next];
+                    if (d < distance[next]) {
+                        if (distance[next] == Long.MAX_VALUE) {
+                            touched[touchedCount++] = next;
+                        }
+                        distance[next] = d;
+                        predecessorSlot[next] = s;
+                        heap.push(d, next);
+                    }
+                }
+            }
+
+            // Every row owns a free dummy column, so a path always exists
+            long pathLength = distance[end];
+            for (int t = 0; t < touchedCount; t++) {
+                int c = touched[t];
+                if (settled[c] && c != end) {
+                    potential[c] += distance[c] - pathLength;
+                }
+            }
+
+            // Flip the alternating path back to the free row
+            int c = end;
+            while (true) {
+                int slot = predecessorSlot[c];
+                int row = slotRow[slot];
+                int previous = row == free ? -1 : column[rowSlot[row]];
+                columnRow[c] = row;
+                columnSlot[c] = slot;
+                rowSlot[row] = slot;
+                if (previous < 0) {
+                    break;
+                }
+                c = previous;
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int touchedColumn = touched[t];
+                distance[touchedColumn] = Long.MAX_VALUE;
+                settled[touchedColumn] = false;
+            }
+        }
+        return rowSlot;
+    }
+
+    private static int denseId(Map<Integer, Integer> ids, int id) {
+        Integer dense = ids.get(id);
+        if (dense == null) {
+            dense = ids.size();
+            ids.put(id, dense);
+        }
+        return dense;
+    }
+
+    // Binary min-heap of (distance, column) with lazy deletion
+    private static class ColumnHeap {
+        private long[] keys = new long[64];
+        private int[] columns = new int[64];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long key, int column) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                columns = Arrays.copyOf(columns, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                columns[i] = columns[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            columns[i] = column;
+        }
+
+        int popColumn() {
+            int top = columns[0];
+            long key = keys[--size];
+            int column = columns[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                columns[i] = columns[child];
+                i = child;
+            }
+            keys[i] = key;
+            columns[i] = column;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TransactionIndex {
+    // In-memory candidate index over unmatched transactions. Entries are grouped into
+    // amount buckets one tolerance wide and sorted by date inside each bucket, so a
+    // lookup touches at most three buckets and only the slice inside the day window.
+    // Buckets are contiguous but in no particular order relative to each other.
+    // Transactions without an amount are left out: they can never be within tolerance.
+
+    // Matches the widest amount band MatchScorer still awards points for ($10)
+    public static final long DEFAULT_AMOUNT_TOLERANCE_CENTS = 1000;
+    public static final int DEFAULT_DAY_WINDOW = 7;
+
+    private final long amountToleranceCents;
+    private final int dayWindow;
+
+    // Parallel arrays, grouped by bucket and sorted by epoch day within each bucket
+    private final Transaction[] transactions;
+    private final long[] amountCents;
+    private final int[] epochDays;
+
+    // Bucket -> [start, end) offsets into the arrays above
+    private final Map<Long, int[]> buckets;
+
+    public TransactionIndex(List<Transaction> transactions) {
+        this(transactions, DEFAULT_AMOUNT_TOLERANCE_CENTS, DEFAULT_DAY_WINDOW);
+    }
+
+    public TransactionIndex(List<Transaction> transactions, long amountToleranceCents, int dayWindow) {
+        if (amountToleranceCents < 0 || dayWindow < 0) {
+            throw new IllegalArgumentException("Tolerance and day window must not be negative");
+        }
+        this.amountToleranceCents = amountToleranceCents;
+        this.dayWindow = dayWindow;
+
+        List<Transaction> priced = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (transaction.getAmount() != null) {
+                priced.add(transaction);
+            }
+        }
+        transactions = priced;
+        int size = transactions.size();
+        long[] cents = new long[size];
+        int[] days = new int[size];
+        long[] bucketKeys = new long[size];
+        this.buckets = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = transactions.get(i);
+            cents[i] = MatchScorer.toCents(transaction.getAmount());
+            days[i] = transaction.getEpochDay();
+            bucketKeys[i] = bucketOf(cents[i]);
+
+            // Count bucket sizes first; range[1] doubles as the fill cursor below
+            int[] range = buckets.get(bucketKeys[i]);
+            if (range == null) {
+                buckets.put(bucketKeys[i], new int[] {0, 1});
+            } else {
+                range[1]++;
+            }
+        }
+
+        int offset = 0;
+        for (int[] range : buckets.values()) {
+            int count = range[1];
+            range[0] = offset;
+            range[1] = offset;
+            offset += count;
+        }
+
+        // Place (epoch day, source index) pairs into their bucket's slice and sort each slice.
+        // The day sits in the high half, so undated entries (NO_DATE) sort first.
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            int[] range = buckets.get(bucketKeys[i]);
+            keys[range[1]++] = (long) days[i] << 32 | i;
+        }
+        for (int[] range : buckets.values()) {
+            Arrays.sort(keys, range[0], range[1]);
+        }
+
+        this.transactions = new Transaction[size];
+        this.amountCents = new long[size];
+        this.epochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            int source = (int) keys[i];
+            this.transactions[i] = transactions.get(source);
+            this.amountCents[i] = cents[source];
+            this.epochDays[i] = days[source];
+        }
+    }
+
+    public int size() {
+        return transactions.length;
+    }
+
+    public long getAmountToleranceCents() {
+        return amountToleranceCents;
+    }
+
+    public int getDayWindow() {
+        return dayWindow;
+    }
+
+    // Unmatched transactions within the amount tolerance and day window of the receipt
+    public List<Transaction> findCandidates(Receipt receipt) {
+        return findCandidates(MatchScorer.toCents(receipt.getAmount()), receipt.getEpochDay());
+    }
+
+    // A receipt without a parseable date is only filtered by amount; one without an
+    // amount has no candidates, as the backend skips it
+    public List<Transaction> findCandidates(long receiptCents, int receiptDay) {
+        List<Transaction> candidates = new ArrayList<>();
+        if (receiptCents == MatchScorer.NO_AMOUNT) {
+            return candidates;
+        }
+        long bucket = bucketOf(receiptCents);
+        for (long key = bucket - 1; key <= bucket + 1; key++) {
+            int[] range = buckets.get(key);
+            if (range != null) {
+                collect(range[0], range[1], receiptCents, receiptDay, candidates);
+            }
+        }
+        return candidates;
+    }
+
+    private void collect(int start, int end, long receiptCents, int receiptDay, List<Transaction> out) {
+        int i = start;
+        if (receiptDay != MatchScorer.NO_DATE) {
+            // Undated entries can still win on amount alone, so keep them
+            while (i < end && epochDays[i] == MatchScorer.NO_DATE) {
+                add(i, receiptCents, out);
+                i++;
+            }
+            i = lowerBound(i, end, receiptDay - dayWindow);
+        }
+        for (; i < end; i++) {
+            if (receiptDay != MatchScorer.NO_DATE && epochDays[i] > receiptDay + dayWindow) {
+                break;
+            }
+            add(i, receiptCents, out);
+        }
+    }
+
+    private void add(int i, long receiptCents, List<Transaction> out) {
+        if (Math.abs(amountCents[i] - receiptCents) <= amountToleranceCents && !transactions[i].isMatched()) {
+            out.add(transactions[i]);
+        }
+    }
+
+    // First index in [start, end) whose epoch day is >= day
+    private int lowerBound(int start, int end, int day) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long bucketOf(long cents) {
+        return cents / Math.max(amountToleranceCents, 1);
+    }
+}
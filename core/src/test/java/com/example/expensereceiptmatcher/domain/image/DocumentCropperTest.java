@@ -0,0 +1,47 @@
+package com.example.expensereceiptmatcher.domain.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DocumentCropperTest {
+
+    @Test
+    public void cropsToThePaperWithinTheMargin() {
+        GrayImage photo = SyntheticReceipt.toGray(SyntheticReceipt.photo());
+        int[] bounds = DocumentCropper.findBounds(photo);
+        int[] paper = SyntheticReceipt.PAPER;
+
+        // The whole sheet is kept, with at most the 2% margin plus a thumbnail pixel around it
+        int slackX = (int) Math.ceil(SyntheticReceipt.WIDTH * 0.02) + 8;
+        int slackY = (int) Math.ceil(SyntheticReceipt.HEIGHT * 0.02) + 8;
+        assertTrue(bounds[0] <= paper[0] && bounds[0] >= paper[0] - slackX);
+        assertTrue(bounds[1] <= paper[1] && bounds[1] >= paper[1] - slackY);
+        int right = bounds[0] + bounds[2];
+        int bottom = bounds[1] + bounds[3];
+        assertTrue(right >= paper[0] + paper[2] && right <= paper[0] + paper[2] + slackX);
+        assertTrue(bottom >= paper[1] + paper[3] && bottom <= paper[1] + paper[3] + slackY);
+    }
+
+    @Test
+    public void keepsTheWholeFrameWithoutContrast() {
+        byte[] pixels = new byte[400 * 300];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) (120 + i % 7);
+        }
+        assertArrayEquals(new int[]{0, 0, 400, 300}, DocumentCropper.findBounds(new GrayImage(400, 300, pixels)));
+    }
+
+    @Test
+    public void keepsTheWholeFrameWhenThePaperFillsIt() {
+        byte[] pixels = new byte[400 * 300];
+        for (int y = 0; y < 300; y++) {
+            for (int x = 0; x < 400; x++) {
+                // Paper up to a thin dark strip along the right edge
+                pixels[y * 400 + x] = (byte) (x < 390 ? 230 : 40);
+            }
+        }
+        assertArrayEquals(new int[]{0, 0, 400, 300}, DocumentCropper.findBounds(new GrayImage(400, 300, pixels)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.expensereceiptmatcher.domain.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.Test;
+
+public class ImageSimilarityTest {
+
+    @Test
+    public void identicalImagesScoreOne() {
+        GrayImage photo = SyntheticReceipt.toGray(SyntheticReceipt.photo());
+        assertEquals(1.0, ImageSimilarity.ssim(photo, photo), 1e-9);
+    }
+
+    @Test
+    public void scoreRisesWithJpegQuality() throws IOException {
+        BufferedImage photo = SyntheticReceipt.photo();
+        GrayImage reference = SyntheticReceipt.toGray(photo);
+        float[] qualities = {0.1f, 0.3f, 0.5f, 0.7f, 0.9f};
+        double previous = 0;
+        for (float quality : qualities) {
+            double score = ImageSimilarity.ssim(reference, SyntheticReceipt.toGray(jpegRoundTrip(photo, quality)));
+            assertTrue("quality " + quality + " scored " + score + " after " + previous, score > previous);
+            assertTrue(score < 1.0);
+            previous = score;
+        }
+    }
+
+    @Test
+    public void lostResolutionCountsAgainstASmallerCopy() {
+        GrayImage reference = SyntheticReceipt.toGray(SyntheticReceipt.photo());
+        int width = reference.getWidth();
+        int height = reference.getHeight();
+        double half = ImageSimilarity.ssim(reference, reference.scaleTo(width / 2, height / 2).scaleTo(width, height));
+        double quarter = ImageSimilarity.ssim(reference, reference.scaleTo(width / 4, height / 4).scaleTo(width, height));
+        assertTrue(half < 1.0);
+        assertTrue(quarter < half);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsImagesOfDifferentSizes() {
+        GrayImage reference = SyntheticReceipt.toGray(SyntheticReceipt.photo());
+        ImageSimilarity.ssim(reference, reference.scaleTo(100, 100));
+    }
+
+    private static BufferedImage jpegRoundTrip(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.expensereceiptmatcher.domain.image;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Random;
+
+// A photo of a receipt drawn with Java2D: a sheet of paper with lines of small print on
+// a darker, slightly noisy table, at a known position
+final class SyntheticReceipt {
+    static final int WIDTH = 1200;
+    static final int HEIGHT = 1600;
+    // {x, y, width, height} of the paper
+    static final int[] PAPER = {300, 200, 600, 1200};
+
+    private SyntheticReceipt() {
+    }
+
+    static BufferedImage photo() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Random random = new Random(7);
+        for (int y = 0; y < HEIGHT; y += 4) {
+            for (int x = 0; x < WIDTH; x += 4) {
+                int shade = 70 + random.nextInt(20);
+                g.setColor(new Color(shade, shade, shade));
+                g.fillRect(x, y, 4, 4);
+            }
+        }
+
+        g.setColor(new Color(235, 235, 235));
+        g.fillRect(PAPER[0], PAPER[1], PAPER[2], PAPER[3]);
+        g.setColor(new Color(30, 30, 30));
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 18));
+        String[] items = {"COFFEE", "BAGEL", "ORANGE JUICE", "MUFFIN", "TEA", "SANDWICH"};
+        int line = 0;
+        for (int y = PAPER[1] + 60; y < PAPER[1] + PAPER[3] - 60; y += 32, line++) {
+            String item = items[line % items.length];
+            String amount = String.format("%d.%02d", 1 + random.nextInt(40), random.nextInt(100));
+            g.drawString(item, PAPER[0] + 40, y);
+            g.drawString(amount, PAPER[0] + PAPER[2] - 40 - 12 * amount.length(), y);
+        }
+        g.dispose();
+        return image;
+    }
+
+    static GrayImage toGray(BufferedImage image) {
+        BufferedImage gray = image;
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = gray.createGraphics();
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+        byte[] pixels = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+        return new GrayImage(gray.getWidth(), gray.getHeight(), pixels.clone());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.expensereceiptmatcher.domain.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+public class IsoDatesTest {
+    // java.time is the reference here; the app cannot use it below API 26
+
+    @Test
+    public void everyDayMatchesJavaTime() {
+        LocalDate end = LocalDate.of(2100, 12, 31);
+        for (LocalDate date = LocalDate.of(1900, 1, 1); !date.isAfter(end); date = date.plusDays(1)) {
+            long expected = date.toEpochDay();
+            assertEquals(date.toString(), expected, IsoDates.parseEpochDay(date.toString()));
+            String us = date.getMonthValue() + "/" + date.getDayOfMonth() + "/" + date.getYear();
+            assertEquals(us, expected, IsoDates.parseEpochDay(us));
+            assertEquals(expected, IsoDates.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    public void acceptsReceiptFormats() {
+        assertEquals(LocalDate.of(2024, 3, 5).toEpochDay(), IsoDates.parseEpochDay("03/05/2024"));
+        assertEquals(LocalDate.of(2024, 3, 5).toEpochDay(), IsoDates.parseEpochDay("3/5/24"));
+        assertEquals(LocalDate.of(2024, 3, 5).toEpochDay(), IsoDates.parseEpochDay("2024-03-05T23:59:59Z"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), IsoDates.parseEpochDay("2024-02-29"));
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), IsoDates.parseEpochDay("2/29/2000"));
+    }
+
+    @Test
+    public void rejectsImpossibleDates() {
+        String[] invalid = {
+                "2024-02-31", "2024-02-30", "2023-02-29", "1900-02-29", "2024-04-31", "2024-06-31",
+                "2024-09-31", "2024-11-31", "2024-13-01", "2024-00-10", "2024-01-00", "2024-01-32",
+                "2/30/2024", "2/29/23", "13/1/2024", "0/1/2024"
+        };
+        for (String date : invalid) {
+            assertEquals(date, IsoDates.NO_DATE, IsoDates.parseEpochDay(date));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedDates() {
+        String[] malformed = {null, "", "2024", "2024-3-05", "2024/03/05x", "3/5", "March 5, 2024", "20240305", "2024-0a-05"};
+        for (String date : malformed) {
+            assertEquals(date, IsoDates.NO_DATE, IsoDates.parseEpochDay(date));
+        }
+    }
+
+    @Test
+    public void timestampsMatchJavaTime() {
+        assertEquals(Instant.parse("2024-03-05T10:15:30Z").toEpochMilli(),
+                IsoDates.parseEpochMillis("2024-03-05T10:15:30Z"));
+        assertEquals(LocalDateTime.of(2024, 3, 5, 10, 15, 30).toInstant(ZoneOffset.UTC).toEpochMilli(),
+                IsoDates.parseEpochMillis("2024-03-05 10:15:30"));
+        assertEquals(OffsetDateTime.parse("2024-03-05T10:15:30.123+02:00").toInstant().toEpochMilli(),
+                IsoDates.parseEpochMillis("2024-03-05T10:15:30.123+02:00"));
+        assertEquals(OffsetDateTime.parse("2024-03-05T10:15-05:30").toInstant().toEpochMilli(),
+                IsoDates.parseEpochMillis("2024-03-05T10:15-05:30"));
+        assertEquals(LocalDate.of(2024, 3, 5).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                IsoDates.parseEpochMillis("2024-03-05"));
+    }
+
+    @Test
+    public void rejectsImpossibleTimestamps() {
+        String[] invalid = {
+                null, "2024-02-31T00:00:00Z", "2023-02-29 12:00:00", "2024-03-05T24:00:00Z",
+                "2024-03-05T10:60:00Z", "2024-03-05T10:15:30+0200", "2024-03-05X10:15", "2024-03-05T10"
+        };
+        for (String timestamp : invalid) {
+            assertEquals(timestamp, IsoDates.NO_INSTANT, IsoDates.parseEpochMillis(timestamp));
+        }
+    }
+}
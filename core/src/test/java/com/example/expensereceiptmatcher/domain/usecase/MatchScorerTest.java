@@ -0,0 +1,87 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Money;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MatchScorerTest {
+    private final MatchScorer scorer = new MatchScorer();
+
+    @Test
+    public void exactAmountSameDateAndVendorScoresFull() {
+        Receipt receipt = receipt(1, "12.34", "2024-03-05", "Blue Bottle Coffee");
+        Transaction transaction = transaction(7, "-12.34", "2024-03-05", "BLUE BOTTLE COFFEE #12");
+
+        assertEquals(1.0, scorer.score(receipt, transaction), 1e-9);
+    }
+
+    @Test
+    public void missingReceiptAmountEarnsNoAmountPoints() {
+        Receipt receipt = receipt(1, null, "2024-03-05", null);
+
+        // Not an exact match against $0.00, nor very close to $0.50
+        assertEquals(0.25, scorer.score(receipt, transaction(7, "0.00", "2024-03-05", "Refund")), 1e-9);
+        assertEquals(0.25, scorer.score(receipt, transaction(8, "-0.50", "2024-03-05", "Parking")), 1e-9);
+    }
+
+    @Test
+    public void missingTransactionAmountEarnsNoAmountPoints() {
+        Receipt receipt = receipt(1, "0.00", null, null);
+        Transaction transaction = transaction(7, null, null, "Pending charge");
+
+        assertEquals(0.0, scorer.score(receipt, transaction), 1e-9);
+    }
+
+    @Test
+    public void receiptWithoutAmountIsNotAutoMatched() {
+        List<Receipt> receipts = Arrays.asList(
+                receipt(1, null, "2024-03-05", "Parking"),
+                receipt(2, "0.50", "2024-03-05", "Parking"));
+        List<Transaction> transactions = Arrays.asList(
+                transaction(7, "-0.50", "2024-03-05", "City Parking"),
+                transaction(8, null, "2024-03-05", "City Parking"));
+
+        List<Match> candidates = new AutoMatchUseCase().findCandidates(receipts, transactions, 0.0);
+
+        assertEquals(1, candidates.size());
+        assertEquals(2, candidates.get(0).getReceiptId());
+        assertEquals(7, candidates.get(0).getTransactionId());
+    }
+
+    @Test
+    public void indexHasNoCandidatesForMissingAmount() {
+        TransactionIndex index = new TransactionIndex(Arrays.asList(
+                transaction(7, "0.00", "2024-03-05", "Refund"),
+                transaction(8, null, "2024-03-05", "Unknown")));
+
+        assertEquals(1, index.size());
+        assertTrue(index.findCandidates(receipt(1, null, "2024-03-05", null)).isEmpty());
+    }
+
+    private static Receipt receipt(int id, String amount, String date, String vendor) {
+        Receipt receipt = new Receipt();
+        receipt.setId(id);
+        receipt.setAmount(amount != null ? Money.parse(amount) : null);
+        receipt.setDate(date);
+        receipt.setVendor(vendor);
+        return receipt;
+    }
+
+    private static Transaction transaction(int id, String amount, String date, String description) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(amount != null ? Money.parse(amount) : null);
+        transaction.setDate(date);
+        transaction.setDescription(description);
+        return transaction;
+    }
+}
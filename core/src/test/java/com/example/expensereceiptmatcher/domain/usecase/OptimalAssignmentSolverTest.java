@@ -0,0 +1,108 @@
+package com.example.expensereceiptmatcher.domain.usecase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.expensereceiptmatcher.domain.model.Match;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class OptimalAssignmentSolverTest {
+    private final OptimalAssignmentSolver solver = new OptimalAssignmentSolver();
+
+    @Test
+    public void emptyCandidatesGiveNoMatches() {
+        assertTrue(solver.solve(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void givesUpBestPairWhenTwoGoodPairsBeatIt() {
+        // Greedy takes r1-t1 (0.9) and leaves r2 with nothing; 0.8 + 0.8 is better
+        List<Match> candidates = Arrays.asList(
+                match(1, 1, 0.9),
+                match(1, 2, 0.8),
+                match(2, 1, 0.8));
+
+        List<Match> solution = solver.solve(candidates);
+
+        assertEquals(1.6, total(solution), 1e-9);
+        assertEquals(0.9, total(new GreedyAssignmentSolver().solve(candidates)), 1e-9);
+    }
+
+    @Test
+    public void matchesBruteForceOnRandomInstances() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            int receipts = 1 + random.nextInt(6);
+            int transactions = 1 + random.nextInt(6);
+            double density = 0.2 + random.nextDouble() * 0.8;
+            List<Match> candidates = new ArrayList<>();
+            for (int r = 0; r < receipts; r++) {
+                for (int t = 0; t < transactions; t++) {
+                    if (random.nextDouble() < density) {
+                        // Coarse scores so ties between equally good assignments are common
+                        candidates.add(match(100 + r, 200 + t, (1 + random.nextInt(20)) / 20.0));
+                    }
+                }
+            }
+
+            List<Match> solution = solver.solve(candidates);
+
+            assertOneToOne(solution, candidates);
+            assertEquals("round " + round, bruteForce(candidates, 0, new HashSet<Integer>(), new HashSet<Integer>()),
+                    total(solution), 1e-9);
+        }
+    }
+
+    // Best total over every conflict-free subset, one candidate at a time
+    private static double bruteForce(List<Match> candidates, int index, Set<Integer> receipts,
+                                     Set<Integer> transactions) {
+        if (index == candidates.size()) {
+            return 0;
+        }
+        double best = bruteForce(candidates, index + 1, receipts, transactions);
+        Match candidate = candidates.get(index);
+        if (!receipts.contains(candidate.getReceiptId()) && !transactions.contains(candidate.getTransactionId())) {
+            receipts.add(candidate.getReceiptId());
+            transactions.add(candidate.getTransactionId());
+            best = Math.max(best, candidate.getConfidenceScore()
+                    + bruteForce(candidates, index + 1, receipts, transactions));
+            receipts.remove(candidate.getReceiptId());
+            transactions.remove(candidate.getTransactionId());
+        }
+        return best;
+    }
+
+    private static void assertOneToOne(List<Match> solution, List<Match> candidates) {
+        Set<Integer> receipts = new HashSet<>();
+        Set<Integer> transactions = new HashSet<>();
+        for (Match match : solution) {
+            assertTrue("receipt used twice", receipts.add(match.getReceiptId()));
+            assertTrue("transaction used twice", transactions.add(match.getTransactionId()));
+            assertTrue("not a candidate", candidates.contains(match));
+        }
+    }
+
+    private static double total(List<Match> matches) {
+        double total = 0;
+        for (Match match : matches) {
+            total += match.getConfidenceScore();
+        }
+        return total;
+    }
+
+    private static Match match(int receiptId, int transactionId, double confidence) {
+        Match match = new Match();
+        match.setReceiptId(receiptId);
+        match.setTransactionId(transactionId);
+        match.setConfidenceScore(confidence);
+        return match;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.expensereceiptmatcher.reconciler;
+
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+final class ReceiptDumpReader {
+    // Reads receipts saved from the API, either a bare JSON array of receipts or the
+    // server's {"data": [...]} envelope. Receipts are decoded one element at a time
+    // from the stream rather than by building a tree of the whole document first.
+
+    private static final String DATA_FIELD = "data";
+
+    private final TypeAdapter<Receipt> receiptAdapter;
+
+    ReceiptDumpReader(Gson gson) {
+        this.receiptAdapter = gson.getAdapter(Receipt.class);
+    }
+
+    List<Receipt> readAll(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        List<Receipt> receipts = new ArrayList<>();
+        if (json.peek() == JsonToken.BEGIN_OBJECT) {
+            json.beginObject();
+            boolean found = false;
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (!found && DATA_FIELD.equals(name) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                    readArray(json, receipts);
+                    found = true;
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            if (!found) {
+                throw new IOException("Receipts JSON has no \"data\" array");
+            }
+        } else {
+            readArray(json, receipts);
+        }
+        return receipts;
+    }
+
+    private void readArray(JsonReader json, List<Receipt> receipts) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            Receipt receipt = receiptAdapter.read(json);
+            if (receipt != null) {
+                receipts.add(receipt);
+            }
+        }
+        json.endArray();
+    }
+}
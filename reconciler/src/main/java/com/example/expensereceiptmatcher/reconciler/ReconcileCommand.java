@@ -0,0 +1,240 @@
+package com.example.expensereceiptmatcher.reconciler;
+
+import com.example.expensereceiptmatcher.data.api.CreateMatchRequest;
+import com.example.expensereceiptmatcher.domain.model.Match;
+import com.example.expensereceiptmatcher.domain.model.Receipt;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+import com.example.expensereceiptmatcher.domain.usecase.AutoMatchUseCase;
+import com.example.expensereceiptmatcher.domain.usecase.GreedyAssignmentSolver;
+import com.example.expensereceiptmatcher.domain.usecase.MatchAssignmentSolver;
+import com.example.expensereceiptmatcher.domain.usecase.MatchScorer;
+import com.example.expensereceiptmatcher.domain.usecase.OptimalAssignmentSolver;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public final class ReconcileCommand {
+    // Offline batch reconciliation with the app's own matching engine: reads a receipts
+    // JSON dump and a bank CSV, scores every unmatched receipt against the transactions
+    // near it in amount and date on all cores, resolves conflicts one-to-one, and writes
+    // the result as CreateMatchRequest JSON ready to POST to /matches, plus a summary.
+    //
+    // Exit status is 0 on success, 1 when an input cannot be read or written and 2 for
+    // bad arguments.
+
+    private static final String USAGE = "Usage: reconciler --receipts <receipts.json> --transactions <transactions.csv>\n"
+            + "                  [--out <proposed-matches.json>] [--summary <summary.json>]\n"
+            + "                  [--threshold <percent, default 70>] [--threads <n>]\n"
+            + "                  [--auto-confirm] [--greedy]";
+
+    // Same default as the server's auto-match
+    private static final int DEFAULT_THRESHOLD = 70;
+    private static final String DEFAULT_OUT = "proposed-matches.json";
+
+    private Path receiptsPath;
+    private Path transactionsPath;
+    private Path outPath = Paths.get(DEFAULT_OUT);
+    private Path summaryPath;
+    private int threshold = DEFAULT_THRESHOLD;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean autoConfirm;
+    private boolean greedy;
+
+    private final Gson gson = new GsonBuilder().create();
+
+    public static void main(String[] args) {
+        ReconcileCommand command = new ReconcileCommand();
+        try {
+            command.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            command.run().print(System.out);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Reconciliation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--receipts":
+                    receiptsPath = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--transactions":
+                    transactionsPath = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--out":
+                    outPath = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--summary":
+                    summaryPath = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--threshold":
+                    threshold = intValueOf(args, ++i, arg, 0, 100);
+                    break;
+                case "--threads":
+                    threads = intValueOf(args, ++i, arg, 1, Short.MAX_VALUE);
+                    break;
+                case "--auto-confirm":
+                    autoConfirm = true;
+                    break;
+                case "--greedy":
+                    greedy = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (receiptsPath == null || transactionsPath == null) {
+            throw new IllegalArgumentException("--receipts and --transactions are required");
+        }
+    }
+
+    ReconcileSummary run() throws IOException {
+        ReconcileSummary summary = new ReconcileSummary();
+        summary.threshold = threshold;
+        summary.threads = threads;
+        summary.solver = greedy ? "greedy" : "optimal";
+
+        long start = System.nanoTime();
+        List<Receipt> receipts;
+        try (Reader reader = Files.newBufferedReader(receiptsPath, StandardCharsets.UTF_8)) {
+            receipts = new ReceiptDumpReader(gson).readAll(reader);
+        }
+        List<Transaction> transactions;
+        TransactionCsvReader csv;
+        try (BufferedReader reader = Files.newBufferedReader(transactionsPath, StandardCharsets.UTF_8)) {
+            csv = new TransactionCsvReader(reader);
+            transactions = csv.readAll();
+        }
+        summary.receipts = receipts.size();
+        summary.transactions = transactions.size();
+        summary.transactionRowsSkipped = csv.getSkippedRows();
+        summary.transactionIdsFromFile = csv.hasIdColumn();
+        transactions = withoutClaimedTransactions(receipts, transactions, summary);
+        summary.readMillis = millisSince(start);
+
+        MatchAssignmentSolver solver = greedy ? new GreedyAssignmentSolver() : new OptimalAssignmentSolver();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Match> matches;
+        try {
+            AutoMatchUseCase autoMatch = new AutoMatchUseCase(new MatchScorer(), solver, pool);
+            start = System.nanoTime();
+            List<Match> candidates = autoMatch.findCandidates(receipts, transactions, threshold / 100.0);
+            summary.candidatePairs = candidates.size();
+            summary.scoreMillis = millisSince(start);
+
+            start = System.nanoTime();
+            matches = solver.solve(candidates);
+            summary.solveMillis = millisSince(start);
+        } finally {
+            pool.shutdown();
+        }
+
+        start = System.nanoTime();
+        matches.sort(Comparator.comparingInt(Match::getReceiptId));
+        writeProposals(matches, summary);
+        summary.unmatchedReceipts = summary.receipts - summary.receiptsAlreadyMatched - summary.proposedMatches;
+        summary.writeMillis = millisSince(start);
+        if (summaryPath != null) {
+            try (Writer writer = Files.newBufferedWriter(summaryPath, StandardCharsets.UTF_8)) {
+                gson.toJson(summary, writer);
+            }
+        }
+        return summary;
+    }
+
+    // Receipts the dump already shows as matched are skipped by the matcher itself. Their
+    // transactions can only be excluded when the CSV carries server ids to compare with.
+    private List<Transaction> withoutClaimedTransactions(List<Receipt> receipts, List<Transaction> transactions,
+                                                         ReconcileSummary summary) {
+        Set<Integer> claimed = new HashSet<>();
+        for (Receipt receipt : receipts) {
+            if (receipt.isMatched()) {
+                summary.receiptsAlreadyMatched++;
+                claimed.add(receipt.getTransactionId());
+            }
+        }
+        if (claimed.isEmpty() || !summary.transactionIdsFromFile) {
+            return transactions;
+        }
+        List<Transaction> unclaimed = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (claimed.contains(transaction.getId())) {
+                summary.transactionsAlreadyMatched++;
+            } else {
+                unclaimed.add(transaction);
+            }
+        }
+        return unclaimed;
+    }
+
+    // A JSON array of CreateMatchRequest, written one element at a time
+    private void writeProposals(List<Match> matches, ReconcileSummary summary) throws IOException {
+        long confidenceTotal = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(outPath, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            json.setIndent("  ");
+            json.beginArray();
+            for (Match match : matches) {
+                int confidence = (int) Math.round(match.getConfidenceScore() * 100);
+                CreateMatchRequest request = new CreateMatchRequest(match.getTransactionId(), match.getReceiptId(),
+                        confidence, autoConfirm);
+                gson.toJson(request, CreateMatchRequest.class, json);
+                confidenceTotal += confidence;
+                summary.addConfidence(confidence);
+            }
+            json.endArray();
+        }
+        summary.proposedMatches = matches.size();
+        summary.averageConfidence = matches.isEmpty() ? 0 : (double) confidenceTotal / matches.size();
+    }
+
+    private static String valueOf(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static int intValueOf(String[] args, int index, String option, int min, int max) {
+        String value = valueOf(args, index, option);
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(option + " must be a whole number from " + min + " to " + max
+                + ", got " + value);
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.expensereceiptmatcher.reconciler;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+final class ReconcileSummary {
+    // Counts and timings for one run, printed for the operator and optionally saved as
+    // JSON next to the proposals. Field names are the JSON keys.
+
+    int receipts;
+    int receiptsAlreadyMatched;
+    int transactions;
+    int transactionRowsSkipped;
+    int transactionsAlreadyMatched;
+    boolean transactionIdsFromFile;
+    int threshold;
+    int threads;
+    String solver;
+    long candidatePairs;
+    int proposedMatches;
+    int unmatchedReceipts;
+    double averageConfidence;
+    // Proposals by confidence: 90-100, 80-89, 70-79 and below 70
+    int[] confidenceBands = new int[4];
+    long readMillis;
+    long scoreMillis;
+    long solveMillis;
+    long writeMillis;
+
+    void addConfidence(int percent) {
+        if (percent >= 90) {
+            confidenceBands[0]++;
+        } else if (percent >= 80) {
+            confidenceBands[1]++;
+        } else if (percent >= 70) {
+            confidenceBands[2]++;
+        } else {
+            confidenceBands[3]++;
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.US, "Receipts:          %,d (%,d already matched)%n", receipts, receiptsAlreadyMatched);
+        out.printf(Locale.US, "Transactions:      %,d (%,d rows skipped, %,d already matched)%n",
+                transactions, transactionRowsSkipped, transactionsAlreadyMatched);
+        if (!transactionIdsFromFile) {
+            out.println("                   ids are CSV row numbers; the file has no Id column");
+        }
+        out.printf(Locale.US, "Candidate pairs:   %,d at >= %d%% (%s solver, %d threads)%n",
+                candidatePairs, threshold, solver, threads);
+        out.printf(Locale.US, "Proposed matches:  %,d, average confidence %.1f%%%n", proposedMatches, averageConfidence);
+        out.printf(Locale.US, "  90-100%%: %,d  80-89%%: %,d  70-79%%: %,d  below 70%%: %,d%n",
+                confidenceBands[0], confidenceBands[1], confidenceBands[2], confidenceBands[3]);
+        out.printf(Locale.US, "Unmatched receipts: %,d%n", unmatchedReceipts);
+        out.printf(Locale.US, "Time: read %,d ms, score %,d ms, solve %,d ms, write %,d ms%n",
+                readMillis, scoreMillis, solveMillis, writeMillis);
+    }
+}
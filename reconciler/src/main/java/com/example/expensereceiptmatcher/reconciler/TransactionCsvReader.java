@@ -0,0 +1,195 @@
+package com.example.expensereceiptmatcher.reconciler;
+
+import com.example.expensereceiptmatcher.domain.model.IsoDates;
+import com.example.expensereceiptmatcher.domain.model.Money;
+import com.example.expensereceiptmatcher.domain.model.Transaction;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class TransactionCsvReader {
+    // Reads a bank export in the format the server's /transactions/import accepts: a
+    // header row, then one transaction per row with "Transaction Date" (M/D/YYYY),
+    // "Description", "Amount" (or "Transaction Amount") and "Category". Other columns are
+    // ignored. Rows the server would skip, those without a usable date, are skipped here
+    // too and counted.
+    //
+    // Rows are parsed straight from the character stream, one at a time, so a million-row
+    // file costs the Transaction objects and nothing more. Dates and categories repeat
+    // heavily in a statement and share one String per distinct value.
+    //
+    // The CSV carries no server ids. If it has an "Id" column (a re-export of imported
+    // transactions) its values are used; otherwise each transaction gets its 1-based data
+    // row number.
+
+    private static final String[] DATE_COLUMNS = {"Transaction Date"};
+    private static final String[] DESCRIPTION_COLUMNS = {"Description"};
+    private static final String[] AMOUNT_COLUMNS = {"Amount", "Transaction Amount"};
+    private static final String[] CATEGORY_COLUMNS = {"Category"};
+    private static final String[] ID_COLUMNS = {"Id", "id", "ID"};
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder field = new StringBuilder();
+    private final Map<String, String> sharedValues = new HashMap<>();
+    private int skippedRows;
+    private boolean hasIdColumn;
+
+    TransactionCsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    List<Transaction> readAll() throws IOException {
+        List<String> row = new ArrayList<>();
+        if (!readRow(row)) {
+            throw new IOException("Transactions CSV is empty");
+        }
+        if (!row.isEmpty() && !row.get(0).isEmpty() && row.get(0).charAt(0) == BYTE_ORDER_MARK) {
+            row.set(0, row.get(0).substring(1));
+        }
+        int dateColumn = column(row, DATE_COLUMNS);
+        int descriptionColumn = column(row, DESCRIPTION_COLUMNS);
+        int amountColumn = column(row, AMOUNT_COLUMNS);
+        int categoryColumn = column(row, CATEGORY_COLUMNS);
+        int idColumn = column(row, ID_COLUMNS);
+        if (dateColumn < 0 || amountColumn < 0) {
+            throw new IOException("Transactions CSV needs \"Transaction Date\" and \"Amount\" columns, found " + row);
+        }
+        hasIdColumn = idColumn >= 0;
+
+        List<Transaction> transactions = new ArrayList<>();
+        int rowNumber = 0;
+        while (readRow(row)) {
+            if (row.size() == 1 && row.get(0).isEmpty()) {
+                // Blank line
+                continue;
+            }
+            rowNumber++;
+            Transaction transaction = new Transaction();
+            transaction.setDate(shared(value(row, dateColumn)));
+            if (transaction.getEpochDay() == IsoDates.NO_DATE) {
+                skippedRows++;
+                continue;
+            }
+            transaction.setId(hasIdColumn ? parseId(value(row, idColumn), rowNumber) : rowNumber);
+            transaction.setDescription(value(row, descriptionColumn));
+            transaction.setAmount(parseAmount(value(row, amountColumn)));
+            transaction.setCategory(shared(value(row, categoryColumn)));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    // Data rows dropped for a missing or unrecognized date
+    int getSkippedRows() {
+        return skippedRows;
+    }
+
+    // Whether transaction ids came from the file rather than row numbers
+    boolean hasIdColumn() {
+        return hasIdColumn;
+    }
+
+    // Like the server, an amount that is not a number counts as zero. Currency symbols
+    // and thousands separators are dropped first.
+    private static Money parseAmount(String text) {
+        String cleaned = text.replace("$", "").replace(",", "");
+        if (cleaned.isEmpty()) {
+            return Money.ZERO;
+        }
+        try {
+            return Money.parse(cleaned);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return Money.ZERO;
+        }
+    }
+
+    private static int parseId(String text, int rowNumber) throws IOException {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Row " + rowNumber + ": Id \"" + text + "\" is not a number");
+        }
+    }
+
+    private static int column(List<String> header, String[] names) {
+        for (String name : names) {
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String value(List<String> row, int column) {
+        return column >= 0 && column < row.size() ? row.get(column).trim() : "";
+    }
+
+    private String shared(String value) {
+        String existing = sharedValues.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    // One RFC 4180 record into row: fields split on commas, double-quoted fields may hold
+    // commas, line breaks and "" for a quote. False at end of input.
+    private boolean readRow(List<String> row) throws IOException {
+        row.clear();
+        field.setLength(0);
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        row.add(field.toString());
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}